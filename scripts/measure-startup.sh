@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Compares startup time of the plain jar against the AOT + AppCDS build.
+#
+#   ./scripts/measure-startup.sh [runs]
+#
+# Startup time is taken from Spring Boot's "Started ... (process running for N)" log line,
+# i.e. JVM start until the app accepts traffic. Uses the default (H2) profile.
+set -euo pipefail
+
+RUNS="${1:-5}"
+MVN="${MVN:-sh ./mvnw}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="$ROOT/target/startup-benchmark"
+PORT="${PORT:-18081}"
+
+cd "$ROOT"
+
+echo "Building baseline jar..."
+$MVN -q -B clean package -DskipTests
+mkdir -p "$WORK/baseline" "$WORK/fast"
+java -Djarmode=tools -jar target/drone-dispatch-service-*.jar extract --destination "$WORK/baseline"
+
+echo "Building fast-startup jar..."
+$MVN -q -B package -DskipTests -Pfast-startup
+java -Djarmode=tools -jar target/drone-dispatch-service-*.jar extract --destination "$WORK/fast"
+
+echo "Training run for the AppCDS archive..."
+(cd "$WORK/fast" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -Ddrone.seed.enabled=false -jar drone-dispatch-service-*.jar > training.log 2>&1)
+
+# Starts the app, waits for the "Started" line, prints the startup seconds and stops the app
+measure() {
+    local dir="$1"; shift
+    local log="$dir/run.log"
+    (cd "$dir" && exec java "$@" -jar drone-dispatch-service-*.jar --server.port="$PORT" > "$log" 2>&1) &
+    local pid=$!
+    for _ in $(seq 1 600); do
+        if grep -q "Started DroneDispatchServiceApplication" "$log"; then break; fi
+        sleep 0.1
+    done
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    grep -o "process running for [0-9.]*" "$log" | awk '{print $4}'
+}
+
+report() {
+    local name="$1"; shift
+    local samples=""
+    for _ in $(seq 1 "$RUNS"); do
+        samples="$samples $(measure "$@")"
+    done
+    echo "$samples" | awk -v name="$name" '{ s = 0; for (i = 1; i <= NF; i++) s += $i;
+        printf "%-14s avg %6.3fs  runs:%s\n", name, s / NF, $0 }'
+}
+
+echo
+report "baseline" "$WORK/baseline"
+report "aot" "$WORK/fast" -Dspring.aot.enabled=true
+report "aot + appcds" "$WORK/fast" -Dspring.aot.enabled=true -XX:SharedArchiveFile=app.jsa
@@ -1,14 +1,38 @@
 package com.interview.prep.drone_dispatch_service;
 
+import com.interview.prep.drone_dispatch_service.config.DispatchQueueProperties;
 import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
+import com.interview.prep.drone_dispatch_service.config.EventLogProperties;
+import com.interview.prep.drone_dispatch_service.config.FlightRecorderProperties;
+import com.interview.prep.drone_dispatch_service.config.ForecastProperties;
+import com.interview.prep.drone_dispatch_service.config.IdempotencyProperties;
+import com.interview.prep.drone_dispatch_service.config.NoFlyZoneProperties;
+import com.interview.prep.drone_dispatch_service.config.RateLimitProperties;
+import com.interview.prep.drone_dispatch_service.config.ReplicaDataSourceProperties;
+import com.interview.prep.drone_dispatch_service.config.RoutePlanningProperties;
+import com.interview.prep.drone_dispatch_service.config.TelemetryProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties(DroneConfigProperties.class)
+@EnableConfigurationProperties({
+		DroneConfigProperties.class,
+		ReplicaDataSourceProperties.class,
+		IdempotencyProperties.class,
+		RoutePlanningProperties.class,
+		DispatchQueueProperties.class,
+		RateLimitProperties.class,
+		EventLogProperties.class,
+		FlightRecorderProperties.class,
+		NoFlyZoneProperties.class,
+		ForecastProperties.class,
+		TelemetryProperties.class
+})
 @EnableScheduling
+@EnableAsync
 public class DroneDispatchServiceApplication {
 
 	public static void main(String[] args) {
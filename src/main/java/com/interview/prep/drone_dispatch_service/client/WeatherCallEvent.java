@@ -0,0 +1,31 @@
+package com.interview.prep.drone_dispatch_service.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one call to the weather service.
+ */
+@Name(WeatherCallEvent.NAME)
+@Label("Weather Call")
+@Category({"Drone Dispatch"})
+@Description("One request to the external weather service")
+@StackTrace(false)
+public class WeatherCallEvent extends Event {
+
+    public static final String NAME = "drone.weather.Call";
+
+    @Label("City")
+    String city;
+
+    @Label("Forecast")
+    @Description("Whether the hourly forecast was requested")
+    boolean forecast;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
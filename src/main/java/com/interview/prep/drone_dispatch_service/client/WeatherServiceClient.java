@@ -22,10 +22,40 @@ public class WeatherServiceClient {
     }
 
     public WeatherApiResponse getWeather(String city) {
-        log.info("Calling Weather Service for city: {}", city);
+        log.debug("Calling Weather Service for city: {}", city);
+        return call(city, false);
+    }
+
+    /**
+     * Current weather plus the hourly forecast ({@link WeatherApiResponse#hourly()}) for the coming days.
+     */
+    public WeatherApiResponse getForecast(String city) {
+        log.debug("Calling Weather Service for the forecast of city: {}", city);
+        return call(city, true);
+    }
+
+    private WeatherApiResponse call(String city, boolean forecast) {
+        WeatherCallEvent event = new WeatherCallEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            WeatherApiResponse response = fetch(city, forecast ? "/forecast" : "");
+            succeeded = true;
+            return response;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.city = city;
+                event.forecast = forecast;
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+    }
 
+    private WeatherApiResponse fetch(String city, String resource) {
         return restClient.get()
-                .uri(weatherServiceUrl + "/weather/" + city)
+                .uri(weatherServiceUrl + "/weather/" + city + resource)
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, (request, response) -> {
                     log.error("City not found or bad request: {}", city);
@@ -0,0 +1,34 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Serves CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) when the client asks
+ * for them in the Accept header; JSON stays the default. Binary formats write timestamps numerically, since
+ * ISO strings on every history row are most of what the binary encoding would otherwise save.
+ */
+@Configuration
+public class BinaryEncodingConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = builder.factory(new CBORFactory()).build();
+        mapper.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new MappingJackson2CborHttpMessageConverter(mapper);
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = builder.factory(new SmileFactory()).build();
+        mapper.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new MappingJackson2SmileHttpMessageConverter(mapper);
+    }
+}
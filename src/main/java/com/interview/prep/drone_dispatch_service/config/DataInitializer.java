@@ -5,19 +5,32 @@ import com.interview.prep.drone_dispatch_service.entity.DroneModel;
 import com.interview.prep.drone_dispatch_service.entity.DroneState;
 import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 
 @Component
 @RequiredArgsConstructor
-public class DataInitializer implements CommandLineRunner {
+public class DataInitializer {
 
     private final DroneRepository droneRepository;
 
-    @Override
-    public void run(String... args) throws Exception {
+    // Read at runtime rather than via @ConditionalOnProperty, which AOT builds would freeze at build time
+    @Value("${drone.seed.enabled:true}")
+    private boolean seedEnabled;
+
+    // Seeds after the app reports ready, on a background thread, so it never delays startup
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFleet() {
+        if (!seedEnabled) {
+            return;
+        }
+
         if (droneRepository.count() == 0) {
             System.out.println("🌱 Seeding Drone Fleet...");
 
@@ -45,4 +58,4 @@ public class DataInitializer implements CommandLineRunner {
             System.out.println("💫 Drone Inventory Initialized with " + initialFleet.size() + " drones!");
         }
     }
-}
\ No newline at end of file
+}
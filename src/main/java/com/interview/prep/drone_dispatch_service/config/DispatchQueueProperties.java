@@ -0,0 +1,20 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "drone.queue")
+@Data
+public class DispatchQueueProperties {
+    // Once a city's queue is full the lowest-priority ticket is shed (503 if that is the new one)
+    private int capacityPerCity = 500;
+
+    // Queued tickets expire after this; resolved tickets stay pollable for the same time
+    private Duration ticketTtl = Duration.ofMinutes(10);
+
+    private Duration subscribeTimeout = Duration.ofMinutes(2);
+
+    private Duration retryAfter = Duration.ofSeconds(30);
+}
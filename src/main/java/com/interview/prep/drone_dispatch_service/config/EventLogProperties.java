@@ -0,0 +1,21 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "drone.event-log")
+@Data
+public class EventLogProperties {
+    // Opt-in: reserves segment-size x retained-segments (1 GB by default) of disk under the directory
+    private boolean enabled = false;
+
+    // One file per segment, named after the offset of its first event
+    private String directory = "data/event-log";
+
+    // Rounded down to whole events; a full segment is rolled over to a new file
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    // Oldest segments beyond this are deleted, so consumers must keep up within this window
+    private int retainedSegments = 16;
+}
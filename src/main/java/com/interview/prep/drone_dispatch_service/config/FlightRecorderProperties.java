@@ -0,0 +1,22 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "drone.flight-recorder")
+@Data
+public class FlightRecorderProperties {
+    // Continuous recording with the JDK's low-overhead "default" settings plus the dispatch events. Dumps are
+    // served by the "flightrecording" actuator endpoint on the management port, once it is exposed there
+    private boolean enabled = false;
+
+    // Whichever limit is hit first drops the oldest data, so a dump covers at most this window
+    private Duration maxAge = Duration.ofMinutes(30);
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+
+    // Dispatch phases and weather calls faster than this are not recorded
+    private Duration threshold = Duration.ofMillis(10);
+}
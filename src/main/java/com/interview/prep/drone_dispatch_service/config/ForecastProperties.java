@@ -0,0 +1,14 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "drone.forecast")
+@Data
+public class ForecastProperties {
+    // How far ahead a departure window is searched after a weather rejection
+    private int horizonHours = 48;
+
+    // Upper bound on cached city forecasts; the cache is cleared when it fills up
+    private int cacheSize = 1000;
+}
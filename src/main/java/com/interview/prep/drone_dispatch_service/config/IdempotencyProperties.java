@@ -0,0 +1,19 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "drone.idempotency")
+@Data
+public class IdempotencyProperties {
+    private Duration ttl = Duration.ofMinutes(10);
+    private int maxEntries = 10_000;
+
+    // How long a duplicate waits for the original request before giving up with 409
+    private Duration waitTimeout = Duration.ofSeconds(30);
+
+    // Also keep keys in the idempotency_record table so retries hitting another node are deduplicated
+    private boolean persistent = false;
+}
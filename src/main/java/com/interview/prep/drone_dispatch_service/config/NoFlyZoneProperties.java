@@ -0,0 +1,14 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "drone.no-fly-zones")
+@Data
+public class NoFlyZoneProperties {
+    // JSON array of zones; re-read whenever the file changes. No zones are enforced without it.
+    private String location;
+
+    // Grid resolution of the zone index (0.1 degrees is about 11 km); zones are registered in every cell they touch
+    private double cellSizeDegrees = 0.1;
+}
@@ -0,0 +1,25 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public WebMvcConfigurer rateLimitConfigurer(RateLimitInterceptor rateLimitInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // Ticket event streams stay open for minutes and would pin a concurrency permit each. Telemetry is
+                // limited like everything else: the gateway has its own API key, so it doesn't share the clients'
+                // budget, and the concurrency limiter keeps a latency baseline per route
+                registry.addInterceptor(rateLimitInterceptor)
+                        .addPathPatterns("/api/v1/dispatch", "/api/v1/dispatch/**")
+                        .excludePathPatterns("/api/v1/dispatch/tickets/*/events");
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import com.interview.prep.drone_dispatch_service.exception.RateLimitExceededException;
+import com.interview.prep.drone_dispatch_service.service.AdaptiveConcurrencyLimiter;
+import com.interview.prep.drone_dispatch_service.service.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+/**
+ * Guards the dispatch API: first the caller's token bucket, then the global concurrency limit.
+ * Either one rejects with 429 and a Retry-After hint.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED_AT_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".startedAt";
+
+    // The bucket the request was charged to, for handlers that charge more than one token (batch dispatch)
+    public static final String CLIENT_KEY_ATTRIBUTE = "drone.rateLimit.clientKey";
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled() || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+
+        String clientKey = rateLimiter.clientKey(request.getHeader(properties.getApiKeyHeader()), request.getRemoteAddr());
+        long waitNanos = rateLimiter.tryAcquire(clientKey);
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException("Rate limit exceeded. Please slow down.", Duration.ofNanos(waitNanos));
+        }
+        request.setAttribute(CLIENT_KEY_ATTRIBUTE, clientKey);
+
+        if (properties.getConcurrency().isEnabled()) {
+            if (!concurrencyLimiter.tryAcquire()) {
+                log.debug("Shedding request: {} in flight, limit {}", concurrencyLimiter.getInFlight(), concurrencyLimiter.getLimit());
+                throw new RateLimitExceededException("Server is at capacity. Please retry shortly.",
+                        properties.getConcurrency().getRetryAfter());
+            }
+            request.setAttribute(STARTED_AT_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT_ATTRIBUTE);
+        if (startedAt != null) {
+            request.removeAttribute(STARTED_AT_ATTRIBUTE);
+            concurrencyLimiter.release(route(request), System.nanoTime() - (Long) startedAt);
+        }
+    }
+
+    // The matched pattern rather than the path, so /tickets/{ticketId} is one route however many tickets exist
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "unmatched");
+    }
+}
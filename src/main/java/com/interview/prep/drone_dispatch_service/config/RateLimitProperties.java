@@ -0,0 +1,50 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "drone.rate-limit")
+@Data
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    // Clients without this header, or with a key not listed in policies, are limited per remote address
+    private String apiKeyHeader = "X-API-Key";
+
+    private Policy defaultPolicy = new Policy();
+
+    // API keys that get a bucket of their own, with their policy
+    private Map<String, Policy> policies = new HashMap<>();
+
+    // Upper bound on tracked remote addresses; beyond it, new addresses share one bucket
+    private int maxTrackedKeys = 10_000;
+
+    // Buckets that have been full for this long are dropped
+    private Duration idleEviction = Duration.ofMinutes(10);
+
+    private Concurrency concurrency = new Concurrency();
+
+    @Data
+    public static class Policy {
+        private int capacity = 20;           // Burst size
+        private double refillPerSecond = 10; // Sustained rate
+    }
+
+    @Data
+    public static class Concurrency {
+        private boolean enabled = true;
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 200;
+
+        // The limit shrinks when a request takes this many times the best recent latency
+        private double latencyTolerance = 2.0;
+        private double backoffRatio = 0.9;
+
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
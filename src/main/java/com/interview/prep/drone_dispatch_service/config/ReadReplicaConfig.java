@@ -0,0 +1,59 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Always registers the routing DataSource; {@code drone.datasource.read-replicas-enabled} is read at runtime, and
+ * when it is off the router has no replicas and sends every connection to the primary. A
+ * {@code @ConditionalOnProperty} here would be frozen by AOT processing at image build time.
+ */
+@Configuration
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties primaryProperties,
+                                                             ReplicaDataSourceProperties replicaProperties,
+                                                             TaskScheduler taskScheduler) {
+        DataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+
+        List<ReplicaDataSourceProperties.Replica> configured = replicaProperties.isReadReplicasEnabled()
+                ? replicaProperties.getReplicas()
+                : List.of();
+        List<DataSource> replicas = configured.stream()
+                .map(replica -> (DataSource) DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(replica.getUrl())
+                        .username(replica.getUsername())
+                        .password(replica.getPassword())
+                        .driverClassName(replica.getDriverClassName())
+                        .build())
+                .toList();
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primary, replicas, replicaProperties.getMaxStaleness(), replicaProperties.getLagQuery());
+
+        if (!replicas.isEmpty()) {
+            taskScheduler.scheduleWithFixedDelay(routing::checkReplicas, replicaProperties.getHealthCheckInterval());
+        }
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        // Defers the physical connection until the first statement, by which time the read-only flag is known
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,32 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "drone.datasource")
+@Data
+public class ReplicaDataSourceProperties {
+    private boolean readReplicasEnabled = false;
+    private List<Replica> replicas = new ArrayList<>();
+
+    // A replica lagging further behind than this is skipped until it catches up
+    private Duration maxStaleness = Duration.ofSeconds(5);
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // Must return the replication lag in seconds, e.g. for PostgreSQL:
+    // SELECT COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+    // When empty, replicas are only pinged and assumed to be current.
+    private String lagQuery;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+}
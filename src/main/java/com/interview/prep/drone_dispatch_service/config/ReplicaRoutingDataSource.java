@@ -0,0 +1,145 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to one of the replicas (round-robin) and everything else to the primary.
+ * Replicas that fail their health check, or lag behind by more than the staleness bound, are skipped;
+ * when no replica qualifies the read falls back to the primary.
+ * <p>
+ * Must be wrapped in a {@code LazyConnectionDataSourceProxy} so the connection is fetched after the
+ * transaction's read-only flag has been set.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<ReplicaNode> replicas;
+    private final Duration maxStaleness;
+    private final String lagQuery;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    Duration maxStaleness, String lagQuery) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(ReplicaNode::new).toList();
+        this.maxStaleness = maxStaleness;
+        this.lagQuery = (lagQuery == null || lagQuery.isBlank()) ? null : lagQuery;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(replicaKey(i), replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicas();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            int candidate = (start + i) % size;
+            if (replicas.get(candidate).isUsable(maxStaleness)) {
+                return replicaKey(candidate);
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Pings every replica and records its replication lag. Called on startup and then periodically.
+     */
+    public void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaNode node = replicas.get(i);
+            try (Connection connection = node.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery != null ? lagQuery : "SELECT 1")) {
+
+                long lagMillis = 0;
+                if (lagQuery != null && rs.next()) {
+                    lagMillis = Math.round(rs.getDouble(1) * 1000);
+                }
+                if (!node.healthy) {
+                    log.info("Read replica {} is available (lag {} ms)", i, lagMillis);
+                }
+                node.lagMillis = lagMillis;
+                node.healthy = true;
+            } catch (SQLException ex) {
+                if (node.healthy) {
+                    log.warn("Read replica {} failed health check, routing reads elsewhere: {}", i, ex.getMessage());
+                }
+                node.healthy = false;
+            }
+        }
+    }
+
+    /**
+     * Closes the primary and replica connection pools.
+     */
+    public void close() {
+        for (ReplicaNode node : replicas) {
+            if (node.dataSource instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException ex) {
+                    log.warn("Failed to close read replica pool: {}", ex.getMessage());
+                }
+            }
+        }
+        if (primary instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException ex) {
+                log.warn("Failed to close primary pool: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+
+    private static final class ReplicaNode {
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis;
+
+        private ReplicaNode(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private boolean isUsable(Duration maxStaleness) {
+            return healthy && lagMillis <= maxStaleness.toMillis();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "drone.routing")
+@Data
+public class RoutePlanningProperties {
+    // Cities where a drone can land and recharge on the way to a destination beyond its range
+    private List<ChargingHub> hubs = new ArrayList<>();
+
+    // Upper bound on cached origin/destination pairs; the cache is cleared when it fills up
+    private int routeCacheSize = 10_000;
+
+    @Data
+    public static class ChargingHub {
+        private String name;
+        private double latitude;
+        private double longitude;
+    }
+}
@@ -0,0 +1,24 @@
+package com.interview.prep.drone_dispatch_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "drone.telemetry")
+@Data
+public class TelemetryProperties {
+    // Off by default: drones are simulated by DroneScheduler, which stops once real telemetry is enabled
+    private boolean enabled = false;
+
+    // Shared secret the drone gateway sends in the X-Telemetry-Token header; required when enabled
+    private String token;
+
+    // The latest report per drone is written this often, however many arrived in between
+    private long flushIntervalMs = 1000;
+
+    // Upper bound on buffered drones; reports for further drones are rejected
+    private int maxDrones = 100_000;
+
+    // Report timestamps further ahead of reception than this are clamped to it, so one report from a drone with
+    // a wrong clock cannot outrank every later one
+    private long maxClockSkewMs = 5000;
+}
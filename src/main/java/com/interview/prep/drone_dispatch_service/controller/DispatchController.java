@@ -1,17 +1,42 @@
 package com.interview.prep.drone_dispatch_service.controller;
 
-import com.interview.prep.drone_dispatch_service.dto.DispatchHistoryResponse;
-import com.interview.prep.drone_dispatch_service.dto.DispatchRequest;
-import com.interview.prep.drone_dispatch_service.dto.DispatchResponse;
-import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.config.DispatchQueueProperties;
+import com.interview.prep.drone_dispatch_service.config.RateLimitInterceptor;
+import com.interview.prep.drone_dispatch_service.dto.*;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+import com.interview.prep.drone_dispatch_service.exception.InvalidPageRequestException;
+import com.interview.prep.drone_dispatch_service.service.BatchDispatchService;
+import com.interview.prep.drone_dispatch_service.service.DispatchEventLog;
 import com.interview.prep.drone_dispatch_service.service.DispatchService;
+import com.interview.prep.drone_dispatch_service.service.FleetTransferService;
+import com.interview.prep.drone_dispatch_service.service.IdempotencyService;
+import com.interview.prep.drone_dispatch_service.service.NoFlyZoneService;
+import com.interview.prep.drone_dispatch_service.service.PendingDispatchQueue;
+import com.interview.prep.drone_dispatch_service.service.TelemetryService;
+import com.interview.prep.drone_dispatch_service.service.WeatherSnapshotService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/dispatch")
@@ -19,20 +44,94 @@ import java.util.List;
 @Slf4j
 public class DispatchController {
 
+    private static final int DEFAULT_FLEET_PAGE_SIZE = 100;
+    private static final int MAX_FLEET_PAGE_SIZE = 1000;
+    private static final int DEFAULT_EVENT_PAGE_SIZE = 500;
+    private static final int MAX_EVENT_PAGE_SIZE = 5000;
+    private static final String DISPATCH_ID_MDC_KEY = "dispatchId";
+    private static final String TEXT_CSV = "text/csv";
+
     private final DispatchService dispatchService;
+    private final IdempotencyService idempotencyService;
+    private final BatchDispatchService batchDispatchService;
+    private final PendingDispatchQueue pendingDispatchQueue;
+    private final DispatchQueueProperties queueProperties;
+    private final DispatchEventLog eventLog;
+    private final WeatherSnapshotService weatherSnapshotService;
+    private final FleetTransferService fleetTransferService;
+    private final NoFlyZoneService noFlyZoneService;
+    private final TelemetryService telemetryService;
 
     @PostMapping
-    public ResponseEntity<DispatchResponse> dispatch(@Valid @RequestBody DispatchRequest request) {
-        log.info("New dispatch request received for drone: {}", request.droneId());
+    public ResponseEntity<DispatchResponse> dispatch(
+            @Valid @RequestBody DispatchRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        // Tags every log line of this dispatch, so a single decision can be traced in the JSON logs
+        String dispatchId = UUID.randomUUID().toString();
+        try (MDC.MDCCloseable ignored = MDC.putCloseable(DISPATCH_ID_MDC_KEY, dispatchId)) {
+            log.debug("New dispatch request received for drone: {}", request.droneId());
+
+            DispatchResponse response = (idempotencyKey == null || idempotencyKey.isBlank())
+                    ? dispatchService.dispatchDrone(request)
+                    : idempotencyService.execute(idempotencyKey, request, () -> dispatchService.dispatchDrone(request));
+
+            return ResponseEntity.ok()
+                    .header("X-Dispatch-Id", dispatchId)
+                    .body(response);
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<DispatchResponse>> dispatchBatch(
+            @Valid @RequestBody BatchDispatchRequest request,
+            @RequestAttribute(name = RateLimitInterceptor.CLIENT_KEY_ATTRIBUTE, required = false) String clientKey
+    ) {
+        log.debug("New batch dispatch request received with {} orders", request.orders().size());
+        return ResponseEntity.ok(batchDispatchService.dispatchBatch(request.orders(), clientKey));
+    }
+
+    @PostMapping("/queue")
+    public ResponseEntity<TicketResponse> enqueue(@Valid @RequestBody QueuedDispatchRequest request) {
+        TicketResponse ticket = pendingDispatchQueue.enqueue(request);
 
-        DispatchResponse response = dispatchService.dispatchDrone(request);
+        // 200 if a drone was free and the dispatch already ran, 202 while the ticket waits
+        return ResponseEntity.status(ticket.status() == TicketStatus.QUEUED ? HttpStatus.ACCEPTED : HttpStatus.OK)
+                .location(URI.create("/api/v1/dispatch/tickets/" + ticket.ticketId()))
+                .body(ticket);
+    }
 
-        return ResponseEntity.ok(response);
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<TicketResponse> getTicket(@PathVariable String ticketId) {
+        return ResponseEntity.ok(pendingDispatchQueue.getTicket(ticketId));
+    }
+
+    // Server-sent events: the current ticket state right away, then the final state once it leaves the queue
+    @GetMapping("/tickets/{ticketId}/events")
+    public SseEmitter subscribeToTicket(@PathVariable String ticketId) throws IOException {
+        TicketResponse current = pendingDispatchQueue.getTicket(ticketId);
+        SseEmitter emitter = new SseEmitter(queueProperties.getSubscribeTimeout().toMillis());
+        emitter.send(SseEmitter.event().name("ticket").data(current));
+
+        pendingDispatchQueue.awaitTicket(ticketId).whenComplete((ticket, error) -> {
+            try {
+                if (error == null) {
+                    emitter.send(SseEmitter.event().name("ticket").data(ticket));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away or the emitter timed out; nothing left to deliver
+                emitter.completeWithError(ex);
+            }
+        });
+        return emitter;
     }
 
     @GetMapping("/history")
-    public ResponseEntity<List<DispatchHistoryResponse>> getAllHistory() {
-        return ResponseEntity.ok(dispatchService.getAllHistory());
+    public ResponseEntity<List<DispatchHistoryResponse>> getAllHistory(
+            @RequestParam(required = false) ReasonCode reasonCode
+    ) {
+        return ResponseEntity.ok(dispatchService.getAllHistory(reasonCode));
     }
 
     @GetMapping("/history/{droneId}")
@@ -42,9 +141,96 @@ public class DispatchController {
         return ResponseEntity.ok(dispatchService.getDroneHistory(droneId));
     }
 
+    // Follow decisions and drone transitions: pass the returned nextOffset as 'from' on the next poll
+    @GetMapping("/events")
+    public ResponseEntity<EventPage> getEvents(
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(required = false) Integer limit
+    ) {
+        int max = Math.clamp(limit == null ? DEFAULT_EVENT_PAGE_SIZE : limit, 1, MAX_EVENT_PAGE_SIZE);
+        return ResponseEntity.ok(eventLog.read(from, max));
+    }
+
+    // Weather time series for a city, from the observations stored with dispatch decisions (last day by default)
+    @GetMapping("/weather/{city}")
+    public ResponseEntity<List<WeatherSnapshotResponse>> getWeatherHistory(
+            @PathVariable String city,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        LocalDateTime end = to == null ? LocalDateTime.now() : to;
+        LocalDateTime start = from == null ? end.minusDays(1) : from;
+        return ResponseEntity.ok(weatherSnapshotService.history(city, start, end));
+    }
+
+    // The zones pre-flight checks currently enforce
+    @GetMapping("/no-fly-zones")
+    public ResponseEntity<List<NoFlyZone>> getNoFlyZones() {
+        return ResponseEntity.ok(noFlyZoneService.zones());
+    }
+
+    // Drone reports are buffered and written on the next telemetry flush; JSON, CBOR or Smile
+    @PostMapping(value = "/telemetry", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            "application/x-jackson-smile"})
+    public ResponseEntity<TelemetryResponse> ingestTelemetry(
+            @RequestHeader(value = "X-Telemetry-Token", required = false) String token,
+            @Valid @RequestBody TelemetryBatch batch) {
+        return ResponseEntity.accepted().body(telemetryService.ingest(token, batch.reports()));
+    }
+
     @GetMapping("/fleet")
-    public ResponseEntity<List<DroneResponse>> getFleetStatus() {
-        return ResponseEntity.ok(dispatchService.getAvailableDrones());
+    public ResponseEntity<List<DroneResponse>> getFleetStatus(
+            @RequestParam(required = false) DroneState state,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Double minBattery,
+            @RequestParam(required = false) DroneModel model,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String afterId // Last id of the previous page; cheaper than a deep page
+    ) {
+        if ((page != null && page < 0) || (size != null && size < 1)) {
+            throw new InvalidPageRequestException("page must be 0 or more and size 1 or more");
+        }
+        // Without page/size/afterId the whole (filtered) fleet is returned, as before
+        Pageable pageable = (page == null && size == null && afterId == null)
+                ? Pageable.unpaged()
+                : PageRequest.of(page == null ? 0 : page,
+                        Math.min(size == null ? DEFAULT_FLEET_PAGE_SIZE : size, MAX_FLEET_PAGE_SIZE));
+        if (pageable.isPaged() && pageable.getOffset() > Integer.MAX_VALUE) {
+            throw new InvalidPageRequestException("page * size must not exceed " + Integer.MAX_VALUE
+                    + "; page with afterId instead");
+        }
+
+        Slice<DroneResponse> fleet = dispatchService.searchFleet(state, location, minBattery, model, afterId, pageable);
+
+        return ResponseEntity.ok()
+                .header("X-Has-Next", String.valueOf(fleet.hasNext()))
+                .body(fleet.getContent());
+    }
+
+    // Bulk onboarding: one drone per line, upserted by id
+    @PostMapping(value = "/fleet/import", consumes = TEXT_CSV)
+    public ResponseEntity<FleetImportResponse> importFleetCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(fleetTransferService.importFleet(FleetFormat.CSV, body));
+    }
+
+    @PostMapping(value = "/fleet/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<FleetImportResponse> importFleetNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(fleetTransferService.importFleet(FleetFormat.NDJSON, body));
+    }
+
+    // Written straight to the response on the request thread: an async body would hit the async request
+    // timeout on large fleets
+    @GetMapping(value = "/fleet/export", produces = TEXT_CSV)
+    public void exportFleetCsv(HttpServletResponse response) throws IOException {
+        response.setContentType(TEXT_CSV);
+        fleetTransferService.exportFleet(FleetFormat.CSV, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/fleet/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportFleetNdjson(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        fleetTransferService.exportFleet(FleetFormat.NDJSON, response.getOutputStream());
     }
 
 }
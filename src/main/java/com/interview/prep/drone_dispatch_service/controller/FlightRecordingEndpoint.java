@@ -0,0 +1,64 @@
+package com.interview.prep.drone_dispatch_service.controller;
+
+import com.interview.prep.drone_dispatch_service.exception.RecordingUnavailableException;
+import com.interview.prep.drone_dispatch_service.service.FlightRecorderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * {@code GET /actuator/flightrecording} on the management port: dumps the continuous flight recording (open with
+ * JDK Mission Control or {@code jfr print}); 503 while recording is disabled. Always registered, since
+ * {@code drone.flight-recorder.enabled} is read at runtime and AOT would freeze a condition at build time. Like every
+ * actuator endpoint besides health it is only served once listed in {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "flightrecording")
+@RequiredArgsConstructor
+public class FlightRecordingEndpoint {
+
+    private final FlightRecorderService flightRecorder;
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump() {
+        try {
+            return new WebEndpointResponse<>(new DumpResource(flightRecorder.dump()), WebEndpointResponse.STATUS_OK);
+        } catch (RecordingUnavailableException ex) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+    }
+
+    // The dump is a temporary file; it is deleted once the response has been written
+    static final class DumpResource extends FileSystemResource {
+        private final Path file;
+
+        DumpResource(Path file) {
+            super(file);
+            this.file = file;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.interview.prep.drone_dispatch_service.controller;
+
+import com.interview.prep.drone_dispatch_service.dto.ReplayReport;
+import com.interview.prep.drone_dispatch_service.dto.ReplayRequest;
+import com.interview.prep.drone_dispatch_service.service.RuleReplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code POST /actuator/rulereplay} on the management port: what-if replay of the dispatch history against
+ * candidate {@code drone.rules} thresholds (a JSON body with any of the {@link ReplayRequest} fields). A replay
+ * scans the whole history, so it is kept off the public API; like every actuator endpoint besides health it is
+ * only served once listed in {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "rulereplay")
+@RequiredArgsConstructor
+public class RuleReplayEndpoint {
+
+    private final RuleReplayService ruleReplayService;
+
+    @WriteOperation
+    public WebEndpointResponse<ReplayReport> replay(@Nullable Double maxRangeKm, @Nullable Double maxWindSpeed,
+                                                    @Nullable Double minTemperature,
+                                                    @Nullable Integer stormCodeThreshold,
+                                                    @Nullable LocalDateTime from, @Nullable LocalDateTime to) {
+        if (maxRangeKm != null && maxRangeKm <= 0) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        return new WebEndpointResponse<>(ruleReplayService.replay(new ReplayRequest(
+                maxRangeKm, maxWindSpeed, minTemperature, stormCodeThreshold, from, to)));
+    }
+}
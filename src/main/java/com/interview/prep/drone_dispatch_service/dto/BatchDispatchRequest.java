@@ -0,0 +1,12 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchDispatchRequest(
+        @NotEmpty @Size(max = 1000) List<@Valid BatchOrder> orders
+) {
+}
@@ -0,0 +1,11 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+
+public record BatchOrder(
+        @NotBlank String origin,
+        @NotBlank String destination,
+        @PositiveOrZero double payloadKg
+) {
+}
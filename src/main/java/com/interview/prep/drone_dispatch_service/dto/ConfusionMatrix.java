@@ -0,0 +1,13 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+// Historical decision (first word) against the decision under the candidate rules (second word)
+public record ConfusionMatrix(
+        long approvedApproved,
+        long approvedRejected,
+        long rejectedApproved,
+        long rejectedRejected
+) {
+    public long flipped() {
+        return approvedRejected + rejectedApproved;
+    }
+}
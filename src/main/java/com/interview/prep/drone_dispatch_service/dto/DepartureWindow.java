@@ -0,0 +1,9 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import java.time.LocalDateTime;
+
+public record DepartureWindow(
+        LocalDateTime from,
+        LocalDateTime to // Exclusive; the end of the forecast when conditions stay safe until then
+) {
+}
@@ -0,0 +1,22 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DispatchEvent(
+        long offset,
+        EventType type,
+        Instant timestamp,
+        String droneId,
+        String status,
+        String previousStatus,  // DRONE_TRANSITION only
+        ReasonCode reasonCode,  // DISPATCH_DECISION only
+        Long dispatchRecordId,  // DISPATCH_DECISION only
+        String origin,          // Current location for DRONE_TRANSITION
+        String destination,     // DISPATCH_DECISION only
+        Double batteryLevel     // DRONE_TRANSITION only
+) {
+}
@@ -1,5 +1,6 @@
 package com.interview.prep.drone_dispatch_service.dto;
 
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
 import com.interview.prep.drone_dispatch_service.entity.Status;
 
 import java.time.LocalDateTime;
@@ -10,6 +11,7 @@ public record DispatchHistoryResponse(
         String destination,
         Status status,
         String reason,
+        ReasonCode reasonCode,
         Double originTemp,
         Double destTemp,
         LocalDateTime timestamp
@@ -0,0 +1,57 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import com.interview.prep.drone_dispatch_service.entity.DispatchRecord;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+
+/**
+ * Why a dispatch was decided the way it was, as a code plus its parameters. The human-readable message is only
+ * built when a response is rendered; records store just the code and the parameters.
+ */
+public record DispatchReason(ReasonCode code, String subject, Double value1, Double value2) {
+
+    public static DispatchReason of(ReasonCode code) {
+        return new DispatchReason(code, null, null, null);
+    }
+
+    public static DispatchReason of(ReasonCode code, String subject) {
+        return new DispatchReason(code, subject, null, null);
+    }
+
+    public static DispatchReason of(ReasonCode code, double value1) {
+        return new DispatchReason(code, null, value1, null);
+    }
+
+    public static DispatchReason of(ReasonCode code, double value1, double value2) {
+        return new DispatchReason(code, null, value1, value2);
+    }
+
+    public static DispatchReason from(DispatchRecord record) {
+        if (record.getReasonCode() == null) {
+            return null;
+        }
+        // Legacy rows keep their original text, which doesn't fit the subject column
+        String subject = record.getReasonCode() == ReasonCode.LEGACY ? record.getReason() : record.getReasonSubject();
+        return new DispatchReason(record.getReasonCode(), subject, record.getReasonValue1(), record.getReasonValue2());
+    }
+
+    public String render(String droneId, String origin) {
+        return switch (code) {
+            case APPROVED -> "Flight approved. Conditions optimal.";
+            case APPROVED_WITH_STOPS -> String.format("Flight approved with %d charging stops. Conditions optimal.",
+                    value1.intValue());
+            case DRONE_NOT_AT_ORIGIN -> "Drone is at " + subject + ", not " + origin;
+            case DRONE_NOT_IDLE -> "Drone " + droneId + " is currently " + subject;
+            case OUT_OF_RANGE -> String.format(
+                    "Destination too far (%.2f km). Max range is %.0fkm and no charging route is available.",
+                    value1, value2);
+            case UNSAFE_ORIGIN -> "Unsafe takeoff conditions in Origin Data.";
+            case UNSAFE_DESTINATION -> "Unsafe takeoff conditions in Destination Data.";
+            case UNSAFE_CHARGING_STOP -> "Unsafe conditions at charging stop " + subject + ".";
+            case NO_CAPABLE_DRONE -> "No IDLE drone at " + origin + " can carry " + value1 + " kg";
+            case LEGACY -> subject;
+            case NO_FLY_ZONE -> "Flight path crosses no-fly zone " + subject + ".";
+            case RATE_LIMITED -> "Rate limit exceeded. Please slow down.";
+            case DISPATCH_FAILED -> "Dispatch failed: " + subject;
+        };
+    }
+}
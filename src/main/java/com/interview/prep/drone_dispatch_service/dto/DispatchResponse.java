@@ -1,10 +1,28 @@
 package com.interview.prep.drone_dispatch_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
 import com.interview.prep.drone_dispatch_service.entity.Status;
 
+import java.util.List;
+
 public record DispatchResponse(
         String droneId,
         Status status,
-        String reason
+        String reason,
+        @JsonInclude(JsonInclude.Include.NON_NULL) ReasonCode reasonCode,
+        @JsonInclude(JsonInclude.Include.NON_EMPTY) List<RouteLeg> legs, // Only set for multi-leg routes
+        @JsonInclude(JsonInclude.Include.NON_NULL) DepartureWindow departureWindow // Only set on weather rejections
 ) {
+    public DispatchResponse(String droneId, Status status, String reason) {
+        this(droneId, status, reason, null, List.of(), null);
+    }
+
+    public static DispatchResponse of(String droneId, String origin, Status status, DispatchReason reason) {
+        return new DispatchResponse(droneId, status, reason.render(droneId, origin), reason.code(), List.of(), null);
+    }
+
+    public DispatchResponse withDepartureWindow(DepartureWindow window) {
+        return new DispatchResponse(droneId, status, reason, reasonCode, legs, window);
+    }
 }
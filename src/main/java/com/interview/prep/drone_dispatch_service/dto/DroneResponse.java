@@ -1,9 +1,17 @@
 package com.interview.prep.drone_dispatch_service.dto;
 
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+
 public record DroneResponse(
         String id,
         String model,
         Double batteryCapacity,
         String state,
         String currentLocation
-) {}
+) {
+    // Used by constructor projections, so fleet queries never hydrate Drone entities
+    public DroneResponse(String id, DroneModel model, Double batteryCapacity, DroneState state, String currentLocation) {
+        this(id, model.toString(), batteryCapacity, state.toString(), currentLocation);
+    }
+}
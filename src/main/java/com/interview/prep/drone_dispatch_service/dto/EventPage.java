@@ -0,0 +1,10 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import java.util.List;
+
+public record EventPage(
+        long firstOffset, // Oldest event still retained; a consumer behind this has missed events
+        long nextOffset,  // Pass as 'from' to continue
+        List<DispatchEvent> events
+) {
+}
@@ -0,0 +1,6 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+public enum EventType {
+    DISPATCH_DECISION, // status is the dispatch Status
+    DRONE_TRANSITION   // status and previousStatus are DroneStates
+}
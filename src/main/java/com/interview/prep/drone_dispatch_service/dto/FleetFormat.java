@@ -0,0 +1,6 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+public enum FleetFormat {
+    CSV,    // Header line, then one drone per line: id,model,batteryCapacity,state,currentLocation
+    NDJSON  // One DroneResponse JSON object per line
+}
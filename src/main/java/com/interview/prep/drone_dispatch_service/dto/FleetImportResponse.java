@@ -0,0 +1,10 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import java.util.List;
+
+public record FleetImportResponse(
+        long imported,
+        long rejected,
+        List<String> errors // The first rejected lines, with their line number and the reason
+) {
+}
@@ -0,0 +1,17 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Either a circle (latitude, longitude, radiusKm) or a polygon of [latitude, longitude] vertices
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record NoFlyZone(
+        String id,
+        String name,
+        Double latitude,
+        Double longitude,
+        Double radiusKm,
+        List<double[]> polygon
+) {
+}
@@ -0,0 +1,14 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+
+public record QueuedDispatchRequest(
+        @NotBlank String origin,
+        @NotBlank String destination,
+        @PositiveOrZero double payloadKg,
+        @Min(0) @Max(9) int priority // Higher goes first; equal priorities are served in arrival order
+) {
+}
@@ -0,0 +1,13 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import java.util.Map;
+
+public record ReplayReport(
+        long replayed,
+        long skipped,                       // Decided before the rules applied (drone unavailable) or without weather
+        ConfusionMatrix total,
+        Map<String, ConfusionMatrix> byCity, // Origin city
+        Map<String, ConfusionMatrix> byDrone, // Only drones with at least one flipped decision
+        long elapsedMs
+) {
+}
@@ -0,0 +1,16 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDateTime;
+
+// Candidate drone.rules; thresholds left out keep their current value
+public record ReplayRequest(
+        @Positive Double maxRangeKm,
+        Double maxWindSpeed,
+        Double minTemperature,
+        Integer stormCodeThreshold,
+        LocalDateTime from,  // Optional window of decisions to replay, by decision time
+        LocalDateTime to
+) {
+}
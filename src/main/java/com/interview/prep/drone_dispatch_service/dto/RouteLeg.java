@@ -0,0 +1,12 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+public record RouteLeg(
+        String from,
+        String to,
+        double distanceKm,
+        double fromLatitude,
+        double fromLongitude,
+        double toLatitude,
+        double toLongitude
+) {
+}
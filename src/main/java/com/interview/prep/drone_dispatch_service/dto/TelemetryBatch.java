@@ -0,0 +1,12 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// Reports are checked one by one while buffering, so an invalid report doesn't fail the batch
+public record TelemetryBatch(
+        @NotEmpty @Size(max = 10000) List<TelemetryReport> reports
+) {
+}
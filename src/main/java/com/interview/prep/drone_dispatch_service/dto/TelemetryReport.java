@@ -0,0 +1,12 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+
+public record TelemetryReport(
+        String droneId,
+        Long timestamp, // Epoch millis on the drone; the receive time when missing
+        Double batteryCapacity,
+        String location,
+        DroneState state
+) {
+}
@@ -0,0 +1,7 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+public record TelemetryResponse(
+        int accepted,
+        int rejected
+) {
+}
@@ -0,0 +1,13 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TicketResponse(
+        String ticketId,
+        TicketStatus status,
+        String origin,
+        Integer position,         // 0-based place in the city queue while QUEUED
+        DispatchResponse dispatch // Set once COMPLETED
+) {
+}
@@ -0,0 +1,8 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+public enum TicketStatus {
+    QUEUED,
+    COMPLETED, // A drone was picked and the dispatch decision is in the response
+    SHED,      // Dropped from a full queue for a higher-priority request
+    EXPIRED
+}
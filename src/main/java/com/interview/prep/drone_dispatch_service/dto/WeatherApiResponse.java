@@ -2,14 +2,36 @@ package com.interview.prep.drone_dispatch_service.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 public record WeatherApiResponse(
         @JsonProperty("current_weather") CurrentWeather currentWeather,
         double latitude,
-        double longitude
+        double longitude,
+        Hourly hourly // Only set on forecast responses
 ) {
+    public WeatherApiResponse(CurrentWeather currentWeather, double latitude, double longitude) {
+        this(currentWeather, latitude, longitude, null);
+    }
+
     public record CurrentWeather(
             double temperature,
             double windspeed,
-            int weathercode
-    ) {}
+            int weathercode,
+            LocalDateTime time // Observation time, if the upstream reports one
+    ) {
+        public CurrentWeather(double temperature, double windspeed, int weathercode) {
+            this(temperature, windspeed, weathercode, null);
+        }
+    }
+
+    // Parallel lists, one entry per forecast hour
+    public record Hourly(
+            List<LocalDateTime> time,
+            @JsonProperty("temperature_2m") List<Double> temperature,
+            @JsonProperty("windspeed_10m") List<Double> windspeed,
+            List<Integer> weathercode
+    ) {
+    }
 }
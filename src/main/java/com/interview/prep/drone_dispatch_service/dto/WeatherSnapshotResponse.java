@@ -0,0 +1,11 @@
+package com.interview.prep.drone_dispatch_service.dto;
+
+import java.time.LocalDateTime;
+
+public record WeatherSnapshotResponse(
+        LocalDateTime observedAt,
+        Double temperature,
+        Double windSpeed,
+        Integer weatherCode
+) {
+}
@@ -1,10 +1,8 @@
 package com.interview.prep.drone_dispatch_service.entity;
 
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
@@ -13,6 +11,10 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@DynamicUpdate // Startup migrations fill different columns of the same rows concurrently
+@Table(indexes = {
+        @Index(name = "idx_dispatch_record_reason_code", columnList = "reasonCode, timestamp")
+})
 public class DispatchRecord {
 
     @Id
@@ -25,17 +27,32 @@ public class DispatchRecord {
 
     @Enumerated(EnumType.STRING)
     private Status status;  // Approved - Rejected
-    private String reason;
 
-    // Origin Weather
-    private Double originTemp;
-    private Double originWind;
-    private Integer originWeatherCode;
-
-    // Destination Weather
-    private Double destTemp;
-    private Double destWind;
-    private Integer destWeatherCode;
+    // Message parameters per code are listed on ReasonCode; the text itself is rendered on read
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private ReasonCode reasonCode;
+    @Column(length = 64)
+    private String reasonSubject;
+    private Double reasonValue1;
+    private Double reasonValue2;
+    private String reason;  // Only for LEGACY rows (free text from before reason codes)
+
+    // Great-circle distance between origin and destination; null if rejected before the weather was fetched
+    private Double distanceKm;
+
+    // Weather the decision was based on; observations are shared between dispatches (null if never fetched)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "origin_weather_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private WeatherSnapshot originWeather;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "dest_weather_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private WeatherSnapshot destWeather;
 
     private LocalDateTime timestamp;
 }
@@ -1,19 +1,24 @@
 package com.interview.prep.drone_dispatch_service.entity;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
-import jakarta.persistence.Id;
+import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.Locale;
+
 @Entity
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_drone_location_key_state", columnList = "locationKey, state"),
+        @Index(name = "idx_drone_state_battery", columnList = "state, batteryCapacity"),
+        @Index(name = "idx_drone_model", columnList = "model")
+})
 public class Drone {
 
     @Id
@@ -28,4 +33,24 @@ public class Drone {
     private DroneState state;
 
     private String currentLocation;
+
+    // currentLocation in lower case, so location filters are plain (indexed) equality; set on every write
+    private String locationKey;
+
+    // Last state or location change made by this service; telemetry received before it does not override it
+    private LocalDateTime stateChangedAt;
+
+    public Drone(String id, DroneModel model, Double batteryCapacity, DroneState state, String currentLocation) {
+        this(id, model, batteryCapacity, state, currentLocation, locationKey(currentLocation), null);
+    }
+
+    public static String locationKey(String location) {
+        return location == null ? null : location.toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncLocationKey() {
+        locationKey = locationKey(currentLocation);
+    }
 }
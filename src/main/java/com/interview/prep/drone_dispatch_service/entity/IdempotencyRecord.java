@@ -0,0 +1,52 @@
+package com.interview.prep.drone_dispatch_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = @Index(name = "idx_idempotency_created_at", columnList = "createdAt"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    private String idempotencyKey;
+
+    private String requestFingerprint;
+
+    // Unbounded, since responses grow with departure windows and route details; tables created with the old
+    // VARCHAR(2048) need ALTER TABLE idempotency_record ALTER COLUMN response_body SET DATA TYPE TEXT
+    @Column(columnDefinition = "TEXT")
+    private String responseBody; // Null while the original request is still running
+
+    private LocalDateTime createdAt;
+
+    // Always insert rather than merge, so a second node claiming the same key fails on the primary key
+    @Transient
+    @Builder.Default
+    private boolean isNew = true;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,18 @@
+package com.interview.prep.drone_dispatch_service.entity;
+
+// Parameters are stored in DispatchRecord.reasonSubject / reasonValue1 / reasonValue2 as noted
+public enum ReasonCode {
+    APPROVED,
+    APPROVED_WITH_STOPS,    // value1: number of charging stops
+    DRONE_NOT_AT_ORIGIN,    // subject: where the drone actually is
+    DRONE_NOT_IDLE,         // subject: the drone's state
+    OUT_OF_RANGE,           // value1: distance in km, value2: max range in km
+    UNSAFE_ORIGIN,
+    UNSAFE_DESTINATION,
+    UNSAFE_CHARGING_STOP,   // subject: the charging stop
+    NO_CAPABLE_DRONE,       // value1: payload in kg (batch orders only, never stored)
+    LEGACY,                 // Migrated free-text reason that matched none of the above; kept in DispatchRecord.reason
+    NO_FLY_ZONE,            // subject: id of the zone the flight path crosses
+    RATE_LIMITED,           // Batch orders beyond the client's rate limit (never stored)
+    DISPATCH_FAILED         // subject: the error (batch orders only, never stored)
+}
@@ -0,0 +1,35 @@
+package com.interview.prep.drone_dispatch_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per city observation, shared by every dispatch decided on it; also serves as a weather time series
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_weather_snapshot_city_time", columnNames = {"city", "observed_at"})
+})
+public class WeatherSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false) // Same width as Drone.currentLocation, which any dispatched city fits
+    private String city; // Lower-case, so "Berlin" and "berlin" share observations
+
+    @Column(name = "observed_at", nullable = false)
+    private LocalDateTime observedAt;
+
+    private Double temperature;
+    private Double windSpeed;
+    private Integer weatherCode;
+}
@@ -0,0 +1,15 @@
+package com.interview.prep.drone_dispatch_service.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class DispatchQueueFullException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public DispatchQueueFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
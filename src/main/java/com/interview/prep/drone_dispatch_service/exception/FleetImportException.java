@@ -0,0 +1,7 @@
+package com.interview.prep.drone_dispatch_service.exception;
+
+public class FleetImportException extends RuntimeException {
+    public FleetImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.interview.prep.drone_dispatch_service.exception;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
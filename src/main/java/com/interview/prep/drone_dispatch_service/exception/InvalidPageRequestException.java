@@ -0,0 +1,7 @@
+package com.interview.prep.drone_dispatch_service.exception;
+
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.interview.prep.drone_dispatch_service.exception;
+
+public class RecordingUnavailableException extends RuntimeException {
+    public RecordingUnavailableException(String message) {
+        super(message);
+    }
+}
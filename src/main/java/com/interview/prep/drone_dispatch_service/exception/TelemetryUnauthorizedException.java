@@ -0,0 +1,7 @@
+package com.interview.prep.drone_dispatch_service.exception;
+
+public class TelemetryUnauthorizedException extends RuntimeException {
+    public TelemetryUnauthorizedException(String message) {
+        super(message);
+    }
+}
@@ -1,12 +1,29 @@
 package com.interview.prep.drone_dispatch_service.repository;
 
 import com.interview.prep.drone_dispatch_service.entity.DispatchRecord;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
 public interface DispatchRepository extends JpaRepository<DispatchRecord, Long> {
 
+    // History reads fetch the shared weather snapshots in the same query
+    @Override
+    @EntityGraph(attributePaths = {"originWeather", "destWeather"})
+    List<DispatchRecord> findAll();
+
+    @EntityGraph(attributePaths = {"originWeather", "destWeather"})
     List<DispatchRecord> findByDroneIdOrderByTimestampDesc(String droneId);
 
+    // Served by idx_dispatch_record_reason_code
+    @EntityGraph(attributePaths = {"originWeather", "destWeather"})
+    List<DispatchRecord> findByReasonCodeOrderByTimestampDesc(ReasonCode reasonCode);
+
+    // Rows written before reason codes existed
+    Slice<DispatchRecord> findByReasonCodeIsNull(Pageable pageable);
+
 }
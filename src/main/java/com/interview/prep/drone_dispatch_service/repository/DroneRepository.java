@@ -1,12 +1,64 @@
 package com.interview.prep.drone_dispatch_service.repository;
 
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
 import com.interview.prep.drone_dispatch_service.entity.Drone;
 import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface DroneRepository extends JpaRepository<Drone, String> {
+public interface DroneRepository extends JpaRepository<Drone, String>, DroneRepositoryCustom {
 
     Optional<Drone> findByIdAndState(String id, DroneState state);
+
+    @Query("SELECT d.state FROM Drone d WHERE d.id = :id")
+    Optional<DroneState> findStateById(String id);
+
+    /**
+     * Takes an IDLE drone for a flight, writing only the columns a dispatch owns, so battery reported by
+     * telemetry in the meantime is kept. Returns 0 if the drone is no longer IDLE.
+     */
+    default int claim(String id, String destination, LocalDateTime claimedAt) {
+        return claim(id, destination, Drone.locationKey(destination), claimedAt);
+    }
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE Drone d SET d.state = com.interview.prep.drone_dispatch_service.entity.DroneState.IN_FLIGHT,
+                d.currentLocation = :destination, d.locationKey = :destinationKey, d.stateChangedAt = :claimedAt
+            WHERE d.id = :id AND d.state = com.interview.prep.drone_dispatch_service.entity.DroneState.IDLE""")
+    int claim(String id, String destination, String destinationKey, LocalDateTime claimedAt);
+
+    /**
+     * Writes one step of the simulated drone lifecycle, unless the drone left {@code expected} since it was read
+     * (claimed by a dispatch). Returns 0 in that case.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE Drone d SET d.state = :state, d.batteryCapacity = :batteryCapacity,
+                d.stateChangedAt = :stateChangedAt
+            WHERE d.id = :id AND d.state = :expected""")
+    int updateSimulated(String id, DroneState expected, DroneState state, double batteryCapacity,
+                        LocalDateTime stateChangedAt);
+
+    /**
+     * The whole fleet as a database cursor, fetched in chunks and projected without managed entities, so
+     * reading it takes constant memory. Must be consumed inside a transaction and closed.
+     */
+    @Query("""
+            SELECT new com.interview.prep.drone_dispatch_service.dto.DroneResponse(
+                d.id, d.model, d.batteryCapacity, d.state, d.currentLocation)
+            FROM Drone d ORDER BY d.id""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<DroneResponse> streamFleet();
 }
@@ -0,0 +1,28 @@
+package com.interview.prep.drone_dispatch_service.repository;
+
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+public interface DroneRepositoryCustom {
+
+    /**
+     * Filters the fleet in the database and projects straight into {@link DroneResponse}.
+     * Null filters are left out of the query entirely, so the remaining predicates can use the drone indexes.
+     * The location matches regardless of case.
+     */
+    default Slice<DroneResponse> searchFleet(DroneState state, String location, Double minBattery, DroneModel model,
+                                             Pageable pageable) {
+        return searchFleet(state, location, minBattery, model, null, pageable);
+    }
+
+    /**
+     * Like {@link #searchFleet(DroneState, String, Double, DroneModel, Pageable)}, but only drones with an id after
+     * {@code afterId}: results are ordered by id, so passing the last id of a page fetches the next one at the
+     * cost of that page alone, however deep it is.
+     */
+    Slice<DroneResponse> searchFleet(DroneState state, String location, Double minBattery, DroneModel model,
+                                     String afterId, Pageable pageable);
+}
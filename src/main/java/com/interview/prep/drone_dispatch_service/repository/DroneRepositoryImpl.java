@@ -0,0 +1,65 @@
+package com.interview.prep.drone_dispatch_service.repository;
+
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.entity.Drone;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class DroneRepositoryImpl implements DroneRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<DroneResponse> searchFleet(DroneState state, String location, Double minBattery, DroneModel model,
+                                            String afterId, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DroneResponse> query = cb.createQuery(DroneResponse.class);
+        Root<Drone> drone = query.from(Drone.class);
+
+        List<Predicate> filters = new ArrayList<>();
+        if (state != null) filters.add(cb.equal(drone.get("state"), state));
+        // Case-insensitive, as dispatch matches a drone's location to the origin, on the indexed lower-case copy
+        if (location != null) filters.add(cb.equal(drone.get("locationKey"), Drone.locationKey(location)));
+        if (minBattery != null) filters.add(cb.greaterThanOrEqualTo(drone.get("batteryCapacity"), minBattery));
+        if (model != null) filters.add(cb.equal(drone.get("model"), model));
+        if (afterId != null) filters.add(cb.greaterThan(drone.get("id"), afterId));
+
+        query.select(cb.construct(DroneResponse.class,
+                        drone.get("id"),
+                        drone.get("model"),
+                        drone.get("batteryCapacity"),
+                        drone.get("state"),
+                        drone.get("currentLocation")))
+                .where(filters.toArray(Predicate[]::new))
+                .orderBy(cb.asc(drone.get("id")));
+
+        TypedQuery<DroneResponse> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+
+        // Fetch one extra row to learn whether there is a next page, instead of running a count query
+        List<DroneResponse> rows = typedQuery
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<DroneResponse> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
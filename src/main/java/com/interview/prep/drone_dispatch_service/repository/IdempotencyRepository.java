@@ -0,0 +1,24 @@
+package com.interview.prep.drone_dispatch_service.repository;
+
+import com.interview.prep.drone_dispatch_service.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Read-write, so it goes to the primary: a replica that hasn't caught up would miss the claim (running the
+    // dispatch twice) or the stored response (waiting until the timeout)
+    @Override
+    @Transactional
+    Optional<IdempotencyRecord> findById(String idempotencyKey);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,17 @@
+package com.interview.prep.drone_dispatch_service.repository;
+
+import com.interview.prep.drone_dispatch_service.entity.WeatherSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface WeatherSnapshotRepository extends JpaRepository<WeatherSnapshot, Long> {
+
+    // Both served by the (city, observed_at) unique constraint's index
+    Optional<WeatherSnapshot> findByCityAndObservedAt(String city, LocalDateTime observedAt);
+
+    List<WeatherSnapshot> findByCityAndObservedAtBetweenOrderByObservedAtAsc(
+            String city, LocalDateTime from, LocalDateTime to);
+}
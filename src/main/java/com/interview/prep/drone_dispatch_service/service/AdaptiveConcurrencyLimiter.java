@@ -0,0 +1,99 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.RateLimitProperties;
+import com.interview.prep.drone_dispatch_service.config.RateLimitProperties.Concurrency;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global cap on requests in flight that adapts to latency (AIMD). While requests finish close to the best
+ * recently seen latency of their route and the limit is being used, it grows by one per limit's worth of
+ * requests; once a request takes longer than {@code latencyTolerance} times its route's baseline the limit is
+ * cut by {@code backoffRatio}. Requests over the limit are shed up front, before queueing inside the server
+ * pushes latency further up.
+ * <p>
+ * Baselines are per route because the routes differ by orders of magnitude (a ticket poll versus a dispatch
+ * that calls the weather service); one shared minimum would be set by the fastest route and make every
+ * dispatch look overloaded.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    // Each route's latency baseline is re-learned every this many samples, so it can follow a slower backend
+    private static final int BASELINE_WINDOW = 1000;
+
+    private final Concurrency config;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger successesSinceIncrease = new AtomicInteger();
+    private final Map<String, Baseline> baselines = new ConcurrentHashMap<>();
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+
+    public AdaptiveConcurrencyLimiter(RateLimitProperties properties) {
+        this.config = properties.getConcurrency();
+        this.limit = new AtomicInteger(config.getInitialLimit());
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit taken by {@link #tryAcquire()} and feeds the request's latency into the limit.
+     *
+     * @param route the route the request was served by (method and path pattern, a bounded set)
+     */
+    public void release(String route, long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        long now = System.nanoTime();
+
+        long minLatencyNanos = baselines.computeIfAbsent(route, r -> new Baseline()).sample(latencyNanos);
+
+        int current = limit.get();
+        if (latencyNanos > minLatencyNanos * config.getLatencyTolerance()) {
+            // Cut at most once per slow request's duration, so one burst of slow responses isn't counted repeatedly
+            long last = lastDecreaseNanos.get();
+            if (now - last >= latencyNanos && lastDecreaseNanos.compareAndSet(last, now)) {
+                limit.set(Math.max(config.getMinLimit(), (int) (current * config.getBackoffRatio())));
+                successesSinceIncrease.set(0);
+            }
+        } else if (inFlightBefore * 2 >= current && successesSinceIncrease.incrementAndGet() >= current) {
+            successesSinceIncrease.set(0);
+            limit.compareAndSet(current, Math.min(config.getMaxLimit(), current + 1));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private static final class Baseline {
+        private final AtomicLong minLatencyNanos = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicInteger samples = new AtomicInteger();
+
+        // Returns the baseline including this sample
+        private long sample(long latencyNanos) {
+            if (samples.incrementAndGet() % BASELINE_WINDOW == 0) {
+                minLatencyNanos.set(latencyNanos);
+                return latencyNanos;
+            }
+            return minLatencyNanos.accumulateAndGet(latencyNanos, Math::min);
+        }
+    }
+}
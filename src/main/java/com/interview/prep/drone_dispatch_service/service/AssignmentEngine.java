@@ -0,0 +1,310 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.BatchOrder;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Assigns a window of orders to IDLE drones so that as many orders as possible are served, preferring the
+ * smallest drone that can carry the payload and the fullest battery.
+ * <p>
+ * A drone can only take orders departing from its own city, so the problem splits into independent per-city
+ * blocks that are solved in parallel. Small blocks are solved exactly with the Hungarian algorithm over a dense
+ * cost matrix scored in parallel from the fleet arrays. Large blocks would not fit a dense matrix; there the
+ * drones are pooled into cost-equivalent classes and an auction assigns orders to classes, within
+ * {@code orders * epsilon} of the optimum.
+ */
+@Component
+public class AssignmentEngine {
+
+    public static final int UNASSIGNED = -1;
+
+    // Matches the scheduler's critical level; such drones are about to be grounded for charging
+    static final double MIN_BATTERY = 25.0;
+
+    // Hungarian is O(min^2 * max) over the block, at most MAX_EXACT_CELLS^1.5 = 8M steps at 200 x 200, since it
+    // runs on the request thread; larger blocks go to the auction
+    static final int MAX_EXACT_CELLS = 40_000;
+    private static final double INFEASIBLE = Double.POSITIVE_INFINITY;
+    private static final double INFEASIBLE_PENALTY = 1e9; // Stands in for INFEASIBLE inside the Hungarian matrix
+    private static final double AUCTION_EPSILON = 0.01;  // Matches the 1% battery resolution of the drone classes
+    private static final int MAX_BIDS_PER_ORDER = 20;    // Bounds price wars when orders far outnumber drones
+    private static final double GIVE_UP_VALUE = -3.0;     // Below any feasible benefit (feasible cost is at most 2)
+
+    /**
+     * Returns, for each order, the index of the assigned drone in the snapshot or {@link #UNASSIGNED}.
+     */
+    public int[] assign(FleetSnapshot fleet, List<BatchOrder> orders) {
+        int[] result = new int[orders.size()];
+        Arrays.fill(result, UNASSIGNED);
+
+        double[] payload = new double[orders.size()];
+        int[] orderCity = new int[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            payload[i] = orders.get(i).payloadKg();
+            orderCity[i] = fleet.cityIndexOf(orders.get(i).origin());
+        }
+
+        IntStream.range(0, fleet.cityCount()).parallel().forEach(city -> {
+            int[] cityOrders = indicesWhere(orderCity, city);
+            int[] cityDrones = dronesIn(fleet, city);
+            if (cityOrders.length == 0 || cityDrones.length == 0) {
+                return;
+            }
+
+            int[] local = (long) cityOrders.length * cityDrones.length <= MAX_EXACT_CELLS
+                    ? solveExact(fleet, payload, cityOrders, cityDrones)
+                    : solveAuction(fleet, payload, cityOrders, cityDrones);
+
+            for (int i = 0; i < cityOrders.length; i++) {
+                result[cityOrders[i]] = local[i] == UNASSIGNED ? UNASSIGNED : cityDrones[local[i]];
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Cost of flying an order with the given payload on a drone: unused payload capacity plus missing battery,
+     * each normalized to [0, 1]. Infeasible if the drone cannot carry the payload.
+     */
+    static double cost(FleetSnapshot fleet, double payloadKg, int drone) {
+        double capacity = fleet.maxPayloadKg[drone];
+        if (payloadKg > capacity) {
+            return INFEASIBLE;
+        }
+        return (capacity - payloadKg) / capacity + (100.0 - fleet.battery[drone]) / 100.0;
+    }
+
+    private int[] solveExact(FleetSnapshot fleet, double[] payload, int[] orders, int[] drones) {
+        int n = orders.length;
+        int m = drones.length;
+
+        // The Hungarian solver needs rows <= columns, so put whichever side is smaller on the rows
+        boolean transposed = n > m;
+        int rows = transposed ? m : n;
+        int cols = transposed ? n : m;
+        double[][] matrix = new double[rows][cols];
+
+        IntStream.range(0, n).parallel().forEach(i -> {
+            for (int j = 0; j < m; j++) {
+                double c = cost(fleet, payload[orders[i]], drones[j]);
+                double value = c == INFEASIBLE ? INFEASIBLE_PENALTY : c;
+                if (transposed) {
+                    matrix[j][i] = value;
+                } else {
+                    matrix[i][j] = value;
+                }
+            }
+        });
+
+        int[] rowToCol = hungarian(matrix, rows, cols);
+
+        int[] orderToDrone = new int[n];
+        Arrays.fill(orderToDrone, UNASSIGNED);
+        for (int r = 0; r < rows; r++) {
+            int c = rowToCol[r];
+            if (c == UNASSIGNED || matrix[r][c] >= INFEASIBLE_PENALTY) continue;
+            if (transposed) {
+                orderToDrone[c] = r;
+            } else {
+                orderToDrone[r] = c;
+            }
+        }
+        return orderToDrone;
+    }
+
+    /**
+     * Minimum-cost assignment of every row to a distinct column (rows <= cols), O(rows^2 * cols).
+     */
+    static int[] hungarian(double[][] a, int n, int m) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];   // p[j]: row matched to column j (1-based, 0 = free)
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+                    double cur = a[i0 - 1][j - 1] - u[i0] - v[j];
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] rowToCol = new int[n];
+        Arrays.fill(rowToCol, UNASSIGNED);
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) {
+                rowToCol[p[j] - 1] = j - 1;
+            }
+        }
+        return rowToCol;
+    }
+
+    private int[] solveAuction(FleetSnapshot fleet, double[] payload, int[] orders, int[] drones) {
+        int n = orders.length;
+
+        // Drones with the same capacity and battery (to the percent) cost the same for every order, so the
+        // auction bids on these classes instead of on individual drones: a few hundred per city at most
+        Map<DroneClass, List<Integer>> grouped = new LinkedHashMap<>();
+        for (int drone : drones) {
+            DroneClass key = new DroneClass(fleet.maxPayloadKg[drone], (int) Math.floor(fleet.battery[drone]));
+            grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(drone);
+        }
+        int classes = grouped.size();
+        double[] classCapacity = new double[classes];
+        double[] classBattery = new double[classes];
+        int[][] members = new int[classes][];
+        int next = 0;
+        for (Map.Entry<DroneClass, List<Integer>> entry : grouped.entrySet()) {
+            classCapacity[next] = entry.getKey().capacity();
+            classBattery[next] = entry.getKey().battery();
+            members[next] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            next++;
+        }
+
+        // Score every order against every class in parallel
+        double[][] benefit = new double[n][classes];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            double p = payload[orders[i]];
+            for (int c = 0; c < classes; c++) {
+                benefit[i][c] = p > classCapacity[c]
+                        ? Double.NEGATIVE_INFINITY
+                        : -((classCapacity[c] - p) / classCapacity[c] + (100.0 - classBattery[c]) / 100.0);
+            }
+        });
+
+        // Auction with similar objects: a class holds up to members[c].length winning bids and, once full,
+        // its price is the lowest of them. Outbid orders go back into the queue.
+        List<PriorityQueue<Bid>> holders = new ArrayList<>(classes);
+        for (int c = 0; c < classes; c++) {
+            holders.add(new PriorityQueue<>(Comparator.comparingDouble(Bid::amount)));
+        }
+        int[] orderToClass = new int[n];
+        Arrays.fill(orderToClass, UNASSIGNED);
+
+        ArrayDeque<Integer> bidders = new ArrayDeque<>(n);
+        for (int i = 0; i < n; i++) bidders.add(i);
+        long bidsLeft = MAX_BIDS_PER_ORDER * (long) n;
+
+        while (!bidders.isEmpty() && bidsLeft-- > 0) {
+            int order = bidders.poll();
+            int bestClass = UNASSIGNED;
+            double bestValue = GIVE_UP_VALUE;
+            double secondValue = GIVE_UP_VALUE;
+
+            for (int c = 0; c < classes; c++) {
+                PriorityQueue<Bid> held = holders.get(c);
+                double price = held.size() < members[c].length ? 0.0 : held.peek().amount();
+                double value = benefit[order][c] - price;
+                if (value > bestValue) {
+                    secondValue = bestValue;
+                    bestValue = value;
+                    bestClass = c;
+                } else if (value > secondValue) {
+                    secondValue = value;
+                }
+            }
+
+            if (bestClass == UNASSIGNED) {
+                continue; // Nothing is worth its price any more; the order stays unassigned
+            }
+
+            PriorityQueue<Bid> held = holders.get(bestClass);
+            held.add(new Bid(benefit[order][bestClass] - secondValue + AUCTION_EPSILON, order));
+            orderToClass[order] = bestClass;
+            if (held.size() > members[bestClass].length) {
+                int outbid = held.poll().order();
+                orderToClass[outbid] = UNASSIGNED;
+                bidders.add(outbid);
+            }
+        }
+
+        // If the bid budget ran out, let the remaining orders take whatever capable drones are still free,
+        // heaviest payload first since those have the fewest options
+        if (!bidders.isEmpty()) {
+            Integer[] leftover = IntStream.range(0, n).filter(i -> orderToClass[i] == UNASSIGNED).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -payload[orders[i]]))
+                    .toArray(Integer[]::new);
+            int[] free = new int[classes];
+            for (int c = 0; c < classes; c++) {
+                free[c] = members[c].length - holders.get(c).size();
+            }
+            for (int order : leftover) {
+                int bestClass = UNASSIGNED;
+                for (int c = 0; c < classes; c++) {
+                    if (free[c] > 0 && benefit[order][c] > Double.NEGATIVE_INFINITY
+                            && (bestClass == UNASSIGNED || benefit[order][c] > benefit[order][bestClass])) {
+                        bestClass = c;
+                    }
+                }
+                if (bestClass != UNASSIGNED) {
+                    free[bestClass]--;
+                    orderToClass[order] = bestClass;
+                }
+            }
+        }
+
+        // Any drone of the won class will do; hand them out in turn
+        int[] orderToDrone = new int[n];
+        Arrays.fill(orderToDrone, UNASSIGNED);
+        int[] handedOut = new int[classes];
+        for (int i = 0; i < n; i++) {
+            int c = orderToClass[i];
+            if (c != UNASSIGNED) {
+                orderToDrone[i] = Arrays.binarySearch(drones, members[c][handedOut[c]++]);
+            }
+        }
+        return orderToDrone;
+    }
+
+    private static int[] indicesWhere(int[] values, int target) {
+        return IntStream.range(0, values.length).filter(i -> values[i] == target).toArray();
+    }
+
+    private static int[] dronesIn(FleetSnapshot fleet, int city) {
+        return IntStream.range(0, fleet.size())
+                .filter(d -> fleet.cityIndex[d] == city && fleet.battery[d] >= MIN_BATTERY)
+                .toArray();
+    }
+
+    private record DroneClass(double capacity, int battery) {}
+
+    private record Bid(double amount, int order) {}
+}
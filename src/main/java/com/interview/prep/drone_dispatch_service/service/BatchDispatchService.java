@@ -0,0 +1,123 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.BatchOrder;
+import com.interview.prep.drone_dispatch_service.dto.DispatchReason;
+import com.interview.prep.drone_dispatch_service.dto.DispatchRequest;
+import com.interview.prep.drone_dispatch_service.dto.DispatchResponse;
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+import com.interview.prep.drone_dispatch_service.entity.Status;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Dispatches a window of orders at once: the assignment engine picks a drone for every order against a single
+ * snapshot of the IDLE fleet, then each pairing goes through the regular dispatch checks.
+ * <p>
+ * Every order costs a rate-limit token (the request's own token pays for the first); orders beyond the client's
+ * budget are rejected without being dispatched. The dispatches are grouped by origin city, since those contend
+ * for the same region lock anyway, and the groups run on {@code drone.batch.parallelism} threads (4 by default)
+ * shared by all batches. An order whose dispatch fails is rejected on its own, so the client always learns which
+ * orders were dispatched.
+ */
+@Service
+@Slf4j
+public class BatchDispatchService {
+
+    private final DispatchService dispatchService;
+    private final AssignmentEngine assignmentEngine;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService pool;
+
+    public BatchDispatchService(DispatchService dispatchService, AssignmentEngine assignmentEngine,
+                                RateLimiter rateLimiter,
+                                @Value("${drone.batch.parallelism:4}") int parallelism) {
+        this.dispatchService = dispatchService;
+        this.assignmentEngine = assignmentEngine;
+        this.rateLimiter = rateLimiter;
+        this.pool = Executors.newFixedThreadPool(Math.max(1, parallelism),
+                Thread.ofPlatform().name("batch-dispatch-", 0).daemon().factory());
+    }
+
+    /**
+     * @param clientKey the rate-limit bucket the request was charged to, or null if it is not rate limited
+     */
+    public List<DispatchResponse> dispatchBatch(List<BatchOrder> orders, String clientKey) {
+        int allowed = clientKey == null ? orders.size() : 1 + rateLimiter.tryAcquire(clientKey, orders.size() - 1);
+        List<BatchOrder> admitted = orders.subList(0, allowed);
+
+        List<DroneResponse> idle = dispatchService.searchFleet(DroneState.IDLE, null, null, null, Pageable.unpaged())
+                .getContent();
+        FleetSnapshot fleet = FleetSnapshot.of(idle);
+
+        long start = System.nanoTime();
+        int[] assignment = assignmentEngine.assign(fleet, admitted);
+        log.info("Assigned batch of {} orders against {} idle drones in {} ms",
+                admitted.size(), fleet.size(), (System.nanoTime() - start) / 1_000_000);
+
+        DispatchResponse[] responses = new DispatchResponse[orders.size()];
+        Map<String, List<Integer>> byOrigin = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            BatchOrder order = orders.get(i);
+            if (i >= allowed) {
+                responses[i] = DispatchResponse.of(null, order.origin(), Status.REJECTED,
+                        DispatchReason.of(ReasonCode.RATE_LIMITED));
+            } else if (assignment[i] == AssignmentEngine.UNASSIGNED) {
+                // No drone was picked, so there is nothing to record against a drone's history
+                responses[i] = DispatchResponse.of(null, order.origin(), Status.REJECTED,
+                        DispatchReason.of(ReasonCode.NO_CAPABLE_DRONE, order.payloadKg()));
+            } else {
+                byOrigin.computeIfAbsent(order.origin().trim().toLowerCase(Locale.ROOT), city -> new ArrayList<>())
+                        .add(i);
+            }
+        }
+        if (allowed < orders.size()) {
+            log.info("Rejected {} of {} batch orders over the rate limit", orders.size() - allowed, orders.size());
+        }
+
+        CompletableFuture<?>[] groups = byOrigin.values().stream()
+                .map(indexes -> CompletableFuture.runAsync(() -> {
+                    for (int i : indexes) {
+                        responses[i] = dispatch(fleet.droneId(assignment[i]), orders.get(i));
+                    }
+                }, pool))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(groups).join();
+        return Arrays.asList(responses);
+    }
+
+    private DispatchResponse dispatch(String droneId, BatchOrder order) {
+        try {
+            return dispatchService.dispatchDrone(new DispatchRequest(droneId, order.origin(), order.destination()));
+        } catch (RuntimeException ex) {
+            // e.g. the weather service doesn't know the city; the orders already dispatched stand
+            log.warn("Batch dispatch of drone {} from {} failed: {}", droneId, order.origin(), ex.getMessage());
+            // Same wording as the single dispatch gets from GlobalExceptionHandler
+            String error = ex instanceof ResourceAccessException
+                    ? "Weather Service is currently is not available. Please try again later."
+                    : ex.getMessage();
+            return DispatchResponse.of(droneId, order.origin(), Status.REJECTED,
+                    DispatchReason.of(ReasonCode.DISPATCH_FAILED, error));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,406 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.EventLogProperties;
+import com.interview.prep.drone_dispatch_service.dto.DispatchEvent;
+import com.interview.prep.drone_dispatch_service.dto.EventPage;
+import com.interview.prep.drone_dispatch_service.dto.EventType;
+import com.interview.prep.drone_dispatch_service.entity.DispatchRecord;
+import com.interview.prep.drone_dispatch_service.entity.Drone;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+import com.interview.prep.drone_dispatch_service.entity.Status;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only outbox of dispatch decisions and drone state transitions, so downstream systems can follow
+ * changes by offset instead of scraping the history tables.
+ * <p>
+ * Events have a fixed 128-byte layout and live in memory-mapped segment files named after the offset of their
+ * first event, so an offset maps straight to a file position. Each event's commit marker is written last with
+ * release semantics: readers never see a partly written event and need no lock. Full segments are rolled over
+ * and the oldest ones deleted beyond the retention count. Events are appended once the surrounding transaction
+ * commits; the mapping is flushed to disk every second, so a host crash can lose the last second of events.
+ */
+@Component
+@Slf4j
+public class DispatchEventLog {
+
+    static final int EVENT_SIZE = 128;
+
+    private static final int COMMITTED = 0x44455631; // "DEV1"
+    private static final byte NONE = -1;
+
+    // Event layout. Statuses and reason codes are stored as enum ordinals, so new constants must only be appended.
+    private static final int MARKER = 0;
+    private static final int TYPE = 4;
+    private static final int STATUS = 5;
+    private static final int PREVIOUS_STATUS = 6;
+    private static final int REASON = 7;
+    private static final int OFFSET = 8;
+    private static final int TIMESTAMP = 16;
+    private static final int RECORD_ID = 24;
+    private static final int BATTERY = 32;
+    private static final int DRONE_ID = 40;     // Strings: length byte + UTF-8, truncated to the field
+    private static final int ORIGIN = 64;
+    private static final int DESTINATION = 96;
+    private static final int DRONE_ID_SIZE = 24;
+    private static final int CITY_SIZE = 32;
+
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final EventLogProperties properties;
+    private final Path directory;
+    private final int eventsPerSegment;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private Segment active;          // Guarded by this
+    private volatile long nextOffset;
+
+    public DispatchEventLog(EventLogProperties properties) {
+        this.properties = properties;
+        this.directory = Path.of(properties.getDirectory());
+        this.eventsPerSegment = (int) Math.clamp(properties.getSegmentSize().toBytes() / EVENT_SIZE,
+                1, Integer.MAX_VALUE / EVENT_SIZE);
+
+        if (properties.isEnabled()) {
+            try {
+                recover();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not open event log in " + directory.toAbsolutePath(), ex);
+            }
+            log.info("Event log ready in {}: {} segments, next offset {}",
+                    directory.toAbsolutePath(), segments.size(), nextOffset);
+        }
+    }
+
+    public void recordDecision(DispatchRecord record) {
+        if (!properties.isEnabled()) return;
+        // The id is read after commit, once the insert has assigned it
+        afterCommit(() -> append(EventType.DISPATCH_DECISION, ordinal(record.getStatus()), NONE,
+                ordinal(record.getReasonCode()), record.getId() == null ? 0 : record.getId(), Double.NaN,
+                record.getDroneId(), record.getOrigin(), record.getDestination()));
+    }
+
+    public void recordTransition(Drone drone, DroneState previous) {
+        if (!properties.isEnabled()) return;
+        byte status = ordinal(drone.getState());
+        double battery = drone.getBatteryCapacity();
+        String droneId = drone.getId();
+        String location = drone.getCurrentLocation();
+        afterCommit(() -> append(EventType.DRONE_TRANSITION, status, ordinal(previous), NONE, 0, battery,
+                droneId, location, null));
+    }
+
+    /**
+     * Hands each committed event from {@code from} on (at most {@code max}) to the visitor as a view over the
+     * mapped segment, without copying it. The view is only valid inside the callback. Returns the offset to
+     * continue from; reading from before {@link #firstOffset()} starts at the oldest retained event.
+     */
+    public long tail(long from, int max, Consumer<EventView> visitor) {
+        long offset = Math.max(from, firstOffset());
+        EventView view = new EventView();
+
+        for (int seen = 0; seen < max; seen++) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) break; // Deleted by retention while we were reading
+            Segment segment = entry.getValue();
+            if (offset - segment.baseOffset >= segment.capacity) break; // Full; its successor isn't there yet
+
+            int position = segment.position(offset);
+            if ((int) INT_VIEW.getAcquire(segment.buffer, position + MARKER) != COMMITTED) break;
+
+            view.wrap(segment.buffer, position);
+            visitor.accept(view);
+            offset++;
+        }
+        return offset;
+    }
+
+    public EventPage read(long from, int max) {
+        List<DispatchEvent> events = new ArrayList<>(Math.min(max, 1024));
+        long next = tail(from, max, view -> events.add(view.toEvent()));
+        return new EventPage(firstOffset(), next, events);
+    }
+
+    public long firstOffset() {
+        Map.Entry<Long, Segment> first = segments.firstEntry();
+        return first == null ? 0 : first.getKey();
+    }
+
+    public long nextOffset() {
+        return nextOffset;
+    }
+
+    @Scheduled(fixedDelay = 1000) // Run every second
+    public void flush() {
+        Segment current;
+        synchronized (this) {
+            current = active;
+        }
+        if (current != null) {
+            current.buffer.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private void afterCommit(Runnable append) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append.run();
+                }
+            });
+        } else {
+            append.run();
+        }
+    }
+
+    private synchronized void append(EventType type, byte status, byte previousStatus, byte reason, long recordId,
+                                     double battery, String droneId, String origin, String destination) {
+        try {
+            if (nextOffset - active.baseOffset >= active.capacity) {
+                roll();
+            }
+        } catch (IOException ex) {
+            // The decision itself is already committed; losing its event must not fail the request
+            log.error("Could not roll over event log segment; dropping {} event for drone {}", type, droneId, ex);
+            return;
+        }
+
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.position(nextOffset);
+        buffer.put(position + TYPE, (byte) type.ordinal());
+        buffer.put(position + STATUS, status);
+        buffer.put(position + PREVIOUS_STATUS, previousStatus);
+        buffer.put(position + REASON, reason);
+        buffer.putLong(position + OFFSET, nextOffset);
+        buffer.putLong(position + TIMESTAMP, System.currentTimeMillis());
+        buffer.putLong(position + RECORD_ID, recordId);
+        buffer.putDouble(position + BATTERY, battery);
+        putString(buffer, position + DRONE_ID, DRONE_ID_SIZE, droneId);
+        putString(buffer, position + ORIGIN, CITY_SIZE, origin);
+        putString(buffer, position + DESTINATION, CITY_SIZE, destination);
+        INT_VIEW.setRelease(buffer, position + MARKER, COMMITTED);
+        nextOffset++;
+    }
+
+    private void roll() throws IOException {
+        Segment next = Segment.create(segmentPath(nextOffset), nextOffset, eventsPerSegment);
+        active.buffer.force();
+        segments.put(next.baseOffset, next);
+        active = next;
+
+        // Readers still holding a deleted segment keep their mapping until they move on
+        while (segments.size() > Math.max(1, properties.getRetainedSegments())) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            Files.deleteIfExists(oldest.path);
+            log.info("Event log segment {} deleted by retention", oldest.path.getFileName());
+        }
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(DispatchEventLog::isSegment).toList()) {
+                Segment segment = Segment.open(path, baseOffsetOf(path));
+                segments.put(segment.baseOffset, segment);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            segments.put(0L, Segment.create(segmentPath(0), 0, eventsPerSegment));
+        }
+        active = segments.lastEntry().getValue();
+
+        // Events are committed in order, so the first one without a marker is where appends resume
+        int committed = 0;
+        while (committed < active.capacity
+                && (int) INT_VIEW.getAcquire(active.buffer, active.position(active.baseOffset + committed) + MARKER) == COMMITTED) {
+            committed++;
+        }
+        nextOffset = active.baseOffset + committed;
+    }
+
+    private Path segmentPath(long baseOffset) {
+        return directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+    }
+
+    private static boolean isSegment(Path path) {
+        return path.getFileName().toString().matches("\\d{20}\\" + SEGMENT_SUFFIX);
+    }
+
+    private static long baseOffsetOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value == null ? NONE : (byte) value.ordinal();
+    }
+
+    private static void putString(ByteBuffer buffer, int at, int size, String value) {
+        if (value == null) {
+            buffer.put(at, (byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, size - 1);
+        while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+            length--; // Don't cut a multi-byte character in half
+        }
+        buffer.put(at, (byte) length);
+        buffer.put(at + 1, bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer buffer, int at) {
+        int length = buffer.get(at);
+        if (length == 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(at + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Flyweight over one event in a mapped segment; fields are decoded only when asked for.
+     */
+    public static final class EventView {
+        private ByteBuffer buffer;
+        private int position;
+
+        private void wrap(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        public long offset() {
+            return buffer.getLong(position + OFFSET);
+        }
+
+        public EventType type() {
+            return EventType.values()[buffer.get(position + TYPE)];
+        }
+
+        public long timestampMillis() {
+            return buffer.getLong(position + TIMESTAMP);
+        }
+
+        public String droneId() {
+            return getString(buffer, position + DRONE_ID);
+        }
+
+        public String status() {
+            return statusName(buffer.get(position + STATUS));
+        }
+
+        public String previousStatus() {
+            return statusName(buffer.get(position + PREVIOUS_STATUS));
+        }
+
+        public ReasonCode reasonCode() {
+            byte ordinal = buffer.get(position + REASON);
+            if (ordinal == NONE) return null;
+            return ReasonCode.values()[ordinal];
+        }
+
+        public Long dispatchRecordId() {
+            long id = buffer.getLong(position + RECORD_ID);
+            return id == 0 ? null : id;
+        }
+
+        public String origin() {
+            return getString(buffer, position + ORIGIN);
+        }
+
+        public String destination() {
+            return getString(buffer, position + DESTINATION);
+        }
+
+        public Double batteryLevel() {
+            double battery = buffer.getDouble(position + BATTERY);
+            return Double.isNaN(battery) ? null : battery;
+        }
+
+        /**
+         * The raw event bytes as a read-only slice of the mapping, e.g. to forward them unchanged.
+         */
+        public ByteBuffer bytes() {
+            return buffer.slice(position, EVENT_SIZE).asReadOnlyBuffer();
+        }
+
+        public DispatchEvent toEvent() {
+            return new DispatchEvent(offset(), type(), Instant.ofEpochMilli(timestampMillis()), droneId(),
+                    status(), previousStatus(), reasonCode(), dispatchRecordId(), origin(), destination(), batteryLevel());
+        }
+
+        private String statusName(byte ordinal) {
+            if (ordinal == NONE) return null;
+            return type() == EventType.DISPATCH_DECISION
+                    ? Status.values()[ordinal].name()
+                    : DroneState.values()[ordinal].name();
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long baseOffset;
+        private final int capacity;
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path path, long baseOffset, MappedByteBuffer buffer) {
+            this.path = path;
+            this.baseOffset = baseOffset;
+            this.capacity = buffer.capacity() / EVENT_SIZE;
+            this.buffer = buffer;
+        }
+
+        private static Segment create(Path path, long baseOffset, int events) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(path, baseOffset, channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) events * EVENT_SIZE));
+            }
+        }
+
+        // The mapping stays valid after the channel is closed
+        private static Segment open(Path path, long baseOffset) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size() / EVENT_SIZE * EVENT_SIZE;
+                return new Segment(path, baseOffset, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        private int position(long offset) {
+            return (int) (offset - baseOffset) * EVENT_SIZE;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+
+/**
+ * Flight recorder event for one phase of a dispatch decision, so a slow dispatch can be attributed to the
+ * drone lookup, a weather fetch, the rule evaluation, the region locks, the database or the forecast lookup
+ * after a weather rejection.
+ */
+@Name(DispatchPhaseEvent.NAME)
+@Label("Dispatch Phase")
+@Category({"Drone Dispatch"})
+@Description("One phase of a dispatch decision")
+@StackTrace(false)
+class DispatchPhaseEvent extends Event {
+
+    static final String NAME = "drone.dispatch.Phase";
+
+    enum Phase { DRONE_LOOKUP, WEATHER_FETCH, WEATHER_SNAPSHOT, RULE_EVALUATION, REGION_LOCK, PERSISTENCE, FORECAST }
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Drone")
+    String droneId;
+
+    @Label("City")
+    @Description("City of a weather fetch or snapshot")
+    String city;
+
+    static <T> T time(Phase phase, String droneId, String city, Supplier<T> work) {
+        DispatchPhaseEvent event = start();
+        try {
+            return work.get();
+        } finally {
+            event.finish(phase, droneId, city);
+        }
+    }
+
+    static DispatchPhaseEvent start() {
+        DispatchPhaseEvent event = new DispatchPhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    // Fields are only filled in when the event is enabled and over the threshold, which keeps it free otherwise
+    void finish(Phase phase, String droneId, String city) {
+        end();
+        if (shouldCommit()) {
+            this.phase = phase.name();
+            this.droneId = droneId;
+            this.city = city;
+            commit();
+        }
+    }
+}
@@ -5,17 +5,26 @@ import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
 import com.interview.prep.drone_dispatch_service.dto.*;
 import com.interview.prep.drone_dispatch_service.entity.DispatchRecord;
 import com.interview.prep.drone_dispatch_service.entity.Drone;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
 import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
 import com.interview.prep.drone_dispatch_service.entity.Status;
+import com.interview.prep.drone_dispatch_service.entity.WeatherSnapshot;
 import com.interview.prep.drone_dispatch_service.repository.DispatchRepository;
 import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
-import jakarta.transaction.Transactional;
+import com.interview.prep.drone_dispatch_service.service.DispatchPhaseEvent.Phase;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,46 +32,136 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DispatchService {
 
+    private static final int MAX_REASON_SUBJECT_LENGTH = 64; // DispatchRecord.reasonSubject column
+
     private final WeatherServiceClient weatherClient;
     private final DispatchRepository dispatchRepository;
     private final DroneRepository droneRepository;
     private final DroneConfigProperties droneRules;
-
-    @Transactional
+    private final RoutePlanner routePlanner;
+    private final RegionLocks regionLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final DispatchEventLog eventLog;
+    private final WeatherSnapshotService weatherSnapshots;
+    private final NoFlyZoneService noFlyZones;
+    private final ForecastService forecasts;
+
+    /**
+     * Decides a dispatch. The drone and weather checks run without locks or a transaction, so slow weather
+     * calls hold neither; only the final claim of the drone runs in a short transaction under the origin and
+     * destination region locks, re-checking that the drone is still available. Each phase is recorded as a
+     * {@link DispatchPhaseEvent}. A rejection for weather carries the earliest forecast window in which every
+     * city of the flight passes the rules.
+     */
     public DispatchResponse dispatchDrone(DispatchRequest request) {
-        log.info("Processing dispatch request for drone: {}", request.droneId());
+        log.debug("Processing dispatch request for drone: {}", request.droneId());
+        String droneId = request.droneId();
 
         // 1. Validate Inventory (Helper Method)
-        Drone drone = validateDroneAvailability(request.droneId());
+        Drone drone = DispatchPhaseEvent.time(Phase.DRONE_LOOKUP, droneId, null,
+                () -> validateDroneAvailability(droneId));
+        DispatchReason unavailable = checkAvailability(drone, request);
+        if (unavailable != null) {
+            return reject(request, PreFlightResult.rejected(unavailable, null), null, null);
+        }
 
-        if (!drone.getCurrentLocation().equalsIgnoreCase(request.origin())) {
-            return saveAndReturn(request, Status.REJECTED,
-                    "Drone is at " + drone.getCurrentLocation() + ", not " + request.origin(),
-                    null, null);
+        // 2. Fetch External Data (each observation is stored once, outside the approval transaction, and shared)
+        WeatherApiResponse originWeather = fetchWeather(droneId, request.origin());
+        WeatherApiResponse destWeather = fetchWeather(droneId, request.destination());
+        WeatherSnapshot originSnapshot = DispatchPhaseEvent.time(Phase.WEATHER_SNAPSHOT, droneId, request.origin(),
+                () -> weatherSnapshots.snapshotOf(request.origin(), originWeather));
+        WeatherSnapshot destSnapshot = DispatchPhaseEvent.time(Phase.WEATHER_SNAPSHOT, droneId, request.destination(),
+                () -> weatherSnapshots.snapshotOf(request.destination(), destWeather));
+
+        // 3. Rune Pre-Flight Checks (Helper Method; includes the weather fetches for charging stops)
+        PreFlightResult preFlight = DispatchPhaseEvent.time(Phase.RULE_EVALUATION, droneId, null,
+                () -> runPreFlightChecks(request, originWeather, destWeather));
+        if (preFlight.rejectionReason() != null) {
+            DispatchResponse rejected = reject(request, preFlight, originSnapshot, destSnapshot);
+            return isWeatherRejection(preFlight.rejectionReason().code())
+                    ? withDepartureWindow(rejected, request, preFlight.legs())
+                    : rejected;
         }
 
-        if (drone.getState() != DroneState.IDLE) {
-            return saveAndReturn(request, Status.REJECTED,
-                    "Drone " + drone.getId() + " is currently " + drone.getState(), null, null);
+        // 4. Lock Drone & Approve (hands the drone over from the origin region to the destination region)
+        DispatchPhaseEvent lockWait = DispatchPhaseEvent.start();
+        return regionLocks.callInRegions(request.origin(), request.destination(), () -> {
+            lockWait.finish(Phase.REGION_LOCK, droneId, null);
+            return DispatchPhaseEvent.time(Phase.PERSISTENCE, droneId, null, () -> transactionTemplate.execute(
+                    tx -> approve(request, preFlight, originSnapshot, destSnapshot)));
+        });
+    }
+
+    private WeatherApiResponse fetchWeather(String droneId, String city) {
+        return DispatchPhaseEvent.time(Phase.WEATHER_FETCH, droneId, city, () -> weatherClient.getWeather(city));
+    }
+
+    private static boolean isWeatherRejection(ReasonCode code) {
+        return code == ReasonCode.UNSAFE_ORIGIN
+                || code == ReasonCode.UNSAFE_DESTINATION
+                || code == ReasonCode.UNSAFE_CHARGING_STOP;
+    }
+
+    // The window has to be safe at the charging stops as well when the flight goes through hubs
+    private DispatchResponse withDepartureWindow(DispatchResponse rejected, DispatchRequest request,
+                                                 List<RouteLeg> legs) {
+        List<String> cities = new ArrayList<>();
+        cities.add(request.origin());
+        cities.add(request.destination());
+        for (int i = 0; i + 1 < legs.size(); i++) {
+            cities.add(legs.get(i).to());
         }
+        Optional<DepartureWindow> window = DispatchPhaseEvent.time(Phase.FORECAST, request.droneId(), null,
+                () -> forecasts.earliestSafeWindow(cities));
+        return window.map(rejected::withDepartureWindow).orElse(rejected);
+    }
 
-        // 2. Fetch External Data
-        WeatherApiResponse originWeather = weatherClient.getWeather(request.origin());
-        WeatherApiResponse destWeather = weatherClient.getWeather(request.destination());
+    private DispatchResponse reject(DispatchRequest request, PreFlightResult rejection,
+                                    WeatherSnapshot originWeather, WeatherSnapshot destWeather) {
+        return DispatchPhaseEvent.time(Phase.PERSISTENCE, request.droneId(), null,
+                () -> saveAndReturn(request, Status.REJECTED, rejection.rejectionReason(), rejection.distanceKm(),
+                        originWeather, destWeather));
+    }
+
+    private DispatchResponse approve(DispatchRequest request, PreFlightResult preFlight,
+                                     WeatherSnapshot originWeather, WeatherSnapshot destWeather) {
+        // Another dispatch may have claimed the drone while we were checking the weather
+        Drone drone = validateDroneAvailability(request.droneId());
+        DispatchReason unavailable = checkAvailability(drone, request);
+        if (unavailable != null) {
+            return saveAndReturn(request, Status.REJECTED, unavailable, preFlight.distanceKm(),
+                    originWeather, destWeather);
+        }
+
+        // A targeted update rather than saving the entity, which would write back the battery level read above
+        if (droneRepository.claim(drone.getId(), request.destination(), LocalDateTime.now()) == 0) {
+            // Grounded by telemetry since the read; telemetry doesn't take region locks
+            DroneState state = droneRepository.findStateById(drone.getId()).orElse(drone.getState());
+            return saveAndReturn(request, Status.REJECTED, DispatchReason.of(ReasonCode.DRONE_NOT_IDLE, state.name()),
+                    preFlight.distanceKm(), originWeather, destWeather);
+        }
 
-        // 3. Rune Pre-Flight Checks (Helper Method)
-        String rejectionReason = runPreFlightChecks(originWeather, destWeather);
-        if (rejectionReason != null) {
-            return saveAndReturn(request, Status.REJECTED, rejectionReason, originWeather, destWeather);
+        if (preFlight.legs().isEmpty()) {
+            return saveAndReturn(request, Status.APPROVED,
+                    DispatchReason.of(ReasonCode.APPROVED), preFlight.distanceKm(), originWeather, destWeather);
         }
 
-        // 4. Lock Drone & Approve
-        drone.setState(DroneState.IN_FLIGHT);
-        drone.setCurrentLocation(request.destination());
-        droneRepository.save(drone);
+        DispatchResponse approved = saveAndReturn(request, Status.APPROVED,
+                DispatchReason.of(ReasonCode.APPROVED_WITH_STOPS, preFlight.legs().size() - 1),
+                preFlight.distanceKm(), originWeather, destWeather);
+        return new DispatchResponse(approved.droneId(), approved.status(), approved.reason(), approved.reasonCode(),
+                preFlight.legs(), null);
+    }
 
-        return saveAndReturn(request, Status.APPROVED,
-                "Flight approved. Conditions optimal.", originWeather, destWeather);
+    // Returns the rejection reason, or null if the drone can take this request
+    private DispatchReason checkAvailability(Drone drone, DispatchRequest request) {
+        if (!drone.getCurrentLocation().equalsIgnoreCase(request.origin())) {
+            return DispatchReason.of(ReasonCode.DRONE_NOT_AT_ORIGIN, drone.getCurrentLocation());
+        }
+        if (drone.getState() != DroneState.IDLE) {
+            return DispatchReason.of(ReasonCode.DRONE_NOT_IDLE, drone.getState().name());
+        }
+        return null;
     }
 
     private Drone validateDroneAvailability(String droneId) {
@@ -70,37 +169,83 @@ public class DispatchService {
                 .orElseThrow(() -> new IllegalArgumentException("Drone not found: " + droneId));
     }
 
-    private String runPreFlightChecks(WeatherApiResponse origin, WeatherApiResponse dest) {
-        // A. Check Distance
-        double distance = calculateDistanceKm(
+    private PreFlightResult runPreFlightChecks(DispatchRequest request, WeatherApiResponse origin, WeatherApiResponse dest) {
+        // A. Check Distance (plan a route through charging hubs when out of direct range)
+        double distance = GeoUtils.distanceKm(
                 origin.latitude(), origin.longitude(),
                 dest.latitude(), dest.longitude());
 
+        List<RouteLeg> legs = List.of();
         if (distance > droneRules.getMaxRangeKm()) {
-            return String.format("Destination too far (%.2f km). Max range is %.0fkm.", distance, droneRules.getMaxRangeKm());
+            Optional<List<RouteLeg>> route = routePlanner.plan(
+                    request.origin(), origin.latitude(), origin.longitude(),
+                    request.destination(), dest.latitude(), dest.longitude());
+
+            if (route.isEmpty()) {
+                return PreFlightResult.rejected(
+                        DispatchReason.of(ReasonCode.OUT_OF_RANGE, distance, droneRules.getMaxRangeKm()), distance);
+            }
+            legs = route.get();
         }
 
-        // B. Check Weather Safety
-        if (isUnsafe(origin)) return "Unsafe takeoff conditions in Origin Data.";
-        if (isUnsafe(dest)) return "Unsafe takeoff conditions in Destination Data.";
+        // B. Check Airspace along the path actually flown: the direct line, or every leg through the hubs
+        NoFlyZone zone = legs.isEmpty()
+                ? noFlyZones.firstCrossing(origin.latitude(), origin.longitude(), dest.latitude(), dest.longitude())
+                : firstCrossing(legs);
+        if (zone != null) {
+            return PreFlightResult.rejected(DispatchReason.of(ReasonCode.NO_FLY_ZONE, zone.id()), distance);
+        }
 
-        return null; // Approved - Checks passed!
+        // C. Check Weather Safety
+        if (isUnsafe(origin)) return PreFlightResult.rejected(DispatchReason.of(ReasonCode.UNSAFE_ORIGIN), distance);
+        if (isUnsafe(dest)) {
+            return PreFlightResult.rejected(DispatchReason.of(ReasonCode.UNSAFE_DESTINATION), distance);
+        }
+
+        // D. Check Weather at every charging stop along the route
+        for (int i = 0; i + 1 < legs.size(); i++) {
+            String stop = legs.get(i).to();
+            if (isUnsafe(fetchWeather(request.droneId(), stop))) {
+                return new PreFlightResult(DispatchReason.of(ReasonCode.UNSAFE_CHARGING_STOP, stop), legs, distance);
+            }
+        }
+
+        return new PreFlightResult(null, legs, distance); // Approved - Checks passed!
     }
 
-    public List<DroneResponse> getAvailableDrones() {
-        return droneRepository.findAll()
-                .stream()
-                .map(this::mapToDroneResponse)
-                .collect(Collectors.toList());
+    private NoFlyZone firstCrossing(List<RouteLeg> legs) {
+        for (RouteLeg leg : legs) {
+            NoFlyZone zone = noFlyZones.firstCrossing(
+                    leg.fromLatitude(), leg.fromLongitude(), leg.toLatitude(), leg.toLongitude());
+            if (zone != null) return zone;
+        }
+        return null;
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<DroneResponse> searchFleet(DroneState state, String location, Double minBattery,
+                                            DroneModel model, Pageable pageable) {
+        return droneRepository.searchFleet(state, location, minBattery, model, pageable);
     }
 
-    public List<DispatchHistoryResponse> getAllHistory() {
-        return dispatchRepository.findAll()
+    @Transactional(readOnly = true)
+    public Slice<DroneResponse> searchFleet(DroneState state, String location, Double minBattery,
+                                            DroneModel model, String afterId, Pageable pageable) {
+        return droneRepository.searchFleet(state, location, minBattery, model, afterId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DispatchHistoryResponse> getAllHistory(ReasonCode reasonCode) {
+        List<DispatchRecord> records = reasonCode == null
+                ? dispatchRepository.findAll()
+                : dispatchRepository.findByReasonCodeOrderByTimestampDesc(reasonCode);
+        return records
                 .stream()
                 .map(this::mapToDispatchHistoryResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<DispatchHistoryResponse> getDroneHistory(String droneId) {
         return dispatchRepository.findByDroneIdOrderByTimestampDesc(droneId)
                 .stream()
@@ -111,60 +256,57 @@ public class DispatchService {
     private boolean isUnsafe(WeatherApiResponse response) {
         if (response == null) return true; // safety check
 
-        double wind = response.currentWeather().windspeed();
-        double temp = response.currentWeather().temperature();
-        int code = response.currentWeather().weathercode();
+        WeatherApiResponse.CurrentWeather current = response.currentWeather();
+        return isUnsafe(droneRules, current.windspeed(), current.temperature(), current.weathercode());
+    }
 
+    // Shared with the rule replay, so what-if results always match live decisions
+    static boolean isUnsafe(DroneConfigProperties rules, double wind, double temp, int code) {
         // Business Rules:
         // 1. Wind > 30 km/h is dangerous
         // 2. Temp < -10C is dangerous for battery
         // 3. Code >= 50 usually implies rain/snow
-        return wind >= droneRules.getMaxWindSpeed() || temp <= droneRules.getMinTemperature() ||  code >= droneRules.getStormCodeThreshold();
-
+        return wind >= rules.getMaxWindSpeed() || temp <= rules.getMinTemperature() ||  code >= rules.getStormCodeThreshold();
     }
 
     private DispatchResponse saveAndReturn(
             DispatchRequest request,
             Status status,
-            String reason,
-            WeatherApiResponse originWeather,
-            WeatherApiResponse destWeather) {
+            DispatchReason reason,
+            Double distanceKm,
+            WeatherSnapshot originWeather,
+            WeatherSnapshot destWeather) {
 
-        DispatchRecord.DispatchRecordBuilder builder = DispatchRecord.builder()
+        DispatchRecord record = DispatchRecord.builder()
                 .droneId(request.droneId())
                 .origin(request.origin())
                 .destination(request.destination())
                 .status(status)
-                .reason(reason)
-                .timestamp(LocalDateTime.now());
-
-        if (originWeather != null) {
-            builder.originTemp(originWeather.currentWeather().temperature());
-            builder.originWind(originWeather.currentWeather().windspeed());
-            builder.originWeatherCode(originWeather.currentWeather().weathercode());
-        }
-
-        if (destWeather != null) {
-            builder.destTemp(destWeather.currentWeather().temperature());
-            builder.destWind(destWeather.currentWeather().windspeed());
-            builder.destWeatherCode(destWeather.currentWeather().weathercode());
-        }
-
-        dispatchRepository.save(builder.build());
-        log.info("Dispatch Decision: {} - Reason: {}", status, reason);
-
-        return new DispatchResponse(request.droneId(), status, reason);
+                .reasonCode(reason.code())
+                .reasonSubject(storedSubject(reason.subject()))
+                .reasonValue1(reason.value1())
+                .reasonValue2(reason.value2())
+                .distanceKm(distanceKm)
+                .originWeather(originWeather)
+                .destWeather(destWeather)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        dispatchRepository.save(record);
+        eventLog.recordDecision(record);
+        log.info("Dispatch Decision for drone {}: {} - Reason: {}", request.droneId(), status, reason.code());
+
+        return DispatchResponse.of(request.droneId(), request.origin(), status, reason);
     }
 
-    private double calculateDistanceKm(double lat1, double lon1, double lat2, double lon2) {
-        final int EARTH_RADIUS_KM = 6371;
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return EARTH_RADIUS_KM * c;
+    // Subjects are city and hub names, which may be longer than the column; the response still gets the full name
+    private static String storedSubject(String subject) {
+        if (subject == null || subject.length() <= MAX_REASON_SUBJECT_LENGTH) {
+            return subject;
+        }
+        int end = MAX_REASON_SUBJECT_LENGTH;
+        if (Character.isHighSurrogate(subject.charAt(end - 1))) end--;
+        return subject.substring(0, end);
     }
 
     private DispatchHistoryResponse mapToDispatchHistoryResponse(DispatchRecord record) {
@@ -173,20 +315,25 @@ public class DispatchService {
                 record.getOrigin(),
                 record.getDestination(),
                 record.getStatus(),
-                record.getReason(),
-                record.getOriginTemp(),
-                record.getDestTemp(),
+                renderReason(record),
+                record.getReasonCode(),
+                record.getOriginWeather() == null ? null : record.getOriginWeather().getTemperature(),
+                record.getDestWeather() == null ? null : record.getDestWeather().getTemperature(),
                 record.getTimestamp()
         );
     }
 
-    private DroneResponse mapToDroneResponse(Drone drone) {
-        return new DroneResponse(
-                drone.getId(),
-                drone.getModel().toString(),
-                drone.getBatteryCapacity(),
-                drone.getState().toString(),
-                drone.getCurrentLocation()
-        );
+    // Rows from before reason codes that the migration has not reached yet still carry their text
+    private String renderReason(DispatchRecord record) {
+        DispatchReason reason = DispatchReason.from(record);
+        return reason == null ? record.getReason() : reason.render(record.getDroneId(), record.getOrigin());
+    }
+
+    // distanceKm is null when the request was rejected before the weather (and so the coordinates) was fetched;
+    // legs are kept on an unsafe charging stop, so the departure window covers the stops
+    private record PreFlightResult(DispatchReason rejectionReason, List<RouteLeg> legs, Double distanceKm) {
+        static PreFlightResult rejected(DispatchReason reason, Double distanceKm) {
+            return new PreFlightResult(reason, List.of(), distanceKm);
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.interview.prep.drone_dispatch_service.service;
 
+import com.interview.prep.drone_dispatch_service.config.TelemetryProperties;
 import com.interview.prep.drone_dispatch_service.entity.Drone;
 import com.interview.prep.drone_dispatch_service.entity.DroneState;
 import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
@@ -8,56 +9,162 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class DroneScheduler {
 
+    // Per-drone lines beyond this are only counted; the tick summary reports how many were suppressed
+    private static final int MAX_DRONE_LOGS_PER_TICK = 20;
+
     private final DroneRepository droneRepository;
+    private final PendingDispatchQueue pendingDispatchQueue;
+    private final RegionLocks regionLocks;
+    private final DispatchEventLog eventLog;
+    private final TelemetryProperties telemetry;
 
     @Scheduled(fixedRate = 30000) // Run every 30 seconds
     public void simulateDroneActivity() {
+        if (telemetry.isEnabled()) {
+            return; // Real drones report their own landings and battery
+        }
+
+        SchedulerTickEvent event = new SchedulerTickEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
         List<Drone> allDrones = droneRepository.findAll();
+        TickStats stats = new TickStats();
+
+        // Each city is processed under its region lock on freshly read rows, so a drone claimed by a dispatch
+        // in the meantime is never overwritten with the stale copy from findAll()
+        Map<String, List<String>> idsByCity = allDrones.stream().collect(
+                Collectors.groupingBy(Drone::getCurrentLocation, Collectors.mapping(Drone::getId, Collectors.toList())));
+        idsByCity.forEach((city, ids) -> regionLocks.callInRegion(city, () -> {
+            for (Drone drone : droneRepository.findAllById(ids)) {
+                if (drone.getCurrentLocation().equalsIgnoreCase(city)) { // Otherwise it left; next tick handles it
+                    simulate(drone, stats);
+                }
+            }
+            return null;
+        }));
+
+        // Queued dispatches waiting in these cities can now be served
+        if (!stats.availableIn.isEmpty()) {
+            pendingDispatchQueue.onDronesAvailable(stats.availableIn);
+        }
+
+        log.info("Scheduler tick: {} drones, {} landed, {} grounded, {} charging, {} returned to service in {} ms ({} drone log lines suppressed)",
+                allDrones.size(), stats.landed, stats.grounded, stats.charging, stats.released,
+                (System.nanoTime() - startNanos) / 1_000_000, stats.suppressed);
 
-        for (Drone drone : allDrones) {
-            // SCENARIO 1: ARRIVAL (Flight Complete)
-            if (drone.getState() == DroneState.IN_FLIGHT) {
-                // 1. Drain Battery (Simulate consumption)
-                double newBattery = Math.max(0, drone.getBatteryCapacity() - 20.0);
-                drone.setBatteryCapacity(newBattery);
+        event.end();
+        if (event.shouldCommit()) {
+            event.drones = allDrones.size();
+            event.landed = stats.landed;
+            event.grounded = stats.grounded;
+            event.charging = stats.charging;
+            event.released = stats.released;
+            event.commit();
+        }
+    }
 
-                // 2. Land
-                drone.setState(DroneState.IDLE);
+    private void simulate(Drone drone, TickStats stats) {
+        boolean wasBusy = drone.getState() != DroneState.IDLE;
 
+        // SCENARIO 1: ARRIVAL (Flight Complete)
+        if (drone.getState() == DroneState.IN_FLIGHT) {
+            // 1. Drain Battery (Simulate consumption)
+            double newBattery = Math.max(0, drone.getBatteryCapacity() - 20.0);
+            drone.setBatteryCapacity(newBattery);
+
+            // 2. Land
+            drone.setState(DroneState.IDLE);
+            drone.setStateChangedAt(LocalDateTime.now());
+
+            stats.landed++;
+            if (stats.sample()) {
                 log.info("🛬 Drone {} arrived at {}. Battery: {}%", drone.getId(), drone.getCurrentLocation(), newBattery);
-                droneRepository.save(drone);
             }
+            if (!write(drone, DroneState.IN_FLIGHT)) return;
+        }
 
-            // SCENARIO 2: LOW BATTERY CHECK
-            if (drone.getState() == DroneState.IDLE && drone.getBatteryCapacity() < 25.0) {
+        // SCENARIO 2: LOW BATTERY CHECK
+        if (drone.getState() == DroneState.IDLE && drone.getBatteryCapacity() < 25.0) {
+            stats.grounded++;
+            if (stats.sample()) {
                 log.warn("🪫 Drone {} battery critical ({}%). Sending to RECHARGING.", drone.getId(), drone.getBatteryCapacity());
-                drone.setState(DroneState.MAINTENANCE); // We use MAINTENANCE as "Recharging"
-                droneRepository.save(drone);
             }
+            drone.setState(DroneState.MAINTENANCE); // We use MAINTENANCE as "Recharging"
+            drone.setStateChangedAt(LocalDateTime.now());
+            if (!write(drone, DroneState.IDLE)) return;
+        }
 
-            // SCENARIO 3: RECHARGING
-            if (drone.getState() == DroneState.MAINTENANCE) {
-                double currentBat = drone.getBatteryCapacity();
-                if (currentBat < 100.0) {
-                    double chargedBat = Math.min(100.0, currentBat + 25.0); // Charge 25% per tick
-                    drone.setBatteryCapacity(chargedBat);
+        // SCENARIO 3: RECHARGING
+        if (drone.getState() == DroneState.MAINTENANCE) {
+            DroneState previous = drone.getState();
+            double currentBat = drone.getBatteryCapacity();
+            if (currentBat < 100.0) {
+                double chargedBat = Math.min(100.0, currentBat + 25.0); // Charge 25% per tick
+                drone.setBatteryCapacity(chargedBat);
+                stats.charging++;
+                if (stats.sample()) {
                     log.info("⚡ Drone {} recharging... {}%", drone.getId(), chargedBat);
+                }
 
-                    // If fully charged, release to IDLE
-                    if (chargedBat >= 95.0) {
-                        drone.setState(DroneState.IDLE);
+                // If fully charged, release to IDLE
+                if (chargedBat >= 95.0) {
+                    drone.setState(DroneState.IDLE);
+                    drone.setStateChangedAt(LocalDateTime.now());
+                    stats.released++;
+                    if (stats.sample()) {
                         log.info("✅ Drone {} fully charged. Returning to service.", drone.getId());
                     }
-                    droneRepository.save(drone);
                 }
+                if (!write(drone, previous)) return;
+            }
+        }
+
+        if (drone.getState() == DroneState.IDLE && wasBusy) {
+            stats.availableIn.add(drone.getCurrentLocation());
+        }
+    }
+
+    // Only the simulated columns, and only if the drone is still in the state it was read in; false if it isn't.
+    // The update commits on its own, so a state change is logged only once it is stored
+    private boolean write(Drone drone, DroneState expected) {
+        if (droneRepository.updateSimulated(drone.getId(), expected, drone.getState(),
+                drone.getBatteryCapacity(), drone.getStateChangedAt()) == 0) {
+            return false;
+        }
+        if (drone.getState() != expected) {
+            eventLog.recordTransition(drone, expected);
+        }
+        return true;
+    }
+
+    private static final class TickStats {
+        private int landed;
+        private int grounded;
+        private int charging;
+        private int released;
+        private int logged;
+        private int suppressed;
+        private final Set<String> availableIn = new HashSet<>();
+
+        private boolean sample() {
+            if (logged < MAX_DRONE_LOGS_PER_TICK) {
+                logged++;
+                return true;
             }
+            suppressed++;
+            return false;
         }
     }
-}
\ No newline at end of file
+}
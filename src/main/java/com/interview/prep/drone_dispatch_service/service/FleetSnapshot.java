@@ -0,0 +1,74 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Point-in-time view of the IDLE fleet in struct-of-arrays form, so assignment scoring walks primitive arrays
+ * instead of chasing Drone objects. Drone {@code i} is described by {@code droneIds[i]}, {@code battery[i]},
+ * {@code maxPayloadKg[i]} and {@code cityIndex[i]}.
+ */
+public final class FleetSnapshot {
+
+    final String[] droneIds;
+    final double[] battery;
+    final double[] maxPayloadKg;
+    final int[] cityIndex;
+    private final Map<String, Integer> cities;
+
+    private FleetSnapshot(String[] droneIds, double[] battery, double[] maxPayloadKg, int[] cityIndex,
+                          Map<String, Integer> cities) {
+        this.droneIds = droneIds;
+        this.battery = battery;
+        this.maxPayloadKg = maxPayloadKg;
+        this.cityIndex = cityIndex;
+        this.cities = cities;
+    }
+
+    public static FleetSnapshot of(List<DroneResponse> drones) {
+        int size = drones.size();
+        String[] ids = new String[size];
+        double[] battery = new double[size];
+        double[] maxPayload = new double[size];
+        int[] cityIndex = new int[size];
+        Map<String, Integer> cities = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            DroneResponse drone = drones.get(i);
+            ids[i] = drone.id();
+            // An unknown charge is treated as empty, so the drone is never picked
+            battery[i] = drone.batteryCapacity() == null ? 0.0 : drone.batteryCapacity();
+            maxPayload[i] = DroneModel.valueOf(drone.model()).getMaxPayloadKg();
+            cityIndex[i] = cities.computeIfAbsent(normalize(drone.currentLocation()), city -> cities.size());
+        }
+        return new FleetSnapshot(ids, battery, maxPayload, cityIndex, cities);
+    }
+
+    public int size() {
+        return droneIds.length;
+    }
+
+    public int cityCount() {
+        return cities.size();
+    }
+
+    public String droneId(int drone) {
+        return droneIds[drone];
+    }
+
+    /**
+     * Index of the city in this snapshot, or -1 if no drone is there.
+     */
+    public int cityIndexOf(String city) {
+        return cities.getOrDefault(normalize(city), -1);
+    }
+
+    private static String normalize(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+}
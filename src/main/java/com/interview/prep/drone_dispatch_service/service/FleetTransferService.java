@@ -0,0 +1,376 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.dto.FleetFormat;
+import com.interview.prep.drone_dispatch_service.dto.FleetImportResponse;
+import com.interview.prep.drone_dispatch_service.entity.Drone;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.exception.FleetImportException;
+import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Bulk fleet onboarding and export as CSV or NDJSON. Both directions stream: the import parses one line at a
+ * time and upserts in JDBC batches, each committed on its own, and the export writes rows as they come off a
+ * database cursor, so memory stays constant however large the fleet is.
+ * <p>
+ * Imported drones overwrite existing rows with the same id, so a re-import resets their state and location.
+ * Each batch is written holding the regions of every city its drones are in or move to, like a dispatch, and
+ * stamps {@code state_changed_at}. A drone in flight is left alone, and only a dispatch may put an existing drone
+ * in flight; such lines are rejected, as are invalid ones. Drones imported IDLE serve queued dispatches.
+ */
+@Service
+@Slf4j
+public class FleetTransferService {
+
+    static final String CSV_HEADER = "id,model,batteryCapacity,state,currentLocation";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_FIELD_LENGTH = 255; // Drone's varchar columns
+
+    // Standard MERGE, understood by H2 and PostgreSQL 15+; the casts give the VALUES row its column types.
+    // A matched drone that is in flight, or would be put in flight, is not updated (0 rows)
+    private static final String UPSERT = """
+            MERGE INTO drone d
+            USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(32)), CAST(? AS DOUBLE PRECISION),
+                           CAST(? AS VARCHAR(32)), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)),
+                           CAST(? AS TIMESTAMP)))
+                AS s (id, model, battery_capacity, state, current_location, location_key, state_changed_at)
+            ON d.id = s.id
+            WHEN MATCHED AND d.state <> 'IN_FLIGHT' AND s.state <> 'IN_FLIGHT' THEN
+                UPDATE SET model = s.model, battery_capacity = s.battery_capacity, state = s.state,
+                           current_location = s.current_location, location_key = s.location_key,
+                           state_changed_at = s.state_changed_at
+            WHEN NOT MATCHED THEN INSERT (id, model, battery_capacity, state, current_location, location_key,
+                                          state_changed_at)
+                VALUES (s.id, s.model, s.battery_capacity, s.state, s.current_location, s.location_key,
+                        s.state_changed_at)""";
+
+    private static final String SELECT_CURRENT = "SELECT id, state, current_location FROM drone WHERE id IN (%s)";
+
+    // Positions in the rows built by toRow
+    private static final int ID = 0;
+    private static final int BATTERY = 2;
+    private static final int STATE = 3;
+    private static final int LOCATION = 4;
+    private static final int STATE_CHANGED_AT = 6;
+
+    private final DroneRepository droneRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RegionLocks regionLocks;
+    private final PendingDispatchQueue pendingDispatchQueue;
+    private final DispatchEventLog eventLog;
+    private final ObjectReader jsonReader;
+    private final ObjectWriter jsonWriter;
+
+    public FleetTransferService(DroneRepository droneRepository, JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate, RegionLocks regionLocks,
+                                PendingDispatchQueue pendingDispatchQueue, DispatchEventLog eventLog,
+                                ObjectMapper objectMapper) {
+        this.droneRepository = droneRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.regionLocks = regionLocks;
+        this.pendingDispatchQueue = pendingDispatchQueue;
+        this.eventLog = eventLog;
+        this.jsonReader = objectMapper.readerFor(DroneResponse.class);
+        this.jsonWriter = objectMapper.writerFor(DroneResponse.class);
+    }
+
+    public FleetImportResponse importFleet(FleetFormat format, InputStream in) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Batch batch = new Batch();
+        Tally tally = new Tally();
+        long lineNumber = 0;
+
+        String line;
+        if (format == FleetFormat.CSV) {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null || !CSV_HEADER.equals(stripBom(line).trim())) {
+                throw new FleetImportException("CSV fleet files must start with the header: " + CSV_HEADER);
+            }
+        }
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+
+            try {
+                DroneResponse drone = format == FleetFormat.CSV ? parseCsv(line) : parseJson(line);
+                batch.add(toRow(drone), lineNumber);
+            } catch (IllegalArgumentException ex) {
+                tally.reject(lineNumber, ex.getMessage());
+                continue;
+            }
+
+            if (batch.rows.size() == BATCH_SIZE) {
+                upsert(batch, tally);
+            }
+        }
+        upsert(batch, tally);
+
+        log.info("Imported {} drones ({} lines rejected) in {} ms",
+                tally.imported, tally.rejected, (System.nanoTime() - start) / 1_000_000);
+        return new FleetImportResponse(tally.imported, tally.rejected, tally.errors);
+    }
+
+    /**
+     * Writes the whole fleet, ordered by id, in the given format. The stream is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public void exportFleet(FleetFormat format, OutputStream out) throws IOException {
+        Writer text = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == FleetFormat.CSV) {
+            text.write(CSV_HEADER);
+            text.write('\n');
+        }
+
+        try (Stream<DroneResponse> drones = droneRepository.streamFleet()) {
+            Iterator<DroneResponse> it = drones.iterator();
+            while (it.hasNext()) {
+                DroneResponse drone = it.next();
+                if (format == FleetFormat.CSV) {
+                    text.write(csvField(drone.id()));
+                    text.write(',');
+                    text.write(drone.model());
+                    text.write(',');
+                    text.write(String.valueOf(drone.batteryCapacity()));
+                    text.write(',');
+                    text.write(drone.state());
+                    text.write(',');
+                    text.write(csvField(drone.currentLocation()));
+                } else {
+                    text.write(jsonWriter.writeValueAsString(drone));
+                }
+                text.write('\n');
+            }
+        }
+        text.flush();
+    }
+
+    // Each batch commits on its own, so a large import never holds one long transaction
+    private void upsert(Batch batch, Tally tally) {
+        if (batch.rows.isEmpty()) return;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Set<String> cities = new HashSet<>();
+        for (Object[] row : batch.rows) {
+            row[STATE_CHANGED_AT] = now;
+            cities.add((String) row[LOCATION]);
+        }
+        current(batch.rows).values().forEach(drone -> cities.add(drone.location));
+
+        Set<String> availableIn = new HashSet<>();
+        regionLocks.callInRegions(cities, () -> transactionTemplate.execute(tx -> {
+            // Read again under the locks; a drone claimed since is in flight and skipped by the MERGE as well
+            Map<String, Current> previous = current(batch.rows);
+            int[] counts = jdbcTemplate.batchUpdate(UPSERT, batch.rows);
+            for (int i = 0; i < counts.length; i++) {
+                Object[] row = batch.rows.get(i);
+                Current before = previous.get((String) row[ID]);
+                if (counts[i] == 0) {
+                    tally.reject(batch.lines.get(i), before != null && before.state == DroneState.IN_FLIGHT
+                            ? "Drone " + row[ID] + " is in flight"
+                            : "Only a dispatch can put drone " + row[ID] + " in flight");
+                    continue;
+                }
+                tally.imported++;
+                DroneState state = DroneState.valueOf((String) row[STATE]);
+                if (before != null && before.state != state) {
+                    eventLog.recordTransition(Drone.builder()
+                            .id((String) row[ID])
+                            .state(state)
+                            .batteryCapacity((Double) row[BATTERY])
+                            .currentLocation((String) row[LOCATION])
+                            .build(), before.state);
+                }
+                if (state == DroneState.IDLE) {
+                    availableIn.add((String) row[LOCATION]);
+                }
+            }
+            return null;
+        }));
+        batch.clear();
+
+        if (!availableIn.isEmpty()) {
+            pendingDispatchQueue.onDronesAvailable(availableIn);
+        }
+    }
+
+    // The state and location of those drones of the batch that already exist
+    private Map<String, Current> current(List<Object[]> rows) {
+        Map<String, Current> current = new HashMap<>();
+        jdbcTemplate.query(SELECT_CURRENT.formatted(String.join(",", Collections.nCopies(rows.size(), "?"))),
+                rs -> {
+                    current.put(rs.getString("id"), new Current(
+                            DroneState.valueOf(rs.getString("state")), rs.getString("current_location")));
+                },
+                rows.stream().map(row -> row[ID]).toArray());
+        return current;
+    }
+
+    private DroneResponse parseJson(String line) {
+        try {
+            return jsonReader.readValue(line);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Invalid JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    static DroneResponse parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 5) {
+            throw new IllegalArgumentException("Expected 5 fields but found " + fields.size());
+        }
+        Double battery;
+        try {
+            battery = Double.valueOf(fields.get(2).trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid battery capacity: " + fields.get(2));
+        }
+        return new DroneResponse(fields.get(0).trim(), fields.get(1).trim(), battery, fields.get(3).trim(),
+                fields.get(4).trim());
+    }
+
+    private static Object[] toRow(DroneResponse drone) {
+        String id = drone.id();
+        if (id == null || id.isBlank() || id.length() > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Drone id must be 1 to " + MAX_FIELD_LENGTH + " characters");
+        }
+        Double battery = drone.batteryCapacity();
+        if (battery == null || !(battery >= 0.0 && battery <= 100.0)) {
+            throw new IllegalArgumentException("Battery capacity must be between 0 and 100");
+        }
+        String location = drone.currentLocation();
+        if (location == null || location.isBlank() || location.length() > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Current location must be 1 to " + MAX_FIELD_LENGTH + " characters");
+        }
+        return new Object[]{
+                id,
+                parseEnum(DroneModel.class, drone.model(), "model").name(),
+                battery,
+                parseEnum(DroneState.class, drone.state(), "state").name(),
+                location,
+                Drone.locationKey(location),
+                null}; // state_changed_at, set when the batch is written
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + field);
+        }
+        try {
+            return Enum.valueOf(type, value.trim());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown " + field + ": " + value);
+        }
+    }
+
+    // RFC 4180 fields: quoted fields may contain commas and doubled quotes
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    private record Current(DroneState state, String location) {}
+
+    // Rows waiting to be written, with the line each came from
+    private static final class Batch {
+        final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        final List<Long> lines = new ArrayList<>(BATCH_SIZE);
+
+        void add(Object[] row, long line) {
+            rows.add(row);
+            lines.add(line);
+        }
+
+        void clear() {
+            rows.clear();
+            lines.clear();
+        }
+    }
+
+    private static final class Tally {
+        final List<String> errors = new ArrayList<>();
+        long imported;
+        long rejected;
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + line + ": " + reason);
+            }
+        }
+    }
+}
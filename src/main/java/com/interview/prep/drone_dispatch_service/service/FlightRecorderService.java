@@ -0,0 +1,94 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.client.WeatherCallEvent;
+import com.interview.prep.drone_dispatch_service.config.FlightRecorderProperties;
+import com.interview.prep.drone_dispatch_service.exception.RecordingUnavailableException;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * Keeps a continuous flight recording of the JVM and the dispatch events ({@link DispatchPhaseEvent},
+ * {@link WeatherCallEvent}, {@link SchedulerTickEvent}) in a bounded on-disk ring buffer, so the last minutes
+ * before a latency spike can be dumped on demand and opened in JDK Mission Control.
+ */
+@Component
+@Slf4j
+public class FlightRecorderService {
+
+    private static final String RECORDING_NAME = "drone-dispatch";
+
+    // JDK events that copy the environment, system properties and command lines into the recording, where
+    // they would hand database passwords and API keys to whoever downloads a dump
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation",
+            "jdk.SystemProcess");
+
+    private final Recording recording;
+
+    public FlightRecorderService(FlightRecorderProperties properties) {
+        this.recording = properties.isEnabled() && FlightRecorder.isAvailable() ? start(properties) : null;
+    }
+
+    private static Recording start(FlightRecorderProperties properties) {
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (IOException | ParseException ex) {
+            throw new IllegalStateException("Could not load the default flight recorder settings", ex);
+        }
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(properties.getMaxAge());
+        recording.setMaxSize(properties.getMaxSize().toBytes());
+        SENSITIVE_EVENTS.forEach(recording::disable);
+
+        recording.enable(DispatchPhaseEvent.NAME).withThreshold(properties.getThreshold());
+        recording.enable(WeatherCallEvent.NAME).withThreshold(properties.getThreshold());
+        recording.enable(SchedulerTickEvent.NAME);
+
+        recording.start();
+        log.info("Flight recording started (max age {}, max size {})", properties.getMaxAge(), properties.getMaxSize());
+        return recording;
+    }
+
+    /**
+     * Writes what the recording currently holds to a new temporary file; the caller deletes it when done.
+     */
+    public Path dump() {
+        if (recording == null) {
+            throw new RecordingUnavailableException("Flight recording is disabled");
+        }
+        try {
+            Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+            try {
+                recording.dump(file);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(file);
+                throw ex;
+            }
+            return file;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not dump the flight recording", ex);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
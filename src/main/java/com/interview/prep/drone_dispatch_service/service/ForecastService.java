@@ -0,0 +1,120 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.client.WeatherServiceClient;
+import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
+import com.interview.prep.drone_dispatch_service.config.ForecastProperties;
+import com.interview.prep.drone_dispatch_service.dto.DepartureWindow;
+import com.interview.prep.drone_dispatch_service.dto.WeatherApiResponse;
+import com.interview.prep.drone_dispatch_service.exception.WeatherServiceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Finds the earliest departure window in which the weather at every city of a flight passes the rules, so a
+ * rejected client can come back then instead of retrying. Forecasts are fetched at most once per city per hour
+ * and instance; concurrent rejections for the same city wait for the first fetch.
+ */
+@Service
+@Slf4j
+public class ForecastService {
+
+    private final WeatherServiceClient weatherClient;
+    private final DroneConfigProperties droneRules;
+    private final ForecastProperties properties;
+
+    private final SingleFlightCache<WeatherApiResponse.Hourly> cache;
+
+    public ForecastService(WeatherServiceClient weatherClient, DroneConfigProperties droneRules,
+                           ForecastProperties properties) {
+        this.weatherClient = weatherClient;
+        this.droneRules = droneRules;
+        this.properties = properties;
+        this.cache = new SingleFlightCache<>(properties.getCacheSize());
+    }
+
+    /**
+     * The earliest window, starting at the next full hour, that is safe at all these cities; empty if there is
+     * none within the horizon or the forecast is unavailable.
+     */
+    public Optional<DepartureWindow> earliestSafeWindow(List<String> cities) {
+        // Forecast times are in GMT, the weather service's default; the window is returned in UTC as well
+        LocalDateTime hour = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        try {
+            List<WeatherApiResponse.Hourly> forecasts = new ArrayList<>(cities.size());
+            for (String city : cities) {
+                forecasts.add(forecastOf(city, hour));
+            }
+            return earliestWindow(droneRules, hour, properties.getHorizonHours(), forecasts);
+        } catch (WeatherServiceException | RestClientException ex) {
+            // The rejection stands either way; the client just gets no hint
+            log.warn("No departure window for {}: forecast unavailable: {}", cities, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private WeatherApiResponse.Hourly forecastOf(String city, LocalDateTime hour) {
+        // A failed fetch is not cached, so the next rejection tries again
+        return cache.get(city.trim().toLowerCase(Locale.ROOT) + "|" + hour, () -> {
+            WeatherApiResponse response = weatherClient.getForecast(city);
+            WeatherApiResponse.Hourly hourly = response == null ? null : response.hourly();
+            if (hourly == null) {
+                throw new WeatherServiceException("Weather service returned no forecast for city: " + city);
+            }
+            return hourly;
+        });
+    }
+
+    /**
+     * Marks each of the {@code horizonHours} hours after {@code hour} safe if every forecast passes the rules
+     * then, and returns the first run of safe hours. An hour missing from any forecast counts as unsafe.
+     */
+    static Optional<DepartureWindow> earliestWindow(DroneConfigProperties rules, LocalDateTime hour,
+                                                    int horizonHours, List<WeatherApiResponse.Hourly> forecasts) {
+        boolean[] safe = new boolean[horizonHours + 1]; // Index = hours after `hour`; 0 is the hour already rejected
+        Arrays.fill(safe, 1, safe.length, true);
+        boolean[] citySafe = new boolean[safe.length];
+
+        for (WeatherApiResponse.Hourly forecast : forecasts) {
+            Arrays.fill(citySafe, false);
+            int entries = Math.min(Math.min(forecast.time().size(), forecast.temperature().size()),
+                    Math.min(forecast.windspeed().size(), forecast.weathercode().size()));
+            for (int i = 0; i < entries; i++) {
+                LocalDateTime time = forecast.time().get(i);
+                Double temperature = forecast.temperature().get(i);
+                Double windspeed = forecast.windspeed().get(i);
+                Integer weathercode = forecast.weathercode().get(i);
+                if (time == null || temperature == null || windspeed == null || weathercode == null
+                        || !time.equals(time.truncatedTo(ChronoUnit.HOURS))) {
+                    continue;
+                }
+                long offset = Duration.between(hour, time).toHours();
+                if (offset >= 1 && offset <= horizonHours) {
+                    citySafe[(int) offset] = !DispatchService.isUnsafe(rules, windspeed, temperature, weathercode);
+                }
+            }
+            for (int i = 1; i < safe.length; i++) {
+                safe[i] &= citySafe[i];
+            }
+        }
+
+        int from = 1;
+        while (from < safe.length && !safe[from]) from++;
+        if (from == safe.length) {
+            return Optional.empty();
+        }
+        int to = from;
+        while (to < safe.length && safe[to]) to++;
+        return Optional.of(new DepartureWindow(hour.plusHours(from), hour.plusHours(to)));
+    }
+}
@@ -0,0 +1,237 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.prep.drone_dispatch_service.config.IdempotencyProperties;
+import com.interview.prep.drone_dispatch_service.dto.DispatchRequest;
+import com.interview.prep.drone_dispatch_service.dto.DispatchResponse;
+import com.interview.prep.drone_dispatch_service.entity.IdempotencyRecord;
+import com.interview.prep.drone_dispatch_service.exception.IdempotencyConflictException;
+import com.interview.prep.drone_dispatch_service.exception.IdempotencyKeyMismatchException;
+import com.interview.prep.drone_dispatch_service.repository.IdempotencyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Makes {@code POST /dispatch} safe to retry. The first request with a given {@code Idempotency-Key} runs the
+ * dispatch; concurrent duplicates wait for its result and later ones get the stored response back.
+ * Entries are kept in memory (bounded, TTL-evicted) and optionally in the idempotency_record table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    private static final long DB_POLL_INTERVAL_MS = 100;
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public DispatchResponse execute(String key, DispatchRequest request, Supplier<DispatchResponse> action) {
+        String fingerprint = fingerprint(request);
+
+        while (true) {
+            Entry mine = new Entry(fingerprint, System.nanoTime());
+            Entry existing = entries.putIfAbsent(key, mine);
+
+            if (existing == null) {
+                insertionOrder.add(key);
+                enforceCapacity();
+                return runAsOwner(key, mine, action);
+            }
+
+            if (existing.isExpired(properties.getTtl())) {
+                entries.remove(key, existing);
+                continue;
+            }
+
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyMismatchException(
+                        "Idempotency-Key " + key + " was already used for a different dispatch request");
+            }
+
+            log.debug("Duplicate dispatch request for Idempotency-Key {}", key);
+            return await(key, existing.result);
+        }
+    }
+
+    private DispatchResponse runAsOwner(String key, Entry entry, Supplier<DispatchResponse> action) {
+        try {
+            DispatchResponse response = properties.isPersistent()
+                    ? runWithSharedStore(key, entry.fingerprint, action)
+                    : action.get();
+            entry.result.complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            // Failures are not cached, so the client can retry with the same key
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private DispatchResponse runWithSharedStore(String key, String fingerprint, Supplier<DispatchResponse> action) {
+        Optional<IdempotencyRecord> stored = idempotencyRepository.findById(key);
+        if (stored.isPresent() && isExpired(stored.get())) {
+            idempotencyRepository.deleteById(key);
+            stored = Optional.empty();
+        }
+
+        if (stored.isEmpty()) {
+            try {
+                idempotencyRepository.saveAndFlush(IdempotencyRecord.builder()
+                        .idempotencyKey(key)
+                        .requestFingerprint(fingerprint)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            } catch (DataIntegrityViolationException ex) {
+                // Another node claimed the key between our lookup and insert
+                return awaitSharedStore(key, fingerprint);
+            }
+
+            try {
+                DispatchResponse response = action.get();
+                idempotencyRepository.findById(key).ifPresent(record -> {
+                    record.setResponseBody(toJson(response));
+                    idempotencyRepository.save(record);
+                });
+                return response;
+            } catch (RuntimeException ex) {
+                idempotencyRepository.deleteById(key);
+                throw ex;
+            }
+        }
+
+        return awaitSharedStore(key, fingerprint);
+    }
+
+    private DispatchResponse awaitSharedStore(String key, String fingerprint) {
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+
+        while (System.nanoTime() < deadline) {
+            Optional<IdempotencyRecord> record = idempotencyRepository.findById(key);
+            if (record.isEmpty()) {
+                throw new IdempotencyConflictException(
+                        "Request with Idempotency-Key " + key + " failed on another node. Please retry.");
+            }
+            if (!record.get().getRequestFingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyMismatchException(
+                        "Idempotency-Key " + key + " was already used for a different dispatch request");
+            }
+            if (record.get().getResponseBody() != null) {
+                return fromJson(record.get().getResponseBody());
+            }
+            try {
+                Thread.sleep(DB_POLL_INTERVAL_MS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new IdempotencyConflictException(
+                "Request with Idempotency-Key " + key + " is still being processed. Please retry later.");
+    }
+
+    private DispatchResponse await(String key, CompletableFuture<DispatchResponse> result) {
+        try {
+            return result.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new IdempotencyConflictException(
+                    "Request with Idempotency-Key " + key + " is still being processed. Please retry later.");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for Idempotency-Key " + key);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000) // Run every minute
+    public void evictExpired() {
+        Duration ttl = properties.getTtl();
+        entries.values().removeIf(entry -> entry.isExpired(ttl));
+        insertionOrder.removeIf(key -> !entries.containsKey(key));
+
+        if (properties.isPersistent()) {
+            int removed = idempotencyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+            if (removed > 0) {
+                log.debug("Evicted {} expired idempotency records", removed);
+            }
+        }
+    }
+
+    private void enforceCapacity() {
+        // Drop the oldest completed entries; requests still running are never evicted
+        Iterator<String> oldest = insertionOrder.iterator();
+        while (entries.size() > properties.getMaxEntries() && oldest.hasNext()) {
+            String key = oldest.next();
+            Entry entry = entries.get(key);
+            if (entry == null || entry.isDone()) {
+                oldest.remove();
+                if (entry != null) {
+                    entries.remove(key, entry);
+                }
+            }
+        }
+    }
+
+    private boolean isExpired(IdempotencyRecord record) {
+        return record.getCreatedAt().isBefore(LocalDateTime.now().minus(properties.getTtl()));
+    }
+
+    private String fingerprint(DispatchRequest request) {
+        return request.droneId() + "|" + request.origin() + "|" + request.destination();
+    }
+
+    private String toJson(DispatchResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize dispatch response", ex);
+        }
+    }
+
+    private DispatchResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, DispatchResponse.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read stored dispatch response", ex);
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final long createdAtNanos;
+        private final CompletableFuture<DispatchResponse> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint, long createdAtNanos) {
+            this.fingerprint = fingerprint;
+            this.createdAtNanos = createdAtNanos;
+        }
+
+        private boolean isDone() {
+            return result.isDone();
+        }
+
+        private boolean isExpired(Duration ttl) {
+            return isDone() && System.nanoTime() - createdAtNanos > ttl.toNanos();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.entity.Drone;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills {@code drone.location_key} for drones stored before the column existed, and drops the index on the
+ * mixed-case location it replaces. Runs once the schema is up to date but before the web server starts, since
+ * location filters don't see a drone until its key is set.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationKeyMigration implements SmartInitializingSingleton {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String SELECT_PENDING = """
+            SELECT id, current_location FROM drone
+            WHERE location_key IS NULL AND current_location IS NOT NULL
+            FETCH FIRST %d ROWS ONLY""".formatted(BATCH_SIZE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    void migrate() {
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_drone_location_state");
+
+        int migrated = 0;
+        List<Object[]> batch;
+        // Migrated rows drop out of the query, so each select returns the next batch
+        do {
+            batch = jdbcTemplate.query(SELECT_PENDING, (rs, row) -> new Object[]{
+                    Drone.locationKey(rs.getString("current_location")), rs.getString("id")});
+            jdbcTemplate.batchUpdate("UPDATE drone SET location_key = ? WHERE id = ?", batch);
+            migrated += batch.size();
+        } while (batch.size() == BATCH_SIZE);
+
+        if (migrated > 0) {
+            log.info("Set the location key of {} drones", migrated);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.NoFlyZone;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable grid index over no-fly zones. Every zone is registered in each latitude/longitude cell its bounding
+ * box touches; a flight segment then only visits the cells it passes through (Amanatides-Woo traversal) and
+ * tests the zones registered there, bounding box first. A zone whose bounding box would cover more than
+ * {@link #MAX_CELLS_PER_ZONE} cells is not registered but kept in a short list checked against every segment.
+ * <p>
+ * Geometry is planar in latitude/longitude, with circle radii converted at the circle's latitude. Over the
+ * lengths of a drone leg the difference to the great-circle path is far below any zone's margin.
+ */
+final class NoFlyZoneIndex {
+
+    static final int MAX_ID_LENGTH = 64; // DispatchRecord.reasonSubject column
+    static final double MAX_RADIUS_KM = 1000;
+    static final int MAX_CELLS_PER_ZONE = 10_000;
+    // Keeps every cell index of a valid coordinate well inside int range
+    static final double MIN_CELL_SIZE = 1e-4;
+
+    private static final double KM_PER_DEGREE_LAT = 110.574;
+    private static final double KM_PER_DEGREE_LON_AT_EQUATOR = 111.320;
+    private static final int[] NO_ZONES = new int[0];
+
+    private final double cellSize;
+    private final Zone[] zones;
+    private final Map<Long, int[]> cells;
+    private final int[] oversized;
+
+    private NoFlyZoneIndex(double cellSize, Zone[] zones, Map<Long, int[]> cells, int[] oversized) {
+        this.cellSize = cellSize;
+        this.zones = zones;
+        this.cells = cells;
+        this.oversized = oversized;
+    }
+
+    static NoFlyZoneIndex empty() {
+        return new NoFlyZoneIndex(1.0, new Zone[0], Map.of(), NO_ZONES);
+    }
+
+    /**
+     * Validates the zones and indexes them; throws {@link IllegalArgumentException} naming the first invalid one.
+     */
+    static NoFlyZoneIndex build(List<NoFlyZone> definitions, double cellSize) {
+        if (!(cellSize >= MIN_CELL_SIZE)) {
+            throw new IllegalArgumentException("Cell size must be at least " + MIN_CELL_SIZE + " degrees");
+        }
+        Zone[] zones = new Zone[definitions.size()];
+        Set<String> ids = new HashSet<>();
+        Map<Long, List<Integer>> building = new HashMap<>();
+        List<Integer> oversized = new ArrayList<>();
+
+        for (int i = 0; i < zones.length; i++) {
+            Zone zone = Zone.of(definitions.get(i));
+            if (!ids.add(zone.definition.id())) {
+                throw new IllegalArgumentException("Duplicate no-fly zone id: " + zone.definition.id());
+            }
+            zones[i] = zone;
+            long rows = cell(zone.maxLat, cellSize) - cell(zone.minLat, cellSize) + 1L;
+            long cols = cell(zone.maxLon, cellSize) - cell(zone.minLon, cellSize) + 1L;
+            if (rows * cols > MAX_CELLS_PER_ZONE) {
+                oversized.add(i);
+                continue;
+            }
+            for (int row = cell(zone.minLat, cellSize); row <= cell(zone.maxLat, cellSize); row++) {
+                for (int col = cell(zone.minLon, cellSize); col <= cell(zone.maxLon, cellSize); col++) {
+                    building.computeIfAbsent(key(row, col), k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        Map<Long, int[]> cells = new HashMap<>(building.size() * 2);
+        building.forEach((key, list) -> cells.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+        return new NoFlyZoneIndex(cellSize, zones, cells,
+                oversized.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    int size() {
+        return zones.length;
+    }
+
+    List<NoFlyZone> zones() {
+        return Arrays.stream(zones).map(z -> z.definition).toList();
+    }
+
+    /**
+     * The first zone, walking from the start point, that the straight segment crosses or touches, or null.
+     * Oversized zones are only checked once no registered zone is crossed.
+     */
+    NoFlyZone firstCrossing(double lat1, double lon1, double lat2, double lon2) {
+        if (zones.length == 0) {
+            return null;
+        }
+
+        int col = cell(lon1, cellSize);
+        int row = cell(lat1, cellSize);
+        int endCol = cell(lon2, cellSize);
+        int endRow = cell(lat2, cellSize);
+        double dx = lon2 - lon1;
+        double dy = lat2 - lat1;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        // Fraction of the segment at which it leaves the current column / row, and the fraction per cell
+        double tMaxX = dx == 0 ? Double.POSITIVE_INFINITY : ((stepX > 0 ? col + 1 : col) * cellSize - lon1) / dx;
+        double tMaxY = dy == 0 ? Double.POSITIVE_INFINITY : ((stepY > 0 ? row + 1 : row) * cellSize - lat1) / dy;
+        double tDeltaX = dx == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dx);
+        double tDeltaY = dy == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dy);
+
+        double minLat = Math.min(lat1, lat2), maxLat = Math.max(lat1, lat2);
+        double minLon = Math.min(lon1, lon2), maxLon = Math.max(lon1, lon2);
+        int[] tested = NO_ZONES; // Zones spanning several cells on the path are tested once
+        int testedCount = 0;
+
+        int steps = Math.abs(endCol - col) + Math.abs(endRow - row);
+        for (int step = 0; step <= steps; step++) {
+            for (int z : cells.getOrDefault(key(row, col), NO_ZONES)) {
+                Zone zone = zones[z];
+                if (zone.maxLat < minLat || zone.minLat > maxLat || zone.maxLon < minLon || zone.minLon > maxLon) {
+                    continue;
+                }
+                if (contains(tested, testedCount, z)) {
+                    continue;
+                }
+                if (testedCount == tested.length) {
+                    tested = Arrays.copyOf(tested, Math.max(8, testedCount * 2));
+                }
+                tested[testedCount++] = z;
+                if (zone.crosses(lat1, lon1, lat2, lon2)) {
+                    return zone.definition;
+                }
+            }
+            if (tMaxX < tMaxY) {
+                tMaxX += tDeltaX;
+                col += stepX;
+            } else {
+                tMaxY += tDeltaY;
+                row += stepY;
+            }
+        }
+        for (int z : oversized) {
+            if (zones[z].crosses(lat1, lon1, lat2, lon2)) {
+                return zones[z].definition;
+            }
+        }
+        return null;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private static int cell(double degrees, double cellSize) {
+        return (int) Math.floor(degrees / cellSize);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFF_FFFFL);
+    }
+
+    private abstract static sealed class Zone permits Circle, Polygon {
+        final NoFlyZone definition;
+        double minLat, maxLat, minLon, maxLon;
+
+        Zone(NoFlyZone definition) {
+            this.definition = definition;
+        }
+
+        abstract boolean crosses(double lat1, double lon1, double lat2, double lon2);
+
+        static Zone of(NoFlyZone zone) {
+            if (zone.id() == null || zone.id().isBlank() || zone.id().length() > MAX_ID_LENGTH) {
+                throw new IllegalArgumentException("No-fly zone ids must be 1 to " + MAX_ID_LENGTH + " characters");
+            }
+            if (zone.radiusKm() != null) {
+                if (zone.latitude() == null || zone.longitude() == null
+                        || !(zone.radiusKm() > 0 && zone.radiusKm() <= MAX_RADIUS_KM)) {
+                    throw new IllegalArgumentException("No-fly zone " + zone.id()
+                            + ": circles need a latitude, longitude and a radius of up to " + MAX_RADIUS_KM + " km");
+                }
+                requireCoordinates(zone, zone.latitude(), zone.longitude());
+                return new Circle(zone);
+            }
+            if (zone.polygon() == null || zone.polygon().size() < 3
+                    || zone.polygon().stream().anyMatch(p -> p == null || p.length != 2)) {
+                throw new IllegalArgumentException(
+                        "No-fly zone " + zone.id() + ": needs a radius or at least 3 [latitude, longitude] vertices");
+            }
+            zone.polygon().forEach(vertex -> requireCoordinates(zone, vertex[0], vertex[1]));
+            return new Polygon(zone);
+        }
+
+        // Also rejects NaN and infinities
+        private static void requireCoordinates(NoFlyZone zone, double lat, double lon) {
+            if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+                throw new IllegalArgumentException("No-fly zone " + zone.id() + ": [" + lat + ", " + lon
+                        + "] is not a latitude in [-90, 90] and longitude in [-180, 180]");
+            }
+        }
+    }
+
+    private static final class Circle extends Zone {
+        private final double lat;
+        private final double lon;
+        private final double radiusKm;
+        private final double kmPerDegreeLon;
+
+        Circle(NoFlyZone zone) {
+            super(zone);
+            this.lat = zone.latitude();
+            this.lon = zone.longitude();
+            this.radiusKm = zone.radiusKm();
+            this.kmPerDegreeLon = KM_PER_DEGREE_LON_AT_EQUATOR * Math.cos(Math.toRadians(lat));
+            double dLat = radiusKm / KM_PER_DEGREE_LAT;
+            double dLon = radiusKm / Math.max(kmPerDegreeLon, 1e-6);
+            // Near the poles dLon grows without bound; no segment between valid coordinates leaves these ranges
+            minLat = Math.max(lat - dLat, -90);
+            maxLat = Math.min(lat + dLat, 90);
+            minLon = Math.max(lon - dLon, -180);
+            maxLon = Math.min(lon + dLon, 180);
+        }
+
+        // Distance from the centre to the segment, in km on a local plane around the centre
+        @Override
+        boolean crosses(double lat1, double lon1, double lat2, double lon2) {
+            double x1 = (lon1 - lon) * kmPerDegreeLon, y1 = (lat1 - lat) * KM_PER_DEGREE_LAT;
+            double x2 = (lon2 - lon) * kmPerDegreeLon, y2 = (lat2 - lat) * KM_PER_DEGREE_LAT;
+            double dx = x2 - x1, dy = y2 - y1;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared == 0 ? 0 : Math.clamp(-(x1 * dx + y1 * dy) / lengthSquared, 0.0, 1.0);
+            double px = x1 + t * dx, py = y1 + t * dy;
+            return px * px + py * py <= radiusKm * radiusKm;
+        }
+    }
+
+    private static final class Polygon extends Zone {
+        private final double[] lats;
+        private final double[] lons;
+
+        Polygon(NoFlyZone zone) {
+            super(zone);
+            int n = zone.polygon().size();
+            this.lats = new double[n];
+            this.lons = new double[n];
+            minLat = minLon = Double.POSITIVE_INFINITY;
+            maxLat = maxLon = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                lats[i] = zone.polygon().get(i)[0];
+                lons[i] = zone.polygon().get(i)[1];
+                minLat = Math.min(minLat, lats[i]);
+                maxLat = Math.max(maxLat, lats[i]);
+                minLon = Math.min(minLon, lons[i]);
+                maxLon = Math.max(maxLon, lons[i]);
+            }
+        }
+
+        // Either the segment starts or ends inside, or it crosses an edge
+        @Override
+        boolean crosses(double lat1, double lon1, double lat2, double lon2) {
+            if (inside(lat1, lon1) || inside(lat2, lon2)) {
+                return true;
+            }
+            for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+                if (segmentsIntersect(lon1, lat1, lon2, lat2, lons[j], lats[j], lons[i], lats[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Ray casting
+        private boolean inside(double lat, double lon) {
+            boolean inside = false;
+            for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+                if ((lats[i] > lat) != (lats[j] > lat)
+                        && lon < (lons[j] - lons[i]) * (lat - lats[i]) / (lats[j] - lats[i]) + lons[i]) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        private static boolean segmentsIntersect(double ax, double ay, double bx, double by,
+                                                 double cx, double cy, double dx, double dy) {
+            double d1 = cross(cx, cy, dx, dy, ax, ay);
+            double d2 = cross(cx, cy, dx, dy, bx, by);
+            double d3 = cross(ax, ay, bx, by, cx, cy);
+            double d4 = cross(ax, ay, bx, by, dx, dy);
+            if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0))) {
+                return true;
+            }
+            // Touching or collinear
+            return (d1 == 0 && onSegment(cx, cy, dx, dy, ax, ay)) || (d2 == 0 && onSegment(cx, cy, dx, dy, bx, by))
+                    || (d3 == 0 && onSegment(ax, ay, bx, by, cx, cy)) || (d4 == 0 && onSegment(ax, ay, bx, by, dx, dy));
+        }
+
+        private static double cross(double ax, double ay, double bx, double by, double px, double py) {
+            return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+        }
+
+        private static boolean onSegment(double ax, double ay, double bx, double by, double px, double py) {
+            return Math.min(ax, bx) <= px && px <= Math.max(ax, bx) && Math.min(ay, by) <= py && py <= Math.max(ay, by);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.prep.drone_dispatch_service.config.NoFlyZoneProperties;
+import com.interview.prep.drone_dispatch_service.dto.NoFlyZone;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * Restricted airspace for pre-flight checks. The zones come from a JSON file that is re-read whenever it
+ * changes; each load builds a complete new {@link NoFlyZoneIndex} and swaps it in with a single volatile write,
+ * so checks never lock and never see a half-loaded zone set. A file that fails to load keeps the previous zones.
+ */
+@Component
+@Slf4j
+public class NoFlyZoneService {
+
+    private static final TypeReference<List<NoFlyZone>> ZONE_LIST = new TypeReference<>() {};
+
+    private final NoFlyZoneProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Path file;
+
+    private volatile NoFlyZoneIndex index = NoFlyZoneIndex.empty();
+    private FileTime loadedVersion; // Guarded by this
+
+    public NoFlyZoneService(NoFlyZoneProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.file = properties.getLocation() == null ? null : Path.of(properties.getLocation());
+
+        // The first load must succeed: starting without the zones would approve flights through them
+        if (file != null) {
+            try {
+                load(Files.getLastModifiedTime(file));
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not read no-fly zones from " + file.toAbsolutePath(), ex);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 10000) // Check the zone file every 10 seconds
+    public synchronized void refresh() {
+        if (file == null) return;
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (!modified.equals(loadedVersion)) {
+                load(modified);
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            log.error("Could not reload no-fly zones from {}; keeping the {} current zones: {}",
+                    file.toAbsolutePath(), index.size(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Replaces all zones at once. Throws {@link IllegalArgumentException} and keeps the current zones if any
+     * zone is invalid.
+     */
+    public void replace(List<NoFlyZone> zones) {
+        index = NoFlyZoneIndex.build(zones, properties.getCellSizeDegrees());
+    }
+
+    /**
+     * The first zone the straight path from the first to the second point crosses, or null if it is clear.
+     */
+    public NoFlyZone firstCrossing(double lat1, double lon1, double lat2, double lon2) {
+        return index.firstCrossing(lat1, lon1, lat2, lon2);
+    }
+
+    public List<NoFlyZone> zones() {
+        return index.zones();
+    }
+
+    private synchronized void load(FileTime modified) throws IOException {
+        long start = System.nanoTime();
+        replace(objectMapper.readValue(file.toFile(), ZONE_LIST));
+        loadedVersion = modified;
+        log.info("Loaded {} no-fly zones from {} in {} ms",
+                index.size(), file.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
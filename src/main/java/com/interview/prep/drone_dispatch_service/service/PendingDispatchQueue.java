@@ -0,0 +1,273 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.DispatchQueueProperties;
+import com.interview.prep.drone_dispatch_service.dto.*;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.exception.DispatchQueueFullException;
+import com.interview.prep.drone_dispatch_service.exception.TicketNotFoundException;
+import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queued mode for dispatch: instead of rejecting when no drone is free at the origin, the request waits in a
+ * bounded per-city priority queue under a ticket. Whenever drones become IDLE in a city (on enqueue, and when
+ * {@link DroneScheduler} or telemetry reports them) the queue is drained onto them through the regular
+ * {@link DispatchService#dispatchDrone} checks.
+ * <p>
+ * Draining pairs tickets with drones under the city's queue lock, and dispatches them after releasing it, so
+ * polling and enqueueing never wait on the weather service. Availability signals are drained on the application
+ * task executor rather than on the caller's (scheduler) thread.
+ */
+@Service
+@Slf4j
+public class PendingDispatchQueue {
+
+    private static final Comparator<Ticket> SERVE_ORDER = Comparator
+            .comparingInt((Ticket ticket) -> -ticket.priority)
+            .thenComparingLong(ticket -> ticket.sequence);
+
+    private final DispatchService dispatchService;
+    private final DroneRepository droneRepository;
+    private final DispatchQueueProperties properties;
+    private final Executor drainExecutor;
+
+    private final ConcurrentHashMap<String, CityQueue> queues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public PendingDispatchQueue(DispatchService dispatchService, DroneRepository droneRepository,
+                                DispatchQueueProperties properties,
+                                @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                Executor drainExecutor) {
+        this.dispatchService = dispatchService;
+        this.droneRepository = droneRepository;
+        this.properties = properties;
+        this.drainExecutor = drainExecutor;
+    }
+
+    /**
+     * Queues the request and serves it right away if a suitable drone is already waiting at the origin.
+     *
+     * @throws DispatchQueueFullException if the origin's queue is full of requests with at least this priority
+     */
+    public TicketResponse enqueue(QueuedDispatchRequest request) {
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), request, sequence.incrementAndGet(), System.nanoTime());
+        CityQueue queue = queues.computeIfAbsent(key(request.origin()), city -> new CityQueue());
+
+        List<Assignment> claimed;
+        synchronized (queue) {
+            queue.waiting.add(ticket);
+            tickets.put(ticket.id, ticket);
+            claimed = claimLocked(request.origin(), queue);
+
+            // Shed from the back so a full queue keeps its highest-priority, oldest requests
+            while (queue.waiting.size() > properties.getCapacityPerCity()) {
+                Ticket shed = queue.waiting.pollLast();
+                if (shed == ticket) {
+                    tickets.remove(ticket.id);
+                    throw new DispatchQueueFullException(
+                            "Dispatch queue for " + request.origin() + " is full. Please retry later.",
+                            properties.getRetryAfter());
+                }
+                shed.finish(TicketStatus.SHED, null);
+                log.info("Shed ticket {} (priority {}) from the {} queue", shed.id, shed.priority, request.origin());
+            }
+        }
+
+        // On the request thread, so a request served right away gets its decision in the response
+        dispatch(queue, claimed);
+        synchronized (queue) {
+            return toResponse(ticket, queue);
+        }
+    }
+
+    public TicketResponse getTicket(String ticketId) {
+        Ticket ticket = find(ticketId);
+        CityQueue queue = queues.get(key(ticket.request.origin()));
+        if (queue == null) {
+            return toResponse(ticket, null);
+        }
+        synchronized (queue) {
+            return toResponse(ticket, queue);
+        }
+    }
+
+    /**
+     * Completes once the ticket leaves the queue (assigned, shed or expired).
+     */
+    public CompletableFuture<TicketResponse> awaitTicket(String ticketId) {
+        Ticket ticket = find(ticketId);
+        return ticket.done.thenApply(ignored -> toResponse(ticket, null));
+    }
+
+    /**
+     * Called when drones became IDLE in the given cities; hands them to the waiting tickets in the background.
+     */
+    public void onDronesAvailable(Collection<String> cities) {
+        for (String city : cities) {
+            CityQueue queue = queues.get(key(city));
+            if (queue == null) continue;
+            drainExecutor.execute(() -> {
+                List<Assignment> claimed;
+                synchronized (queue) {
+                    claimed = claimLocked(city, queue);
+                }
+                dispatch(queue, claimed);
+            });
+        }
+    }
+
+    // Takes the tickets that idle drones can serve out of the queue; the drones stay claimed until dispatched
+    private List<Assignment> claimLocked(String city, CityQueue queue) {
+        if (queue.waiting.isEmpty()) {
+            return List.of();
+        }
+
+        // Read straight from the primary: a lagging replica could offer a drone that has already left
+        List<DroneResponse> idle = new ArrayList<>(droneRepository.searchFleet(
+                DroneState.IDLE, city, AssignmentEngine.MIN_BATTERY, null, Pageable.unpaged()).getContent());
+        // Still IDLE until a dispatch that is running right now commits
+        idle.removeIf(drone -> queue.claimedDrones.contains(drone.id()));
+
+        List<Assignment> claimed = new ArrayList<>();
+        Iterator<Ticket> waiting = queue.waiting.iterator();
+        while (waiting.hasNext() && !idle.isEmpty()) {
+            Ticket ticket = waiting.next();
+            DroneResponse drone = pickDrone(idle, ticket.request.payloadKg());
+            if (drone == null) continue; // Nothing here can carry it; lighter requests behind it may still fly
+
+            waiting.remove();
+            idle.remove(drone);
+            queue.claimedDrones.add(drone.id());
+            claimed.add(new Assignment(ticket, drone.id()));
+        }
+        return claimed;
+    }
+
+    private void dispatch(CityQueue queue, List<Assignment> claimed) {
+        for (int i = 0; i < claimed.size(); i++) {
+            Assignment assignment = claimed.get(i);
+            Ticket ticket = assignment.ticket();
+            try {
+                DispatchResponse response = dispatchService.dispatchDrone(new DispatchRequest(
+                        assignment.droneId(), ticket.request.origin(), ticket.request.destination()));
+                ticket.finish(TicketStatus.COMPLETED, response);
+                release(queue, List.of(assignment), false);
+            } catch (RuntimeException ex) {
+                // e.g. the weather service is down: keep this and the remaining tickets for the next signal
+                log.warn("Dispatch for ticket {} failed, keeping it queued: {}", ticket.id, ex.getMessage());
+                release(queue, claimed.subList(i, claimed.size()), true);
+                return;
+            }
+        }
+    }
+
+    private static void release(CityQueue queue, List<Assignment> assignments, boolean requeue) {
+        synchronized (queue) {
+            for (Assignment assignment : assignments) {
+                queue.claimedDrones.remove(assignment.droneId());
+                if (requeue) {
+                    queue.waiting.add(assignment.ticket());
+                }
+            }
+        }
+    }
+
+    // Smallest drone that can carry the payload, fullest battery among those
+    private static DroneResponse pickDrone(List<DroneResponse> idle, double payloadKg) {
+        DroneResponse best = null;
+        double bestCapacity = Double.POSITIVE_INFINITY;
+        for (DroneResponse drone : idle) {
+            double capacity = DroneModel.valueOf(drone.model()).getMaxPayloadKg();
+            if (capacity < payloadKg) continue;
+            if (capacity < bestCapacity || (capacity == bestCapacity && drone.batteryCapacity() > best.batteryCapacity())) {
+                best = drone;
+                bestCapacity = capacity;
+            }
+        }
+        return best;
+    }
+
+    @Scheduled(fixedDelay = 60000) // Run every minute
+    public void evictExpired() {
+        long ttlNanos = properties.getTicketTtl().toNanos();
+        long now = System.nanoTime();
+
+        queues.forEach((city, queue) -> {
+            synchronized (queue) {
+                queue.waiting.removeIf(ticket -> {
+                    if (now - ticket.createdAtNanos <= ttlNanos) return false;
+                    ticket.finish(TicketStatus.EXPIRED, null);
+                    return true;
+                });
+            }
+        });
+        tickets.values().removeIf(ticket -> ticket.status != TicketStatus.QUEUED && now - ticket.resolvedAtNanos > ttlNanos);
+    }
+
+    private Ticket find(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new TicketNotFoundException("Dispatch ticket " + ticketId + " not found");
+        }
+        return ticket;
+    }
+
+    private TicketResponse toResponse(Ticket ticket, CityQueue queue) {
+        TicketStatus status = ticket.status;
+        Integer position = status == TicketStatus.QUEUED && queue != null
+                ? queue.waiting.headSet(ticket).size()
+                : null;
+        return new TicketResponse(ticket.id, status, ticket.request.origin(), position, ticket.response);
+    }
+
+    private static String key(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class CityQueue {
+        private final TreeSet<Ticket> waiting = new TreeSet<>(SERVE_ORDER);
+        private final Set<String> claimedDrones = new HashSet<>();
+    }
+
+    private record Assignment(Ticket ticket, String droneId) {}
+
+    private static final class Ticket {
+        private final String id;
+        private final QueuedDispatchRequest request;
+        private final int priority;
+        private final long sequence;
+        private final long createdAtNanos;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile TicketStatus status = TicketStatus.QUEUED;
+        private volatile DispatchResponse response;
+        private volatile long resolvedAtNanos;
+
+        private Ticket(String id, QueuedDispatchRequest request, long sequence, long createdAtNanos) {
+            this.id = id;
+            this.request = request;
+            this.priority = request.priority();
+            this.sequence = sequence;
+            this.createdAtNanos = createdAtNanos;
+        }
+
+        private void finish(TicketStatus status, DispatchResponse response) {
+            this.response = response;
+            this.resolvedAtNanos = System.nanoTime();
+            this.status = status;
+            done.complete(null);
+        }
+    }
+}
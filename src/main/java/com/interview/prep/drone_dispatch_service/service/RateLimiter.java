@@ -0,0 +1,156 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.RateLimitProperties;
+import com.interview.prep.drone_dispatch_service.config.RateLimitProperties.Policy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets. Each bucket is a single {@link AtomicLong} holding the time at which it will be
+ * full again (GCRA form of a token bucket), so taking a token is one CAS and never blocks.
+ * <p>
+ * Only API keys configured in {@code policies} get a bucket of their own ({@link #clientKey}); they are created
+ * up front and never evicted or shared. Every other caller is limited per remote address, so sending a new key
+ * on each request buys nothing. The address map is bounded: full buckets idle for {@code idleEviction} are
+ * dropped, and once the map is at {@code maxTrackedKeys} new addresses share a single overflow bucket instead
+ * of growing it further.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long MIN_SWEEP_INTERVAL_NANOS = NANOS_PER_SECOND; // Between sweeps triggered by a full map
+
+    private final RateLimitProperties properties;
+    private final Map<String, Bucket> keyBuckets = new HashMap<>();
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Bucket overflow;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong lastSweep = new AtomicLong(Long.MIN_VALUE / 2);
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        this.overflow = new Bucket(properties.getDefaultPolicy());
+        properties.getPolicies().forEach((key, policy) -> keyBuckets.put(key, new Bucket(policy)));
+    }
+
+    /**
+     * The bucket key for a caller: its API key if that key is configured, otherwise its remote address.
+     */
+    public String clientKey(String apiKey, String remoteAddress) {
+        return apiKey != null && keyBuckets.containsKey(apiKey) ? apiKey : "ip:" + remoteAddress;
+    }
+
+    /**
+     * Takes a token for the client. Returns 0 if granted, otherwise the nanoseconds until one is available.
+     */
+    public long tryAcquire(String clientKey) {
+        return tryAcquire(clientKey, System.nanoTime());
+    }
+
+    long tryAcquire(String clientKey, long now) {
+        return bucketFor(clientKey, now).tryConsume(now);
+    }
+
+    /**
+     * Takes up to {@code tokens} tokens for the client and returns how many it got.
+     */
+    public int tryAcquire(String clientKey, int tokens) {
+        return tryAcquire(clientKey, tokens, System.nanoTime());
+    }
+
+    int tryAcquire(String clientKey, int tokens, long now) {
+        Bucket bucket = bucketFor(clientKey, now);
+        int granted = 0;
+        while (granted < tokens && bucket.tryConsume(now) == 0) {
+            granted++;
+        }
+        return granted;
+    }
+
+    private Bucket bucketFor(String clientKey, long now) {
+        Bucket bucket = keyBuckets.get(clientKey);
+        if (bucket == null) {
+            bucket = buckets.get(clientKey);
+        }
+        if (bucket != null) {
+            return bucket;
+        }
+
+        if (buckets.size() >= properties.getMaxTrackedKeys()) {
+            // A full map is swept at most once per interval, not once per newcomer
+            long last = lastSweep.get();
+            if (now - last >= MIN_SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+                evictIdle(now);
+            }
+            if (buckets.size() >= properties.getMaxTrackedKeys()) {
+                return overflow;
+            }
+        }
+        Policy policy = properties.getDefaultPolicy();
+        return buckets.computeIfAbsent(clientKey, key -> new Bucket(policy));
+    }
+
+    @Scheduled(fixedDelay = 60000) // Run every minute
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    void evictIdle(long now) {
+        // One sweep at a time; concurrent callers just fall back to the overflow bucket meanwhile
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long idleBefore = now - properties.getIdleEviction().toNanos();
+            int before = buckets.size();
+            buckets.values().removeIf(bucket -> bucket.fullSince() < idleBefore);
+            if (before != buckets.size()) {
+                log.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    int trackedKeys() {
+        return buckets.size();
+    }
+
+    private static final class Bucket {
+        private final long intervalNanos; // Time to refill one token
+        private final long burstNanos;    // Time to refill the whole bucket
+        private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE / 2);
+
+        private Bucket(Policy policy) {
+            this.intervalNanos = (long) (NANOS_PER_SECOND / policy.getRefillPerSecond());
+            this.burstNanos = intervalNanos * policy.getCapacity();
+        }
+
+        private long tryConsume(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long wait = next - now - burstNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        private long fullSince() {
+            return fullAt.get();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.DispatchReason;
+import com.interview.prep.drone_dispatch_service.entity.DispatchRecord;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+import com.interview.prep.drone_dispatch_service.repository.DispatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts dispatch records written before reason codes existed: the free-text reason is parsed back into a
+ * code and its parameters and then cleared. Text that matches no known message is kept as {@code LEGACY}.
+ * Runs in batches after startup; history renders unconverted rows from their text in the meantime.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReasonCodeMigration {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_SUBJECT_LENGTH = 64; // DispatchRecord.reasonSubject column
+
+    private static final Pattern APPROVED_WITH_STOPS =
+            Pattern.compile("Flight approved with (\\d+) charging stops\\. Conditions optimal\\.");
+    private static final Pattern DRONE_NOT_AT_ORIGIN = Pattern.compile("Drone is at (.+), not .+");
+    private static final Pattern DRONE_NOT_IDLE = Pattern.compile("Drone \\S+ is currently (\\w+)");
+    // Older rows lack the charging-route clause; hubs did not exist yet, so none was available either
+    private static final Pattern OUT_OF_RANGE = Pattern.compile(
+            "Destination too far \\(([\\d.,]+) km\\)\\. Max range is ([\\d.,]+)km.*");
+    private static final Pattern UNSAFE_CHARGING_STOP = Pattern.compile("Unsafe conditions at charging stop (.+)\\.");
+
+    private final DispatchRepository dispatchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Same pattern as the fleet seeding: after the app reports ready, on a background thread
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        long start = System.nanoTime();
+        int converted = 0;
+        int batch;
+        // Converted rows drop out of the query, so the first page is always the next batch
+        do {
+            batch = transactionTemplate.execute(tx -> {
+                Slice<DispatchRecord> pending = dispatchRepository.findByReasonCodeIsNull(PageRequest.of(0, BATCH_SIZE));
+                List<DispatchRecord> records = pending.getContent();
+                records.forEach(ReasonCodeMigration::convert);
+                dispatchRepository.saveAll(records);
+                return records.size();
+            });
+            converted += batch;
+        } while (batch == BATCH_SIZE);
+
+        if (converted > 0) {
+            log.info("Converted {} dispatch records to reason codes in {} ms",
+                    converted, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static void convert(DispatchRecord record) {
+        DispatchReason reason = parse(record.getReason());
+        record.setReasonCode(reason.code());
+        if (reason.code() != ReasonCode.LEGACY) {
+            record.setReasonSubject(reason.subject());
+            record.setReasonValue1(reason.value1());
+            record.setReasonValue2(reason.value2());
+            record.setReason(null);
+        }
+    }
+
+    static DispatchReason parse(String text) {
+        if (text == null) return DispatchReason.of(ReasonCode.LEGACY);
+
+        switch (text) {
+            case "Flight approved. Conditions optimal." -> { return DispatchReason.of(ReasonCode.APPROVED); }
+            case "Unsafe takeoff conditions in Origin Data." -> { return DispatchReason.of(ReasonCode.UNSAFE_ORIGIN); }
+            case "Unsafe takeoff conditions in Destination Data." -> {
+                return DispatchReason.of(ReasonCode.UNSAFE_DESTINATION);
+            }
+            default -> { }
+        }
+
+        Matcher m;
+        if ((m = APPROVED_WITH_STOPS.matcher(text)).matches()) {
+            return DispatchReason.of(ReasonCode.APPROVED_WITH_STOPS, Integer.parseInt(m.group(1)));
+        }
+        if ((m = OUT_OF_RANGE.matcher(text)).matches()) {
+            return DispatchReason.of(ReasonCode.OUT_OF_RANGE, number(m.group(1)), number(m.group(2)));
+        }
+        if ((m = DRONE_NOT_IDLE.matcher(text)).matches()) {
+            return DispatchReason.of(ReasonCode.DRONE_NOT_IDLE, m.group(1));
+        }
+        if ((m = DRONE_NOT_AT_ORIGIN.matcher(text)).matches() && m.group(1).length() <= MAX_SUBJECT_LENGTH) {
+            return DispatchReason.of(ReasonCode.DRONE_NOT_AT_ORIGIN, m.group(1));
+        }
+        if ((m = UNSAFE_CHARGING_STOP.matcher(text)).matches() && m.group(1).length() <= MAX_SUBJECT_LENGTH) {
+            return DispatchReason.of(ReasonCode.UNSAFE_CHARGING_STOP, m.group(1));
+        }
+        return DispatchReason.of(ReasonCode.LEGACY, text);
+    }
+
+    // The messages were formatted with the default locale, which may have used a decimal comma
+    private static double number(String formatted) {
+        return Double.parseDouble(formatted.replace(',', '.'));
+    }
+}
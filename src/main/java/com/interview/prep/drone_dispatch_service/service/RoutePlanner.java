@@ -0,0 +1,171 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
+import com.interview.prep.drone_dispatch_service.config.RoutePlanningProperties;
+import com.interview.prep.drone_dispatch_service.config.RoutePlanningProperties.ChargingHub;
+import com.interview.prep.drone_dispatch_service.dto.RouteLeg;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plans multi-leg routes through charging hubs for destinations beyond a drone's range.
+ * <p>
+ * Shortest paths between every pair of hubs are computed once at startup (Dijkstra from each hub over
+ * edges no longer than the max range). Planning a route is then a lookup: connect the origin and destination
+ * to the hubs within range and pick the cheapest combination. Results are cached per city pair.
+ */
+@Component
+@Slf4j
+public class RoutePlanner {
+
+    private static final int NO_HUB = -1;
+
+    private final List<ChargingHub> hubs;
+    private final double maxRangeKm;
+    private final int routeCacheSize;
+
+    private final double[][] hubDistance; // Shortest path length between hubs, or +Inf if unreachable
+    private final int[][] nextHop;        // First hub after i on the shortest path from i to j
+    private final Map<String, Optional<List<RouteLeg>>> routeCache = new ConcurrentHashMap<>();
+
+    public RoutePlanner(RoutePlanningProperties routingProperties, DroneConfigProperties droneRules) {
+        this.hubs = List.copyOf(routingProperties.getHubs());
+        this.maxRangeKm = droneRules.getMaxRangeKm();
+        this.routeCacheSize = routingProperties.getRouteCacheSize();
+
+        int n = hubs.size();
+        this.hubDistance = new double[n][];
+        this.nextHop = new int[n][];
+        for (int source = 0; source < n; source++) {
+            shortestPathsFrom(source);
+        }
+        log.info("Route planner ready: {} charging hubs, max leg {} km", n, maxRangeKm);
+    }
+
+    /**
+     * Returns the legs of the shortest route from origin to destination in which no leg exceeds the max range,
+     * or empty if the destination cannot be reached through the charging hubs.
+     */
+    public Optional<List<RouteLeg>> plan(String origin, double originLat, double originLon,
+                                         String destination, double destLat, double destLon) {
+        String key = origin.toLowerCase(Locale.ROOT) + "|" + destination.toLowerCase(Locale.ROOT);
+        Optional<List<RouteLeg>> cached = routeCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Optional<List<RouteLeg>> route = computeRoute(origin, originLat, originLon, destination, destLat, destLon);
+        if (routeCache.size() >= routeCacheSize) {
+            routeCache.clear();
+        }
+        routeCache.put(key, route);
+        return route;
+    }
+
+    private Optional<List<RouteLeg>> computeRoute(String origin, double originLat, double originLon,
+                                                  String destination, double destLat, double destLon) {
+        double direct = GeoUtils.distanceKm(originLat, originLon, destLat, destLon);
+        if (direct <= maxRangeKm) {
+            return Optional.of(List.of(new RouteLeg(origin, destination, direct, originLat, originLon, destLat, destLon)));
+        }
+
+        double[] fromOrigin = distancesToHubs(originLat, originLon);
+        double[] toDestination = distancesToHubs(destLat, destLon);
+
+        double best = Double.POSITIVE_INFINITY;
+        int bestEntry = NO_HUB;
+        int bestExit = NO_HUB;
+        for (int entry = 0; entry < hubs.size(); entry++) {
+            if (fromOrigin[entry] > maxRangeKm) continue;
+            for (int exit = 0; exit < hubs.size(); exit++) {
+                if (toDestination[exit] > maxRangeKm) continue;
+                double total = fromOrigin[entry] + hubDistance[entry][exit] + toDestination[exit];
+                if (total < best) {
+                    best = total;
+                    bestEntry = entry;
+                    bestExit = exit;
+                }
+            }
+        }
+
+        if (bestEntry == NO_HUB) {
+            return Optional.empty();
+        }
+
+        List<Stop> stops = new ArrayList<>();
+        stops.add(new Stop(origin, originLat, originLon));
+        for (int hub = bestEntry; hub != NO_HUB; hub = hub == bestExit ? NO_HUB : nextHop[hub][bestExit]) {
+            ChargingHub chargingHub = hubs.get(hub);
+            addStop(stops, new Stop(chargingHub.getName(), chargingHub.getLatitude(), chargingHub.getLongitude()));
+        }
+        addStop(stops, new Stop(destination, destLat, destLon));
+
+        List<RouteLeg> legs = new ArrayList<>(stops.size() - 1);
+        for (int i = 0; i + 1 < stops.size(); i++) {
+            Stop from = stops.get(i);
+            Stop to = stops.get(i + 1);
+            legs.add(new RouteLeg(from.name(), to.name(), GeoUtils.distanceKm(from.lat(), from.lon(), to.lat(), to.lon()),
+                    from.lat(), from.lon(), to.lat(), to.lon()));
+        }
+        return Optional.of(List.copyOf(legs));
+    }
+
+    // Origin or destination may themselves be hubs; don't list them twice
+    private static void addStop(List<Stop> stops, Stop stop) {
+        if (!stops.get(stops.size() - 1).name().equalsIgnoreCase(stop.name())) {
+            stops.add(stop);
+        }
+    }
+
+    private double[] distancesToHubs(double lat, double lon) {
+        double[] distances = new double[hubs.size()];
+        for (int i = 0; i < hubs.size(); i++) {
+            ChargingHub hub = hubs.get(i);
+            distances[i] = GeoUtils.distanceKm(lat, lon, hub.getLatitude(), hub.getLongitude());
+        }
+        return distances;
+    }
+
+    private void shortestPathsFrom(int source) {
+        int n = hubs.size();
+        double[] dist = new double[n];
+        int[] firstHop = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(firstHop, NO_HUB);
+        dist[source] = 0;
+        firstHop[source] = source;
+
+        PriorityQueue<double[]> queue = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        queue.add(new double[]{0, source});
+        boolean[] settled = new boolean[n];
+
+        while (!queue.isEmpty()) {
+            int current = (int) queue.poll()[1];
+            if (settled[current]) continue;
+            settled[current] = true;
+
+            ChargingHub from = hubs.get(current);
+            for (int next = 0; next < n; next++) {
+                if (settled[next]) continue;
+                ChargingHub to = hubs.get(next);
+                double leg = GeoUtils.distanceKm(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
+                if (leg > maxRangeKm) continue;
+
+                double candidate = dist[current] + leg;
+                if (candidate < dist[next]) {
+                    dist[next] = candidate;
+                    firstHop[next] = current == source ? next : firstHop[current];
+                    queue.add(new double[]{candidate, next});
+                }
+            }
+        }
+
+        hubDistance[source] = dist;
+        nextHop[source] = firstHop;
+    }
+
+    private record Stop(String name, double lat, double lon) {}
+}
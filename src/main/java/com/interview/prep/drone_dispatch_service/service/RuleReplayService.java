@@ -0,0 +1,283 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
+import com.interview.prep.drone_dispatch_service.dto.ConfusionMatrix;
+import com.interview.prep.drone_dispatch_service.dto.ReplayReport;
+import com.interview.prep.drone_dispatch_service.dto.ReplayRequest;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+import com.interview.prep.drone_dispatch_service.entity.Status;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What-if replay of stored dispatch decisions against candidate {@code drone.rules}: every decision is re-made
+ * from the weather and distance it was based on, and compared with the historical outcome per origin city and
+ * per drone.
+ * <p>
+ * The id range of the history is split with fork/join; each leaf reads its slice through a read-only
+ * transaction (so on a replica when one is configured) with a forward cursor and tallies it into its own
+ * counters, which are merged on the way back up. Memory is bounded by the number of cities and drones, not
+ * records. Every running leaf holds a pooled connection, so replays run one at a time on
+ * {@code drone.replay.parallelism} threads (2 by default), leaving the connection pool to live dispatches.
+ * <p>
+ * Charging-hub routes are not re-planned: a flight beyond the candidate range counts as rejected unless it was
+ * flown via hubs before, and a stop that was unsafe stays unsafe unless the flight no longer needs stops.
+ * Decisions that never reached the rules (drone unavailable, no capable drone) or have no stored weather are
+ * skipped.
+ */
+@Service
+@Slf4j
+public class RuleReplayService {
+
+    static final long IDS_PER_TASK = 50_000;
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_RANGE = """
+            SELECT r.drone_id, r.origin, r.status, r.reason_code, r.distance_km, r.reason_value1,
+                   o.temperature, o.wind_speed, o.weather_code, d.temperature, d.wind_speed, d.weather_code
+            FROM dispatch_record r
+            LEFT JOIN weather_snapshot o ON o.id = r.origin_weather_id
+            LEFT JOIN weather_snapshot d ON d.id = r.dest_weather_id
+            WHERE r.id >= ? AND r.id < ? AND r.timestamp >= ? AND r.timestamp < ?""";
+
+    // Bounds for an open replay window; well outside any decision time
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final DroneConfigProperties currentRules;
+    private final ForkJoinPool pool;
+
+    public RuleReplayService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             DroneConfigProperties currentRules,
+                             @Value("${drone.replay.parallelism:2}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.currentRules = currentRules;
+        // Capped at the parallelism: a join that blocks waits instead of starting compensating threads, each of
+        // which would take another connection
+        int threads = Math.max(1, parallelism);
+        this.pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false,
+                0, threads, 1, p -> true, 60, TimeUnit.SECONDS);
+    }
+
+    // One replay at a time, so concurrent requests cannot add up to more connections than the parallelism
+    public synchronized ReplayReport replay(ReplayRequest request) {
+        long start = System.nanoTime();
+        DroneConfigProperties candidate = candidate(request);
+        LocalDateTime from = request.from() == null ? BEGINNING : request.from();
+        LocalDateTime to = request.to() == null ? END : request.to();
+
+        long[] ids = readOnly.execute(tx -> jdbcTemplate.queryForObject(
+                "SELECT MIN(id), MAX(id) FROM dispatch_record",
+                (rs, n) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)}));
+        Tally tally = ids == null
+                ? new Tally()
+                : pool.invoke(new RangeTask(ids[0], ids[1] + 1, candidate, from, to));
+
+        ReplayReport report = tally.report((System.nanoTime() - start) / 1_000_000);
+        log.info("Replayed {} dispatch decisions ({} skipped) in {} ms: {} would flip",
+                report.replayed(), report.skipped(), report.elapsedMs(), report.total().flipped());
+        return report;
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private DroneConfigProperties candidate(ReplayRequest request) {
+        DroneConfigProperties rules = new DroneConfigProperties();
+        rules.setMaxRangeKm(request.maxRangeKm() != null ? request.maxRangeKm() : currentRules.getMaxRangeKm());
+        rules.setMaxWindSpeed(request.maxWindSpeed() != null ? request.maxWindSpeed() : currentRules.getMaxWindSpeed());
+        rules.setMinTemperature(
+                request.minTemperature() != null ? request.minTemperature() : currentRules.getMinTemperature());
+        rules.setStormCodeThreshold(request.stormCodeThreshold() != null
+                ? request.stormCodeThreshold() : currentRules.getStormCodeThreshold());
+        return rules;
+    }
+
+    /**
+     * The decision the candidate rules would make for this record, or null if it cannot be replayed.
+     */
+    static Status replay(DroneConfigProperties rules, Row row) {
+        if (row.actual == null || !row.hasWeather() || !decidedByRules(row.reasonCode)) {
+            return null;
+        }
+
+        // Older records only carry the distance when it was the reason for rejection
+        Double distance = row.distanceKm != null ? row.distanceKm
+                : row.reasonCode == ReasonCode.OUT_OF_RANGE ? row.reasonValue1 : null;
+        boolean direct = distance != null && distance <= rules.getMaxRangeKm();
+        boolean routedBefore = row.reasonCode == ReasonCode.APPROVED_WITH_STOPS
+                || row.reasonCode == ReasonCode.UNSAFE_CHARGING_STOP;
+
+        if (distance != null && !direct && !routedBefore) return Status.REJECTED;
+        if (row.reasonCode == ReasonCode.NO_FLY_ZONE) return Status.REJECTED; // Zones are not part of the rules
+        if (DispatchService.isUnsafe(rules, row.originWind, row.originTemp, row.originCode)) return Status.REJECTED;
+        if (DispatchService.isUnsafe(rules, row.destWind, row.destTemp, row.destCode)) return Status.REJECTED;
+        if (row.reasonCode == ReasonCode.UNSAFE_CHARGING_STOP && !direct) return Status.REJECTED;
+        return Status.APPROVED;
+    }
+
+    private static boolean decidedByRules(ReasonCode code) {
+        return code != ReasonCode.DRONE_NOT_AT_ORIGIN
+                && code != ReasonCode.DRONE_NOT_IDLE
+                && code != ReasonCode.NO_CAPABLE_DRONE
+                && code != ReasonCode.RATE_LIMITED
+                && code != ReasonCode.DISPATCH_FAILED;
+    }
+
+    private final class RangeTask extends RecursiveTask<Tally> {
+        private final long fromId;  // Inclusive
+        private final long toId;    // Exclusive
+        private final DroneConfigProperties rules;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        RangeTask(long fromId, long toId, DroneConfigProperties rules, LocalDateTime from, LocalDateTime to) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.rules = rules;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (toId - fromId <= IDS_PER_TASK) {
+                return scan();
+            }
+            long mid = fromId + (toId - fromId) / 2;
+            RangeTask left = new RangeTask(fromId, mid, rules, from, to);
+            left.fork();
+            Tally right = new RangeTask(mid, toId, rules, from, to).compute();
+            return left.join().merge(right);
+        }
+
+        private Tally scan() {
+            Tally tally = new Tally();
+            Row row = new Row();
+            readOnly.executeWithoutResult(tx -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SELECT_RANGE);
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setLong(1, fromId);
+                ps.setLong(2, toId);
+                ps.setTimestamp(3, Timestamp.valueOf(from));
+                ps.setTimestamp(4, Timestamp.valueOf(to));
+                return ps;
+            }, (ResultSet rs) -> {
+                row.read(rs);
+                Status replayed = replay(rules, row);
+                if (replayed == null) {
+                    tally.skipped++;
+                } else {
+                    tally.add(row.origin, row.droneId, row.actual, replayed);
+                }
+            }));
+            return tally;
+        }
+    }
+
+    /**
+     * One stored decision, reused for every row of a scan.
+     */
+    static final class Row {
+        String droneId;
+        String origin;
+        Status actual;
+        ReasonCode reasonCode;
+        Double distanceKm;
+        Double reasonValue1;
+        Double originTemp;
+        Double originWind;
+        Integer originCode;
+        Double destTemp;
+        Double destWind;
+        Integer destCode;
+
+        boolean hasWeather() {
+            return originTemp != null && originWind != null && originCode != null
+                    && destTemp != null && destWind != null && destCode != null;
+        }
+
+        private void read(ResultSet rs) throws SQLException {
+            droneId = rs.getString(1);
+            origin = rs.getString(2);
+            String status = rs.getString(3);
+            actual = status == null ? null : Status.valueOf(status);
+            String code = rs.getString(4);
+            reasonCode = code == null ? null : ReasonCode.valueOf(code);
+            distanceKm = rs.getObject(5, Double.class);
+            reasonValue1 = rs.getObject(6, Double.class);
+            originTemp = rs.getObject(7, Double.class);
+            originWind = rs.getObject(8, Double.class);
+            originCode = rs.getObject(9, Integer.class);
+            destTemp = rs.getObject(10, Double.class);
+            destWind = rs.getObject(11, Double.class);
+            destCode = rs.getObject(12, Integer.class);
+        }
+    }
+
+    // Cells in ConfusionMatrix order: approved->approved, approved->rejected, rejected->approved, rejected->rejected
+    private static final class Tally {
+        private final long[] total = new long[4];
+        private final Map<String, long[]> byCity = new HashMap<>();
+        private final Map<String, long[]> byDrone = new HashMap<>();
+        private long skipped;
+
+        void add(String city, String droneId, Status actual, Status replayed) {
+            int cell = (actual == Status.REJECTED ? 2 : 0) + (replayed == Status.REJECTED ? 1 : 0);
+            total[cell]++;
+            byCity.computeIfAbsent(city, k -> new long[4])[cell]++;
+            byDrone.computeIfAbsent(droneId, k -> new long[4])[cell]++;
+        }
+
+        Tally merge(Tally other) {
+            add(total, other.total);
+            other.byCity.forEach((city, cells) -> add(byCity.computeIfAbsent(city, k -> new long[4]), cells));
+            other.byDrone.forEach((drone, cells) -> add(byDrone.computeIfAbsent(drone, k -> new long[4]), cells));
+            skipped += other.skipped;
+            return this;
+        }
+
+        ReplayReport report(long elapsedMs) {
+            Map<String, ConfusionMatrix> cities = new TreeMap<>();
+            byCity.forEach((city, cells) -> cities.put(city, matrix(cells)));
+            Map<String, ConfusionMatrix> drones = new TreeMap<>();
+            byDrone.forEach((drone, cells) -> {
+                if (cells[1] + cells[2] > 0) drones.put(drone, matrix(cells));
+            });
+            long replayed = total[0] + total[1] + total[2] + total[3];
+            return new ReplayReport(replayed, skipped, matrix(total), cities, drones, elapsedMs);
+        }
+
+        private static void add(long[] into, long[] cells) {
+            for (int i = 0; i < into.length; i++) into[i] += cells[i];
+        }
+
+        private static ConfusionMatrix matrix(long[] cells) {
+            return new ConfusionMatrix(cells[0], cells[1], cells[2], cells[3]);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one {@link DroneScheduler} tick, with the drone counts it logs.
+ */
+@Name(SchedulerTickEvent.NAME)
+@Label("Scheduler Tick")
+@Category({"Drone Dispatch"})
+@Description("One pass of the drone simulation over the fleet")
+@StackTrace(false)
+class SchedulerTickEvent extends Event {
+
+    static final String NAME = "drone.scheduler.Tick";
+
+    @Label("Drones")
+    int drones;
+
+    @Label("Landed")
+    int landed;
+
+    @Label("Grounded")
+    int grounded;
+
+    @Label("Charging")
+    int charging;
+
+    @Label("Returned to Service")
+    int released;
+}
@@ -0,0 +1,64 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache in which each key is loaded once: concurrent callers of a key that is still loading wait for
+ * the first caller's result instead of loading it again. A failed load is not cached, so the next caller retries;
+ * the callers waiting on it get the same exception. When full the cache is cleared rather than evicting entries
+ * one by one, which is enough for keys that go stale on their own (observation times, forecast hours).
+ */
+final class SingleFlightCache<V> {
+
+    private final int maxSize;
+    private final Map<String, CompletableFuture<V>> entries = new ConcurrentHashMap<>();
+
+    SingleFlightCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    V get(String key, Supplier<V> loader) {
+        CompletableFuture<V> cached = entries.get(key);
+        if (cached != null) {
+            return await(cached);
+        }
+
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = entries.putIfAbsent(key, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            entries.remove(key, mine);
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> value) {
+        try {
+            return value.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
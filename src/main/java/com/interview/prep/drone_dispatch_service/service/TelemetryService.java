@@ -0,0 +1,300 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.TelemetryProperties;
+import com.interview.prep.drone_dispatch_service.dto.TelemetryReport;
+import com.interview.prep.drone_dispatch_service.dto.TelemetryResponse;
+import com.interview.prep.drone_dispatch_service.entity.Drone;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.exception.TelemetryUnauthorizedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ingests drone telemetry at report rate and writes it to {@code drone} at flush rate. Each drone has one slot
+ * holding its newest report; reports replace it with a compare-and-set (an older report loses to a newer one),
+ * so ingestion never locks and memory is one report per drone. Every {@code drone.telemetry.flush-interval-ms}
+ * the slots that changed are written in JDBC batches: one row update per drone per interval, however many
+ * reports arrived.
+ * <p>
+ * Battery is always applied. A reported state is applied only as a transition a drone can make on its own
+ * ({@link #isAllowedTransition}), at the location the service last put it, and only if the report was received
+ * after the service last changed the state itself ({@code Drone.stateChangedAt}); so telemetry can land, ground
+ * and release drones, but never claim or move one. Applied transitions go to the {@link DispatchEventLog}.
+ * <p>
+ * Disabled unless {@code drone.telemetry.enabled}; requests must carry {@code drone.telemetry.token}.
+ */
+@Service
+@Slf4j
+public class TelemetryService {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final String UPDATE_BATTERY = "UPDATE drone SET battery_capacity = ? WHERE id = ?";
+
+    private static final String SELECT_STATE = "SELECT id, state, current_location FROM drone WHERE id IN (%s)";
+
+    // Guarded again in SQL, in case a dispatch changed the drone between the select and this update
+    private static final String UPDATE_STATE = """
+            UPDATE drone SET state = ?, state_changed_at = ?
+            WHERE id = ? AND state = ? AND (state_changed_at IS NULL OR state_changed_at < ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PendingDispatchQueue pendingDispatchQueue;
+    private final DispatchEventLog eventLog;
+    private final TelemetryProperties properties;
+    private final byte[] token;
+
+    private final Map<String, AtomicReference<Sample>> slots = new ConcurrentHashMap<>();
+
+    public TelemetryService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            PendingDispatchQueue pendingDispatchQueue, DispatchEventLog eventLog,
+                            TelemetryProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.pendingDispatchQueue = pendingDispatchQueue;
+        this.eventLog = eventLog;
+        this.properties = properties;
+        if (properties.isEnabled() && (properties.getToken() == null || properties.getToken().isBlank())) {
+            throw new IllegalStateException("drone.telemetry.token must be set when telemetry is enabled");
+        }
+        this.token = properties.getToken() == null ? null : properties.getToken().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @throws TelemetryUnauthorizedException if telemetry is disabled or the token doesn't match
+     */
+    public TelemetryResponse ingest(String token, List<TelemetryReport> reports) {
+        if (!properties.isEnabled()) {
+            throw new TelemetryUnauthorizedException("Telemetry ingestion is disabled");
+        }
+        if (token == null || !MessageDigest.isEqual(this.token, token.getBytes(StandardCharsets.UTF_8))) {
+            throw new TelemetryUnauthorizedException("Missing or invalid X-Telemetry-Token");
+        }
+        long receivedAt = System.currentTimeMillis();
+        int accepted = 0;
+        for (TelemetryReport report : reports) {
+            if (offer(report, receivedAt)) accepted++;
+        }
+        return new TelemetryResponse(accepted, reports.size() - accepted);
+    }
+
+    /**
+     * Buffers the report unless it is invalid or the buffer is full of other drones. A report older than the
+     * buffered one is accepted but has no effect; one dated more than {@code drone.telemetry.max-clock-skew-ms}
+     * after it was received counts as sent at that limit.
+     */
+    boolean offer(TelemetryReport report, long receivedAt) {
+        if (!isValid(report)) {
+            return false;
+        }
+        AtomicReference<Sample> slot = slots.get(report.droneId());
+        if (slot == null) {
+            if (slots.size() >= properties.getMaxDrones()) {
+                return false;
+            }
+            slot = slots.computeIfAbsent(report.droneId(), id -> new AtomicReference<>());
+        }
+
+        long latest = receivedAt + properties.getMaxClockSkewMs();
+        long timestamp = report.timestamp() != null ? Math.min(report.timestamp(), latest) : receivedAt;
+        Sample next = new Sample(report, timestamp, receivedAt, true);
+        while (true) {
+            Sample current = slot.get();
+            if (current != null && current.timestamp > timestamp) {
+                return true;
+            }
+            if (slot.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static boolean isValid(TelemetryReport report) {
+        return report != null
+                && report.droneId() != null && !report.droneId().isBlank()
+                && report.droneId().length() <= MAX_TEXT_LENGTH
+                && report.batteryCapacity() != null
+                && report.batteryCapacity() >= 0 && report.batteryCapacity() <= 100
+                && report.location() != null && !report.location().isBlank()
+                && report.location().length() <= MAX_TEXT_LENGTH
+                && report.state() != null;
+    }
+
+    /**
+     * Writes the newest report of every drone that reported since the last flush and returns how many drones
+     * were updated. Drones that don't exist are dropped from the buffer.
+     */
+    @Scheduled(fixedDelayString = "${drone.telemetry.flush-interval-ms:1000}") // Coalesced telemetry write
+    public synchronized int flush() {
+        long start = System.nanoTime();
+        List<String> ids = new ArrayList<>(BATCH_SIZE);
+        List<Sample> samples = new ArrayList<>(BATCH_SIZE);
+        Set<String> availableIn = new HashSet<>();
+        int updated = 0;
+
+        for (Map.Entry<String, AtomicReference<Sample>> entry : slots.entrySet()) {
+            Sample dirty = takeDirty(entry.getValue());
+            if (dirty == null) continue;
+            ids.add(entry.getKey());
+            samples.add(dirty);
+            if (ids.size() == BATCH_SIZE) {
+                updated += write(ids, samples, availableIn);
+            }
+        }
+        updated += write(ids, samples, availableIn);
+
+        // Queued dispatches waiting in these cities may now be served; drained in the background, not on this thread
+        if (!availableIn.isEmpty()) {
+            pendingDispatchQueue.onDronesAvailable(availableIn);
+        }
+        if (updated > 0) {
+            log.debug("Telemetry flush: {} drones updated in {} ms", updated, (System.nanoTime() - start) / 1_000_000);
+        }
+        return updated;
+    }
+
+    // Marks the slot clean and returns the report to write, or null if nothing arrived since the last flush
+    private static Sample takeDirty(AtomicReference<Sample> slot) {
+        while (true) {
+            Sample current = slot.get();
+            if (current == null || !current.dirty) {
+                return null;
+            }
+            if (slot.compareAndSet(current, current.clean())) {
+                return current;
+            }
+        }
+    }
+
+    // Each batch commits on its own; if it fails its reports are marked dirty again for the next flush
+    private int write(List<String> ids, List<Sample> samples, Set<String> availableIn) {
+        if (ids.isEmpty()) return 0;
+
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            rows.add(new Object[]{samples.get(i).report.batteryCapacity(), ids.get(i)});
+        }
+
+        int updated = 0;
+        try {
+            Set<String> landedIn = new HashSet<>();
+            int[] counts = transactionTemplate.execute(tx -> {
+                int[] written = jdbcTemplate.batchUpdate(UPDATE_BATTERY, rows);
+                applyTransitions(ids, samples, landedIn);
+                return written;
+            });
+            for (int i = 0; i < ids.size(); i++) {
+                if (counts != null && counts[i] == 0) {
+                    // Unknown drone; keep its slot from holding buffer space
+                    AtomicReference<Sample> slot = slots.get(ids.get(i));
+                    if (slot != null) slots.remove(ids.get(i), slot);
+                    continue;
+                }
+                updated++;
+            }
+            availableIn.addAll(landedIn);
+        } catch (RuntimeException ex) {
+            log.error("Telemetry flush of {} drones failed, retrying next interval: {}", ids.size(), ex.getMessage());
+            for (int i = 0; i < ids.size(); i++) {
+                AtomicReference<Sample> slot = slots.get(ids.get(i));
+                Sample sample = samples.get(i);
+                if (slot != null) {
+                    Sample current = slot.get();
+                    // Unless a newer report has arrived since, which is written next time anyway
+                    if (current != null && !current.dirty && current.report == sample.report) {
+                        slot.compareAndSet(current, sample);
+                    }
+                }
+            }
+        }
+        ids.clear();
+        samples.clear();
+        return updated;
+    }
+
+    // Applies the reported states that are allowed transitions and records them; adds the cities drones became
+    // IDLE in to availableIn
+    private void applyTransitions(List<String> ids, List<Sample> samples, Set<String> availableIn) {
+        Map<String, Current> current = new HashMap<>();
+        jdbcTemplate.query(SELECT_STATE.formatted(String.join(",", Collections.nCopies(ids.size(), "?"))),
+                rs -> {
+                    current.put(rs.getString("id"), new Current(
+                            DroneState.valueOf(rs.getString("state")), rs.getString("current_location")));
+                },
+                ids.toArray());
+
+        List<Object[]> rows = new ArrayList<>();
+        List<Drone> transitioned = new ArrayList<>();
+        List<DroneState> previous = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Current drone = current.get(ids.get(i));
+            TelemetryReport report = samples.get(i).report;
+            if (drone == null || !isAllowedTransition(drone.state, report.state())
+                    || !drone.location.equalsIgnoreCase(report.location())) {
+                continue;
+            }
+            Timestamp receivedAt = new Timestamp(samples.get(i).receivedAt);
+            rows.add(new Object[]{report.state().name(), receivedAt, ids.get(i), drone.state.name(), receivedAt});
+            transitioned.add(Drone.builder()
+                    .id(ids.get(i))
+                    .state(report.state())
+                    .batteryCapacity(report.batteryCapacity())
+                    .currentLocation(drone.location)
+                    .build());
+            previous.add(drone.state);
+        }
+        if (rows.isEmpty()) return;
+
+        int[] applied = jdbcTemplate.batchUpdate(UPDATE_STATE, rows);
+        for (int i = 0; i < applied.length; i++) {
+            if (applied[i] == 0) continue; // The service changed the drone after the report was received
+            Drone drone = transitioned.get(i);
+            eventLog.recordTransition(drone, previous.get(i));
+            if (drone.getState() == DroneState.IDLE) {
+                availableIn.add(drone.getCurrentLocation());
+            }
+        }
+    }
+
+    /**
+     * Whether telemetry may move a drone from one state to the other: it may land (IN_FLIGHT to IDLE), ground
+     * itself (to MAINTENANCE) and return to service (MAINTENANCE to IDLE). Taking off is a dispatch decision.
+     */
+    static boolean isAllowedTransition(DroneState from, DroneState to) {
+        return switch (to) {
+            case IDLE -> from == DroneState.IN_FLIGHT || from == DroneState.MAINTENANCE;
+            case MAINTENANCE -> from == DroneState.IDLE || from == DroneState.IN_FLIGHT;
+            case IN_FLIGHT -> false;
+        };
+    }
+
+    int bufferedDrones() {
+        return slots.size();
+    }
+
+    private record Current(DroneState state, String location) {}
+
+    private record Sample(TelemetryReport report, long timestamp, long receivedAt, boolean dirty) {
+        Sample clean() {
+            return new Sample(report, timestamp, receivedAt, false);
+        }
+    }
+}
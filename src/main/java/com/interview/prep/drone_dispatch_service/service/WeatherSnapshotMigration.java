@@ -0,0 +1,149 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.entity.WeatherSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves the weather that dispatch records used to copy into their own columns (origin_temp, dest_wind, ...)
+ * into shared weather snapshots and clears the old columns. Each record's values are kept as they were: they are
+ * stored as a reading received at the record's timestamp, shared only with records that hold identical values
+ * (see {@link WeatherSnapshotService#snapshotReceivedAt}). A record whose values cannot be stored that way keeps
+ * its old columns and is logged. Schema updates never drop columns, so they exist only on databases created
+ * before snapshots; once this has run they can be dropped by hand if no record was left behind.
+ * <p>
+ * Schema updates don't widen columns either, so {@code weather_snapshot.city} is widened from its first 64
+ * characters here, before the web server starts, since a dispatch from a longer city name fails to store its
+ * weather until then.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WeatherSnapshotMigration implements SmartInitializingSingleton {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String SELECT_LEGACY = """
+            SELECT id, origin, destination, timestamp, origin_temp, origin_wind, origin_weather_code,
+                   dest_temp, dest_wind, dest_weather_code
+            FROM dispatch_record
+            WHERE (origin_temp IS NOT NULL OR dest_temp IS NOT NULL) AND id > ?
+            ORDER BY id
+            LIMIT %d""".formatted(BATCH_SIZE);
+
+    private static final String CITY_WIDTH = """
+            SELECT character_maximum_length FROM information_schema.columns
+            WHERE lower(table_schema) = lower(current_schema)
+              AND lower(table_name) = 'weather_snapshot' AND lower(column_name) = 'city'""";
+
+    private static final String UPDATE_LEGACY = """
+            UPDATE dispatch_record
+            SET origin_weather_id = ?, dest_weather_id = ?,
+                origin_temp = NULL, origin_wind = NULL, origin_weather_code = NULL,
+                dest_temp = NULL, dest_wind = NULL, dest_weather_code = NULL
+            WHERE id = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WeatherSnapshotService weatherSnapshots;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        widenCity();
+    }
+
+    void widenCity() {
+        List<Integer> width = jdbcTemplate.queryForList(CITY_WIDTH, Integer.class);
+        if (!width.isEmpty() && width.get(0) != null && width.get(0) < 255) {
+            jdbcTemplate.execute("ALTER TABLE weather_snapshot ALTER COLUMN city SET DATA TYPE VARCHAR(255)");
+            log.info("Widened weather_snapshot.city from {} to 255 characters", width.get(0));
+        }
+    }
+
+    // Same pattern as the fleet seeding: after the app reports ready, on a background thread
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!hasLegacyColumns()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        int migrated = 0;
+        int skipped = 0;
+        long lastId = 0;
+        List<LegacyRow> rows;
+        // Paged by id, since skipped records keep their old columns and would otherwise be selected again
+        do {
+            rows = jdbcTemplate.query(SELECT_LEGACY, WeatherSnapshotMigration::mapRow, lastId);
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            for (LegacyRow row : rows) {
+                lastId = row.id();
+                try {
+                    updates.add(new Object[]{
+                            snapshotId(row.origin(), row.timestamp(), row.originTemp(), row.originWind(), row.originCode()),
+                            snapshotId(row.destination(), row.timestamp(), row.destTemp(), row.destWind(), row.destCode()),
+                            row.id()});
+                } catch (DataIntegrityViolationException ex) {
+                    log.warn("Dispatch record {} keeps its weather columns: {}", row.id(), ex.getMessage());
+                    skipped++;
+                }
+            }
+            jdbcTemplate.batchUpdate(UPDATE_LEGACY, updates);
+            migrated += updates.size();
+        } while (rows.size() == BATCH_SIZE);
+
+        if (migrated > 0 || skipped > 0) {
+            log.info("Moved the weather of {} dispatch records into shared snapshots in {} ms ({} left unchanged)",
+                    migrated, (System.nanoTime() - start) / 1_000_000, skipped);
+        }
+    }
+
+    private boolean hasLegacyColumns() {
+        try {
+            jdbcTemplate.queryForList("SELECT origin_temp FROM dispatch_record WHERE 1 = 0");
+            return true;
+        } catch (DataAccessException ex) {
+            return false; // Created after snapshots were introduced
+        }
+    }
+
+    private Long snapshotId(String city, LocalDateTime timestamp, Double temperature, Double wind, Integer code) {
+        if (temperature == null || timestamp == null) {
+            return null;
+        }
+        WeatherSnapshot snapshot = weatherSnapshots.snapshotReceivedAt(city, timestamp, temperature, wind, code);
+        return snapshot.getId();
+    }
+
+    private static LegacyRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new LegacyRow(
+                rs.getLong("id"),
+                rs.getString("origin"),
+                rs.getString("destination"),
+                rs.getObject("timestamp", LocalDateTime.class),
+                rs.getObject("origin_temp", Double.class),
+                rs.getObject("origin_wind", Double.class),
+                rs.getObject("origin_weather_code", Integer.class),
+                rs.getObject("dest_temp", Double.class),
+                rs.getObject("dest_wind", Double.class),
+                rs.getObject("dest_weather_code", Integer.class));
+    }
+
+    private record LegacyRow(long id, String origin, String destination, LocalDateTime timestamp,
+                             Double originTemp, Double originWind, Integer originCode,
+                             Double destTemp, Double destWind, Integer destCode) {}
+}
@@ -0,0 +1,129 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.WeatherApiResponse;
+import com.interview.prep.drone_dispatch_service.dto.WeatherSnapshotResponse;
+import com.interview.prep.drone_dispatch_service.entity.WeatherSnapshot;
+import com.interview.prep.drone_dispatch_service.repository.WeatherSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Stores each weather observation once per (city, observation time) and hands out the shared row, so dispatch
+ * records only reference it. Known observations are cached, and concurrent dispatches that see a new one wait
+ * for the first to store it, so each observation costs one lookup and insert per instance.
+ * <p>
+ * Readings without an observation time are stored under the time they were received. Within one
+ * {@link #OBSERVATION_INTERVAL_MINUTES} interval, readings of a city with identical values share a row; a reading
+ * that differs gets its own, so a snapshot always holds the values the dispatch was decided on.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WeatherSnapshotService {
+
+    // How often current-weather providers refresh; identical readings within one interval share a snapshot
+    static final int OBSERVATION_INTERVAL_MINUTES = 15;
+    private static final int MAX_CACHED_SNAPSHOTS = 10_000;
+
+    private final WeatherSnapshotRepository weatherSnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final SingleFlightCache<WeatherSnapshot> cache = new SingleFlightCache<>(MAX_CACHED_SNAPSHOTS);
+
+    public WeatherSnapshot snapshotOf(String city, WeatherApiResponse response) {
+        if (response == null) {
+            return null;
+        }
+        WeatherApiResponse.CurrentWeather current = response.currentWeather();
+        if (current.time() == null) {
+            return snapshotReceivedAt(city, LocalDateTime.now(), current.temperature(), current.windspeed(),
+                    current.weathercode());
+        }
+        return snapshotOf(city, current.time(), current.temperature(), current.windspeed(), current.weathercode());
+    }
+
+    /**
+     * Returns the stored observation for this city and time, creating it with these values if there is none yet.
+     */
+    public WeatherSnapshot snapshotOf(String city, LocalDateTime observedAt,
+                                      Double temperature, Double windSpeed, Integer weatherCode) {
+        String normalizedCity = normalize(city);
+        return cache.get(normalizedCity + "|" + observedAt, () -> findOrInsert(
+                normalizedCity, observedAt, temperature, windSpeed, weatherCode, false));
+    }
+
+    /**
+     * Returns a snapshot holding exactly these values for a reading that has no observation time of its own,
+     * stored under the time it was received.
+     *
+     * @throws DataIntegrityViolationException if a reading with other values is already stored at that time
+     */
+    public WeatherSnapshot snapshotReceivedAt(String city, LocalDateTime receivedAt,
+                                              Double temperature, Double windSpeed, Integer weatherCode) {
+        String normalizedCity = normalize(city);
+        // Timestamps are stored with microsecond precision; the lookup must match what was written
+        LocalDateTime observedAt = receivedAt.truncatedTo(ChronoUnit.MICROS);
+        String key = normalizedCity + "|" + observationBucket(observedAt)
+                + "|" + temperature + "|" + windSpeed + "|" + weatherCode;
+        return cache.get(key, () -> findOrInsert(
+                normalizedCity, observedAt, temperature, windSpeed, weatherCode, true));
+    }
+
+    private WeatherSnapshot findOrInsert(String city, LocalDateTime observedAt, Double temperature,
+                                         Double windSpeed, Integer weatherCode, boolean exactValues) {
+        WeatherSnapshot snapshot = weatherSnapshotRepository.findByCityAndObservedAt(city, observedAt)
+                .orElseGet(() -> insert(WeatherSnapshot.builder()
+                        .city(city)
+                        .observedAt(observedAt)
+                        .temperature(temperature)
+                        .windSpeed(windSpeed)
+                        .weatherCode(weatherCode)
+                        .build()));
+        if (exactValues && !(Objects.equals(snapshot.getTemperature(), temperature)
+                && Objects.equals(snapshot.getWindSpeed(), windSpeed)
+                && Objects.equals(snapshot.getWeatherCode(), weatherCode))) {
+            throw new DataIntegrityViolationException(
+                    "Weather for " + city + " at " + observedAt + " is already stored with other values");
+        }
+        return snapshot;
+    }
+
+    @Transactional(readOnly = true)
+    public List<WeatherSnapshotResponse> history(String city, LocalDateTime from, LocalDateTime to) {
+        return weatherSnapshotRepository.findByCityAndObservedAtBetweenOrderByObservedAtAsc(normalize(city), from, to)
+                .stream()
+                .map(s -> new WeatherSnapshotResponse(s.getObservedAt(), s.getTemperature(), s.getWindSpeed(), s.getWeatherCode()))
+                .toList();
+    }
+
+    static LocalDateTime observationBucket(LocalDateTime time) {
+        LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+        return minute.minusMinutes(minute.getMinute() % OBSERVATION_INTERVAL_MINUTES);
+    }
+
+    private WeatherSnapshot insert(WeatherSnapshot snapshot) {
+        try {
+            return weatherSnapshotRepository.saveAndFlush(snapshot);
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance stored the same observation first; read it from the primary, a replica may lag
+            log.debug("Weather snapshot for {} at {} already stored", snapshot.getCity(), snapshot.getObservedAt());
+            return transactionTemplate.execute(tx -> weatherSnapshotRepository
+                    .findByCityAndObservedAt(snapshot.getCity(), snapshot.getObservedAt())
+                    .orElseThrow(() -> ex));
+        }
+    }
+
+    private static String normalize(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,296 @@
+package com.interview.prep.drone_dispatch_service.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.interview.prep.drone_dispatch_service.DroneDispatchServiceApplication;
+import com.interview.prep.drone_dispatch_service.entity.Drone;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Open-model load test: boots the app on H2 against {@link StubWeatherServer}, fires requests at a target
+ * arrival rate regardless of how fast responses come back, and writes latency percentiles, throughput and
+ * error rates per endpoint to {@code target/load-test/*.json}.
+ * <p>
+ * Run with {@code ./mvnw test -Pload-test}. Settings are system properties, e.g.
+ * {@code -Dloadtest.rate=300 -Dloadtest.duration=60 -Dloadtest.weather.failureRate=0.05}:
+ * <ul>
+ *     <li>{@code loadtest.rate} requests per second (Poisson arrivals), {@code loadtest.duration} and
+ *     {@code loadtest.warmup} in seconds</li>
+ *     <li>{@code loadtest.mix} endpoint weights, default {@code dispatch=70,fleet=20,history=10}</li>
+ *     <li>{@code loadtest.drones} fleet size to seed</li>
+ *     <li>{@code loadtest.weather.latencyMs}, {@code loadtest.weather.jitterMs}, {@code loadtest.weather.failureRate}</li>
+ *     <li>{@code loadtest.rateLimit} keep the API rate limits on, default {@code false}</li>
+ *     <li>{@code loadtest.label} name of the run in the report, defaults to the current git commit</li>
+ * </ul>
+ * Latency is measured from each request's scheduled start, so a stalled server shows up in the percentiles
+ * instead of silently lowering the request rate.
+ */
+@Tag("loadtest")
+@DisplayName("Dispatch API Load Test")
+public class DispatchLoadTest {
+
+    // Origin/destination pairs a few dozen km apart, so dispatches stay within range
+    private static final Map<String, String> ROUTES = Map.of(
+            "Berlin", "Potsdam", "Potsdam", "Berlin",
+            "Warsaw", "Pruszkow", "Pruszkow", "Warsaw",
+            "London", "Croydon", "Croydon", "London",
+            "Istanbul", "Gebze", "Gebze", "Istanbul"
+    );
+    private static final String[] HOME_CITIES = {"Berlin", "Warsaw", "London", "Istanbul"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Test
+    @DisplayName("Drive dispatch, fleet and history at the target rate")
+    void run() throws Exception {
+        double rate = doubleProperty("loadtest.rate", 100);
+        int durationSeconds = (int) doubleProperty("loadtest.duration", 30);
+        int warmupSeconds = (int) doubleProperty("loadtest.warmup", 5);
+        int droneCount = (int) doubleProperty("loadtest.drones", 10_000);
+        Map<String, Integer> mix = parseMix(System.getProperty("loadtest.mix", "dispatch=70,fleet=20,history=10"));
+
+        try (StubWeatherServer weather = new StubWeatherServer(
+                (long) doubleProperty("loadtest.weather.latencyMs", 20),
+                (long) doubleProperty("loadtest.weather.jitterMs", 10),
+                doubleProperty("loadtest.weather.failureRate", 0.01));
+             ConfigurableApplicationContext app = startApp(weather)) {
+
+            String baseUrl = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port") + "/api/v1/dispatch";
+            String[] locations = seedFleet(app.getBean(DroneRepository.class), droneCount);
+
+            Driver driver = new Driver(baseUrl, locations, mix);
+            driver.run(rate, warmupSeconds, null);
+
+            long weatherCallsBefore = weather.requests();
+            Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+            mix.keySet().forEach(endpoint -> recorders.put(endpoint, new LatencyRecorder()));
+            double elapsed = driver.run(rate, durationSeconds, recorders);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("label", System.getProperty("loadtest.label", gitCommit()));
+            report.put("timestamp", LocalDateTime.now().toString());
+            report.put("config", Map.of(
+                    "targetRatePerSecond", rate,
+                    "durationSeconds", durationSeconds,
+                    "warmupSeconds", warmupSeconds,
+                    "drones", droneCount,
+                    "mix", mix,
+                    "weatherLatencyMs", doubleProperty("loadtest.weather.latencyMs", 20),
+                    "weatherJitterMs", doubleProperty("loadtest.weather.jitterMs", 10),
+                    "weatherFailureRate", doubleProperty("loadtest.weather.failureRate", 0.01)));
+            report.put("elapsedSeconds", elapsed);
+            report.put("weatherCalls", weather.requests() - weatherCallsBefore);
+            Map<String, Object> endpoints = new LinkedHashMap<>();
+            recorders.forEach((endpoint, recorder) -> endpoints.put(endpoint, recorder.summary(elapsed)));
+            report.put("endpoints", endpoints);
+
+            Path output = writeReport(report);
+            System.out.println("Load test report written to " + output.toAbsolutePath());
+            System.out.println(objectMapper.writeValueAsString(endpoints));
+            assertTrue(Files.size(output) > 0);
+        }
+    }
+
+    private ConfigurableApplicationContext startApp(StubWeatherServer weather) {
+        // Passed as arguments: builder properties are only defaults and would lose to application-test.yaml
+        return new SpringApplicationBuilder(DroneDispatchServiceApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--management.server.port=0",
+                        "--weather.service.url=" + weather.url(),
+                        "--drone.seed.enabled=false",
+                        "--drone.rate-limit.enabled=" + System.getProperty("loadtest.rateLimit", "false"),
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+
+    private String[] seedFleet(DroneRepository droneRepository, int count) {
+        DroneModel[] models = DroneModel.values();
+        String[] locations = new String[count];
+        List<Drone> fleet = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            locations[i] = HOME_CITIES[i % HOME_CITIES.length];
+            fleet.add(new Drone(droneId(i), models[i % models.length], 100.0, DroneState.IDLE, locations[i]));
+        }
+        droneRepository.saveAll(fleet);
+        return locations;
+    }
+
+    private static String droneId(int index) {
+        return String.format("LT-%05d", index);
+    }
+
+    private Path writeReport(Map<String, Object> report) throws IOException {
+        Path dir = Path.of(System.getProperty("loadtest.output", "target/load-test"));
+        Files.createDirectories(dir);
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path file = dir.resolve("load-test-" + report.get("label") + "-" + stamp + ".json");
+        objectMapper.writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static String gitCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String commit = new String(git.getInputStream().readAllBytes()).trim();
+            return git.waitFor() == 0 && !commit.isEmpty() ? commit : "local";
+        } catch (IOException ex) {
+            return "local";
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return "local";
+        }
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            weights.put(entry[0].trim(), Integer.parseInt(entry[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Fires requests on their own threads at Poisson-distributed arrival times. Drones are dispatched round-robin
+     * between the two cities of their route, so each one is reused only after the whole fleet has had a turn.
+     */
+    private final class Driver {
+        private final String baseUrl;
+        private final String[] locations;
+        private final String[] endpoints;
+        private final int[] cumulativeWeights;
+        private final AtomicLong nextDrone = new AtomicLong();
+        private final HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        private Driver(String baseUrl, String[] locations, Map<String, Integer> mix) {
+            this.baseUrl = baseUrl;
+            this.locations = locations;
+            this.endpoints = mix.keySet().toArray(String[]::new);
+            this.cumulativeWeights = new int[endpoints.length];
+            int total = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                total += mix.get(endpoints[i]);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        /**
+         * Runs for the given time and returns the elapsed seconds, including draining requests still in flight.
+         * With {@code recorders == null} results are discarded (warm-up).
+         */
+        private double run(double rate, int seconds, Map<String, LatencyRecorder> recorders) {
+            long start = System.nanoTime();
+            long end = start + Duration.ofSeconds(seconds).toNanos();
+            long scheduled = start;
+
+            // Platform threads: virtual threads pinned inside JDK HTTP internals can stall every other
+            // request on small machines where there are only one or two carrier threads
+            try (ExecutorService workers = Executors.newCachedThreadPool()) {
+                while (true) {
+                    scheduled += (long) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) / rate * 1e9);
+                    if (scheduled >= end) break;
+                    long delay = scheduled - System.nanoTime();
+                    if (delay > 0) {
+                        LockSupport.parkNanos(delay);
+                    }
+                    long intendedStart = scheduled;
+                    String endpoint = pickEndpoint();
+                    workers.submit(() -> send(endpoint, intendedStart, recorders == null ? null : recorders.get(endpoint)));
+                }
+            }
+            return (System.nanoTime() - start) / 1e9;
+        }
+
+        private String pickEndpoint() {
+            int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < endpoints.length; i++) {
+                if (roll < cumulativeWeights[i]) return endpoints[i];
+            }
+            return endpoints[endpoints.length - 1];
+        }
+
+        private void send(String endpoint, long intendedStart, LatencyRecorder recorder) {
+            int drone = -1;
+            HttpRequest request;
+            switch (endpoint) {
+                case "dispatch" -> {
+                    drone = (int) (nextDrone.getAndIncrement() % locations.length);
+                    String origin = locations[drone];
+                    String body = String.format("{\"droneId\":\"%s\",\"origin\":\"%s\",\"destination\":\"%s\"}",
+                            droneId(drone), origin, ROUTES.get(origin));
+                    request = HttpRequest.newBuilder(URI.create(baseUrl))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .timeout(Duration.ofSeconds(10))
+                            .build();
+                }
+                case "fleet" -> request = HttpRequest.newBuilder(URI.create(baseUrl + "/fleet?state=IDLE&size=100"))
+                        .timeout(Duration.ofSeconds(10)).build();
+                case "history" -> request = HttpRequest.newBuilder(URI.create(baseUrl + "/history"))
+                        .timeout(Duration.ofSeconds(10)).build();
+                default -> throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + endpoint);
+            }
+
+            String outcome;
+            boolean error;
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                error = response.statusCode() >= 400;
+                outcome = String.valueOf(response.statusCode());
+                if (drone >= 0 && !error) {
+                    JsonNode decision = objectMapper.readTree(response.body());
+                    outcome += " " + decision.path("status").asText();
+                    if ("APPROVED".equals(decision.path("status").asText())) {
+                        locations[drone] = ROUTES.get(locations[drone]);
+                    }
+                }
+            } catch (IOException ex) {
+                error = true;
+                outcome = ex.getClass().getSimpleName();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (recorder != null) {
+                recorder.record(System.nanoTime() - intendedStart, outcome, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.interview.prep.drone_dispatch_service.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal stand-in for the weather service: {@code GET /weather/{city}} returns calm weather at the city's
+ * coordinates, after an injected delay, and fails with 503 at the configured rate. Unknown cities get 404.
+ * {@code GET /weather/{city}/forecast} adds {@link #FORECAST_HOURS} hourly entries from the current hour on.
+ * {@link #storm(String, int)} makes a city stormy now and for the given number of forecast hours.
+ */
+public class StubWeatherServer implements AutoCloseable {
+
+    static final Map<String, double[]> CITIES = Map.of(
+            "berlin", new double[]{52.52, 13.40},
+            "potsdam", new double[]{52.39, 13.06},
+            "warsaw", new double[]{52.23, 21.01},
+            "pruszkow", new double[]{52.17, 20.80},
+            "london", new double[]{51.51, -0.13},
+            "croydon", new double[]{51.37, -0.10},
+            "istanbul", new double[]{41.01, 28.98},
+            "gebze", new double[]{40.80, 29.43}
+    );
+
+    static final int FORECAST_HOURS = 48;
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+    private static final String CALM = "\"temperature\":15.0,\"windspeed\":10.0,\"weathercode\":1";
+    private static final String STORMY = "\"temperature\":12.0,\"windspeed\":55.0,\"weathercode\":95";
+
+    private final HttpServer server;
+    private final Map<String, Integer> stormHours = new ConcurrentHashMap<>();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double failureRate;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public StubWeatherServer(long latencyMillis, long jitterMillis, double failureRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.failureRate = failureRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/weather/", this::handle);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long failures() {
+        return failures.get();
+    }
+
+    /**
+     * Storm at the city now and for the first {@code hours} forecast hours after the current one.
+     */
+    public void storm(String city, int hours) {
+        stormHours.put(city.toLowerCase(Locale.ROOT), hours);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            long delay = latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (random.nextDouble() < failureRate) {
+            failures.incrementAndGet();
+            respond(exchange, 503, "{\"error\":\"injected failure\"}");
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath().substring("/weather/".length()).toLowerCase(Locale.ROOT);
+        boolean forecast = path.endsWith("/forecast");
+        String city = forecast ? path.substring(0, path.length() - "/forecast".length()) : path;
+        double[] coordinates = CITIES.get(city);
+        if (coordinates == null) {
+            respond(exchange, 404, "{\"error\":\"unknown city\"}");
+            return;
+        }
+
+        int storm = stormHours.getOrDefault(city, -1);
+        StringBuilder body = new StringBuilder(String.format(Locale.ROOT,
+                "{\"latitude\":%.4f,\"longitude\":%.4f,\"current_weather\":{%s}",
+                coordinates[0], coordinates[1], storm >= 0 ? STORMY : CALM));
+        if (forecast) {
+            appendHourly(body, storm);
+        }
+        respond(exchange, 200, body.append('}').toString());
+    }
+
+    // Open-Meteo layout: parallel arrays per variable, GMT times without seconds
+    private static void appendHourly(StringBuilder body, int stormHours) {
+        LocalDateTime hour = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        StringJoiner time = new StringJoiner(",", "\"time\":[", "]");
+        StringJoiner temperature = new StringJoiner(",", "\"temperature_2m\":[", "]");
+        StringJoiner wind = new StringJoiner(",", "\"windspeed_10m\":[", "]");
+        StringJoiner code = new StringJoiner(",", "\"weathercode\":[", "]");
+        for (int i = 0; i < FORECAST_HOURS; i++) {
+            boolean stormy = i <= stormHours;
+            time.add("\"" + HOUR_FORMAT.format(hour.plusHours(i)) + "\"");
+            temperature.add(stormy ? "12.0" : "15.0");
+            wind.add(stormy ? "55.0" : "10.0");
+            code.add(stormy ? "95" : "1");
+        }
+        body.append(",\"hourly\":{").append(time).append(',').append(temperature).append(',')
+                .append(wind).append(',').append(code).append('}');
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
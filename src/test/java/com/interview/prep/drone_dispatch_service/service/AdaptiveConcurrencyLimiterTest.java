@@ -0,0 +1,83 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Adaptive Concurrency Limit Tests")
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final String DISPATCH = "POST /api/v1/dispatch";
+    private static final String TICKET = "GET /api/v1/dispatch/tickets/{ticketId}";
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setup() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getConcurrency().setInitialLimit(10);
+        properties.getConcurrency().setMinLimit(2);
+        properties.getConcurrency().setMaxLimit(20);
+        limiter = new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @Test
+    @DisplayName("Should shed requests beyond the limit")
+    void tryAcquire_AtLimit_Rejects() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(DISPATCH, 5 * MILLIS);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should grow while saturated with fast responses")
+    void release_FastAndSaturated_IncreasesLimit() {
+        for (int round = 0; round < 3; round++) {
+            int limit = limiter.getLimit();
+            for (int i = 0; i < limit; i++) assertTrue(limiter.tryAcquire());
+            for (int i = 0; i < limit; i++) limiter.release(DISPATCH, 5 * MILLIS);
+        }
+        assertTrue(limiter.getLimit() > 10, "Limit was " + limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should back off when latency rises well above the baseline")
+    void release_SlowResponses_DecreasesLimit() throws InterruptedException {
+        limiter.tryAcquire();
+        limiter.release(DISPATCH, MILLIS); // Baseline
+
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(10); // Decreases are spaced by the slow request's own latency
+            limiter.tryAcquire();
+            limiter.release(DISPATCH, 5 * MILLIS);
+        }
+        assertTrue(limiter.getLimit() < 10, "Limit was " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 2);
+    }
+
+    @Test
+    @DisplayName("Should judge each route against its own baseline")
+    void release_FastRouteDoesNotSkewSlowRoute() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(TICKET, MILLIS / 10); // Polls answered from memory
+        }
+        limiter.tryAcquire();
+        limiter.release(DISPATCH, 40 * MILLIS);
+
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(50);
+            limiter.tryAcquire();
+            limiter.release(DISPATCH, 45 * MILLIS); // Normal for a dispatch, 450x a poll
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+}
@@ -0,0 +1,78 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.BatchOrder;
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Wall time to assign a 10k-order window against a 10k-drone fleet, once in blocks too large for the exact
+ * solver and once in blocks at its size limit. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("Batch Assignment Benchmark")
+public class AssignmentBenchmarkTest {
+
+    private static final int SIZE = 10_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    @Test
+    @DisplayName("Assign 10k orders to 10k drones with the auction")
+    void assignTenThousandByTenThousand() {
+        // Two cities, so each block is 5k x 5k and too large for the exact solver
+        benchmark("auction", 2);
+    }
+
+    @Test
+    @DisplayName("Assign 10k orders to 10k drones exactly")
+    void assignTenThousandByTenThousandExactly() {
+        // 50 cities of 200 x 200, the largest blocks the exact solver takes
+        int cities = SIZE / (int) Math.sqrt(AssignmentEngine.MAX_EXACT_CELLS);
+        benchmark("exact", cities);
+    }
+
+    private static void benchmark(String path, int cities) {
+        Random random = new Random(7);
+        DroneModel[] models = DroneModel.values();
+        List<DroneResponse> drones = new ArrayList<>(SIZE);
+        List<BatchOrder> orders = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            String city = "City-" + i % cities;
+            drones.add(new DroneResponse("D-" + i, models[random.nextInt(models.length)],
+                    25.0 + random.nextDouble() * 75.0, DroneState.IDLE, city));
+            orders.add(new BatchOrder(city, "Potsdam", random.nextDouble() * 50.0));
+        }
+        FleetSnapshot fleet = FleetSnapshot.of(drones);
+        AssignmentEngine engine = new AssignmentEngine();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            engine.assign(fleet, orders);
+        }
+
+        long best = Long.MAX_VALUE;
+        int assigned = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            int[] result = engine.assign(fleet, orders);
+            best = Math.min(best, System.nanoTime() - start);
+            assigned = 0;
+            for (int drone : result) {
+                if (drone != AssignmentEngine.UNASSIGNED) assigned++;
+            }
+        }
+
+        System.out.printf("assign %dx%d (%s, %d cities): best %d ms, %d orders assigned%n",
+                SIZE, SIZE, path, cities, best / 1_000_000, assigned);
+        assertTrue(assigned > 0);
+    }
+}
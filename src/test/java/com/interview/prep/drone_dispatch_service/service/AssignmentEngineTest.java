@@ -0,0 +1,104 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.BatchOrder;
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Assignment Engine Tests")
+public class AssignmentEngineTest {
+
+    private final AssignmentEngine engine = new AssignmentEngine();
+
+    private DroneResponse drone(String id, DroneModel model, double battery, String city) {
+        return new DroneResponse(id, model, battery, DroneState.IDLE, city);
+    }
+
+    @Test
+    @DisplayName("Should give the only capable drone to the heavy order even if it is listed first for the light one")
+    void assign_SmallBlock_SolvesExactly() {
+        FleetSnapshot fleet = FleetSnapshot.of(List.of(
+                drone("DRN-HEAVY", DroneModel.CRUISERWEIGHT, 100.0, "Berlin"),
+                drone("DRN-LIGHT", DroneModel.LIGHTWEIGHT, 40.0, "Berlin")
+        ));
+        // Greedy in order would hand the full-battery drone to the light order and strand the heavy one
+        List<BatchOrder> orders = List.of(
+                new BatchOrder("Berlin", "Potsdam", 2.0),
+                new BatchOrder("Berlin", "Leipzig", 15.0)
+        );
+
+        int[] result = engine.assign(fleet, orders);
+
+        assertEquals("DRN-LIGHT", fleet.droneId(result[0]));
+        assertEquals("DRN-HEAVY", fleet.droneId(result[1]));
+    }
+
+    @Test
+    @DisplayName("Should leave orders unassigned when no drone in the origin city can carry them")
+    void assign_NoCapableDrone_LeavesUnassigned() {
+        FleetSnapshot fleet = FleetSnapshot.of(List.of(
+                drone("DRN-1", DroneModel.LIGHTWEIGHT, 90.0, "Berlin"),
+                drone("DRN-2", DroneModel.HEAVYWEIGHT, 90.0, "Hamburg"),
+                drone("DRN-3", DroneModel.HEAVYWEIGHT, 10.0, "Berlin") // Too low to fly
+        ));
+        List<BatchOrder> orders = List.of(
+                new BatchOrder("Berlin", "Potsdam", 30.0),
+                new BatchOrder("Munich", "Augsburg", 1.0)
+        );
+
+        int[] result = engine.assign(fleet, orders);
+
+        assertEquals(AssignmentEngine.UNASSIGNED, result[0]);
+        assertEquals(AssignmentEngine.UNASSIGNED, result[1]);
+    }
+
+    @Test
+    @DisplayName("Should never pick a drone whose battery is unknown")
+    void assign_UnknownBattery_NotAssigned() {
+        FleetSnapshot fleet = FleetSnapshot.of(List.of(
+                new DroneResponse("DRN-1", DroneModel.HEAVYWEIGHT, null, DroneState.IDLE, "Berlin")));
+
+        int[] result = engine.assign(fleet, List.of(new BatchOrder("Berlin", "Potsdam", 1.0)));
+
+        assertEquals(AssignmentEngine.UNASSIGNED, result[0]);
+    }
+
+    @Test
+    @DisplayName("Should assign large blocks to distinct, capable drones in the origin city")
+    void assign_LargeBlock_AssignsFeasibly() {
+        Random random = new Random(42);
+        DroneModel[] models = DroneModel.values();
+        List<DroneResponse> drones = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            drones.add(drone("DRN-" + i, models[random.nextInt(models.length)], 30 + random.nextInt(71), "Berlin"));
+        }
+        List<BatchOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            orders.add(new BatchOrder("Berlin", "Potsdam", random.nextDouble() * 20));
+        }
+        FleetSnapshot fleet = FleetSnapshot.of(drones);
+
+        int[] result = engine.assign(fleet, orders);
+
+        Set<Integer> used = new HashSet<>();
+        int assigned = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (result[i] == AssignmentEngine.UNASSIGNED) continue;
+            assigned++;
+            assertTrue(used.add(result[i]), "Drone assigned twice: " + fleet.droneId(result[i]));
+            assertTrue(fleet.maxPayloadKg[result[i]] >= orders.get(i).payloadKg());
+        }
+        // Three of the four models can carry up to 20 kg, so there are enough capable drones for every order
+        assertEquals(orders.size(), assigned);
+    }
+}
@@ -0,0 +1,101 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.RateLimitProperties;
+import com.interview.prep.drone_dispatch_service.dto.BatchOrder;
+import com.interview.prep.drone_dispatch_service.dto.DispatchRequest;
+import com.interview.prep.drone_dispatch_service.dto.DispatchResponse;
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+import com.interview.prep.drone_dispatch_service.entity.Status;
+import com.interview.prep.drone_dispatch_service.exception.WeatherServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Batch Dispatch Service Tests")
+public class BatchDispatchServiceTest {
+
+    @Mock private DispatchService dispatchService;
+
+    private RateLimiter rateLimiter;
+    private BatchDispatchService service;
+
+    @BeforeEach
+    void setup() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getDefaultPolicy().setCapacity(2);
+        properties.getDefaultPolicy().setRefillPerSecond(0.001);
+        rateLimiter = new RateLimiter(properties);
+        service = new BatchDispatchService(dispatchService, new AssignmentEngine(), rateLimiter, 2);
+
+        when(dispatchService.searchFleet(eq(DroneState.IDLE), isNull(), isNull(), isNull(), any()))
+                .thenReturn(new SliceImpl<>(List.of(
+                        new DroneResponse("D-001", DroneModel.HEAVYWEIGHT, 90.0, DroneState.IDLE, "Berlin"),
+                        new DroneResponse("D-002", DroneModel.HEAVYWEIGHT, 80.0, DroneState.IDLE, "Berlin"),
+                        new DroneResponse("D-003", DroneModel.HEAVYWEIGHT, 90.0, DroneState.IDLE, "Warsaw"),
+                        new DroneResponse("D-004", DroneModel.HEAVYWEIGHT, 90.0, DroneState.IDLE, "Atlantis"))));
+        lenient().when(dispatchService.dispatchDrone(any())).thenAnswer(invocation -> {
+            DispatchRequest request = invocation.getArgument(0);
+            return new DispatchResponse(request.droneId(), Status.APPROVED, "Flight approved. Conditions optimal.");
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reject only the order whose dispatch fails and keep the others")
+    void dispatchBatch_FailedOrder_RejectedAlone() {
+        when(dispatchService.dispatchDrone(new DispatchRequest("D-004", "Atlantis", "Potsdam")))
+                .thenThrow(new WeatherServiceException("City not found: Atlantis"));
+
+        List<DispatchResponse> responses = service.dispatchBatch(List.of(
+                new BatchOrder("Berlin", "Potsdam", 5.0),
+                new BatchOrder("Atlantis", "Potsdam", 5.0),
+                new BatchOrder("Warsaw", "Lodz", 5.0),
+                new BatchOrder("Berlin", "Leipzig", 5.0)), null);
+
+        assertEquals(4, responses.size());
+        assertEquals(Status.APPROVED, responses.get(0).status());
+        assertEquals(Status.REJECTED, responses.get(1).status());
+        assertEquals(ReasonCode.DISPATCH_FAILED, responses.get(1).reasonCode());
+        assertEquals("D-004", responses.get(1).droneId());
+        assertEquals("D-003", responses.get(2).droneId());
+        assertEquals(Status.APPROVED, responses.get(3).status());
+        verify(dispatchService, times(4)).dispatchDrone(any());
+    }
+
+    @Test
+    @DisplayName("Should charge a rate-limit token per order and reject the orders beyond the budget")
+    void dispatchBatch_OverRateLimit_RejectsRest() {
+        List<DispatchResponse> responses = service.dispatchBatch(List.of(
+                new BatchOrder("Berlin", "Potsdam", 5.0),
+                new BatchOrder("Berlin", "Leipzig", 5.0),
+                new BatchOrder("Warsaw", "Lodz", 5.0),
+                new BatchOrder("Warsaw", "Krakow", 5.0)), "ip:10.0.0.1");
+
+        // The request's own token paid for the first order, the bucket's two for the next
+        assertEquals(Status.APPROVED, responses.get(0).status());
+        assertEquals(Status.APPROVED, responses.get(1).status());
+        assertEquals(Status.APPROVED, responses.get(2).status());
+        assertEquals(ReasonCode.RATE_LIMITED, responses.get(3).reasonCode());
+        assertNull(responses.get(3).droneId());
+        verify(dispatchService, times(3)).dispatchDrone(any());
+    }
+}
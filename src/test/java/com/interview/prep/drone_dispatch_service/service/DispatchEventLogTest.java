@@ -0,0 +1,166 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.EventLogProperties;
+import com.interview.prep.drone_dispatch_service.dto.DispatchEvent;
+import com.interview.prep.drone_dispatch_service.dto.EventPage;
+import com.interview.prep.drone_dispatch_service.dto.EventType;
+import com.interview.prep.drone_dispatch_service.entity.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Dispatch Event Log Tests")
+class DispatchEventLogTest {
+
+    @TempDir
+    Path directory;
+
+    private DispatchEventLog open(int eventsPerSegment, int retainedSegments) {
+        EventLogProperties properties = new EventLogProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSize(DataSize.ofBytes((long) eventsPerSegment * DispatchEventLog.EVENT_SIZE));
+        properties.setRetainedSegments(retainedSegments);
+        return new DispatchEventLog(properties);
+    }
+
+    private DispatchRecord decision(long id, String droneId, Status status) {
+        return DispatchRecord.builder()
+                .id(id)
+                .droneId(droneId)
+                .origin("Berlin")
+                .destination("Potsdam")
+                .status(status)
+                .reasonCode(status == Status.APPROVED ? ReasonCode.APPROVED : ReasonCode.UNSAFE_ORIGIN)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should read back decisions and transitions in order from any offset")
+    void appendAndRead_ReturnsEventsFromOffset() {
+        DispatchEventLog eventLog = open(100, 4);
+        eventLog.recordDecision(decision(7, "D-001", Status.APPROVED));
+        Drone drone = Drone.builder().id("D-001").state(DroneState.IDLE).batteryCapacity(80.0)
+                .currentLocation("Potsdam").model(DroneModel.LIGHTWEIGHT).build();
+        eventLog.recordTransition(drone, DroneState.IN_FLIGHT);
+
+        EventPage page = eventLog.read(0, 10);
+
+        assertEquals(2, page.nextOffset());
+        DispatchEvent approved = page.events().get(0);
+        assertAll("Decision",
+                () -> assertEquals(EventType.DISPATCH_DECISION, approved.type()),
+                () -> assertEquals("APPROVED", approved.status()),
+                () -> assertEquals(ReasonCode.APPROVED, approved.reasonCode()),
+                () -> assertEquals(7L, approved.dispatchRecordId()),
+                () -> assertEquals("Potsdam", approved.destination()),
+                () -> assertNull(approved.batteryLevel()));
+        DispatchEvent landed = page.events().get(1);
+        assertAll("Transition",
+                () -> assertEquals(1, landed.offset()),
+                () -> assertEquals("IN_FLIGHT", landed.previousStatus()),
+                () -> assertEquals("IDLE", landed.status()),
+                () -> assertNull(landed.reasonCode()),
+                () -> assertEquals("Potsdam", landed.origin()),
+                () -> assertEquals(80.0, landed.batteryLevel()));
+
+        assertEquals(List.of(1L), eventLog.read(1, 10).events().stream().map(DispatchEvent::offset).toList());
+        assertTrue(eventLog.read(2, 10).events().isEmpty(), "Nothing past the end");
+    }
+
+    @Test
+    @DisplayName("Should append only once the surrounding transaction commits, and never on rollback")
+    void insideTransaction_AppendsAfterCommit() {
+        DispatchEventLog eventLog = open(100, 4);
+        Drone drone = Drone.builder().id("D-001").state(DroneState.IDLE).batteryCapacity(80.0)
+                .currentLocation("Potsdam").build();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            eventLog.recordTransition(drone, DroneState.IN_FLIGHT);
+            eventLog.recordDecision(decision(7, "D-001", Status.APPROVED));
+            assertEquals(0, eventLog.nextOffset(), "Nothing appended before commit");
+
+            List<TransactionSynchronization> committed = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCommit(committed);
+            assertEquals(2, eventLog.nextOffset());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            eventLog.recordTransition(drone, DroneState.IN_FLIGHT);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(2, eventLog.nextOffset(), "Rolled back transition not appended");
+    }
+
+    @Test
+    @DisplayName("Should roll over full segments, delete the oldest beyond retention and skip readers ahead")
+    void rollover_DeletesOldestSegments() throws Exception {
+        DispatchEventLog eventLog = open(4, 2);
+        for (int i = 1; i <= 10; i++) {
+            eventLog.recordDecision(decision(i, "D-" + i, Status.REJECTED));
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count(), "Segments 4 and 8 retained");
+        }
+        EventPage page = eventLog.read(0, 100);
+        assertEquals(4, page.firstOffset());
+        assertEquals(10, page.nextOffset());
+        assertEquals(4, page.events().get(0).offset(), "A reader behind retention starts at the oldest event");
+        assertEquals("D-5", page.events().get(0).droneId());
+    }
+
+    @Test
+    @DisplayName("Should resume appending after the last committed event when reopened")
+    void reopen_ResumesAtNextOffset() {
+        DispatchEventLog first = open(4, 8);
+        for (int i = 1; i <= 6; i++) {
+            first.recordDecision(decision(i, "D-" + i, Status.APPROVED));
+        }
+        first.close();
+
+        DispatchEventLog reopened = open(4, 8);
+        assertEquals(6, reopened.nextOffset());
+        reopened.recordDecision(decision(7, "D-7", Status.APPROVED));
+
+        List<String> drones = new ArrayList<>();
+        long next = reopened.tail(0, 100, view -> drones.add(view.droneId()));
+        assertEquals(7, next);
+        assertEquals(List.of("D-1", "D-2", "D-3", "D-4", "D-5", "D-6", "D-7"), drones);
+    }
+
+    @Test
+    @DisplayName("Should truncate long names on a character boundary")
+    void longNames_AreTruncated() {
+        DispatchEventLog eventLog = open(10, 2);
+        DispatchRecord record = decision(1, "D-001", Status.APPROVED);
+        record.setDestination("Złotów".repeat(10));
+        eventLog.recordDecision(record);
+
+        String destination = eventLog.read(0, 1).events().get(0).destination();
+
+        assertNotNull(destination);
+        assertFalse(destination.isEmpty());
+        assertTrue("Złotów".repeat(10).startsWith(destination));
+    }
+}
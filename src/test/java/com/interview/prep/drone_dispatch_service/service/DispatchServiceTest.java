@@ -2,8 +2,12 @@ package com.interview.prep.drone_dispatch_service.service;
 
 import com.interview.prep.drone_dispatch_service.client.WeatherServiceClient;
 import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
+import com.interview.prep.drone_dispatch_service.dto.DepartureWindow;
+import com.interview.prep.drone_dispatch_service.dto.DispatchHistoryResponse;
 import com.interview.prep.drone_dispatch_service.dto.DispatchRequest;
 import com.interview.prep.drone_dispatch_service.dto.DispatchResponse;
+import com.interview.prep.drone_dispatch_service.dto.NoFlyZone;
+import com.interview.prep.drone_dispatch_service.dto.RouteLeg;
 import com.interview.prep.drone_dispatch_service.dto.WeatherApiResponse;
 import com.interview.prep.drone_dispatch_service.entity.*;
 import com.interview.prep.drone_dispatch_service.repository.DispatchRepository;
@@ -17,11 +21,20 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,11 +45,17 @@ public class DispatchServiceTest {
     @Mock private DispatchRepository dispatchRepository;
     @Mock private DroneRepository droneRepository;
     @Mock private DroneConfigProperties droneRules;
+    @Mock private RoutePlanner routePlanner;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private DispatchEventLog eventLog;
+    @Mock private WeatherSnapshotService weatherSnapshots;
+    @Mock private NoFlyZoneService noFlyZones;
+    @Mock private ForecastService forecasts;
+    @Spy private RegionLocks regionLocks = new RegionLocks(16);
 
     @InjectMocks
     private DispatchService dispatchService;
 
-    @Captor private ArgumentCaptor<Drone> droneCaptor;
     @Captor private ArgumentCaptor<DispatchRecord> recordCaptor;
 
     @BeforeEach
@@ -45,6 +64,18 @@ public class DispatchServiceTest {
         lenient().when(droneRules.getMaxWindSpeed()).thenReturn(30.0);
         lenient().when(droneRules.getMinTemperature()).thenReturn(-10.0);
         lenient().when(droneRules.getStormCodeThreshold()).thenReturn(50);
+        lenient().when(weatherSnapshots.snapshotOf(anyString(), any(WeatherApiResponse.class))).thenAnswer(invocation -> {
+            WeatherApiResponse weather = invocation.getArgument(1);
+            return WeatherSnapshot.builder()
+                    .city(invocation.getArgument(0))
+                    .temperature(weather.currentWeather().temperature())
+                    .windSpeed(weather.currentWeather().windspeed())
+                    .weatherCode(weather.currentWeather().weathercode())
+                    .build();
+        });
+        lenient().when(droneRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     private DispatchRequest createRequest(String from, String to) {
@@ -125,6 +156,20 @@ public class DispatchServiceTest {
 
             verifyNoInteractions(weatherClient);
         }
+
+        @Test
+        @DisplayName("Should cut a reason subject longer than its column when storing it")
+        void dispatch_LongLocationName_StoresTruncatedSubject() {
+            String location = "Frankfurt (Oder) ".repeat(5).trim();
+            when(droneRepository.findById("D-001")).thenReturn(Optional.of(createDrone(location, DroneState.IDLE)));
+
+            DispatchResponse response = dispatchService.dispatchDrone(createRequest("Paris", "Warsaw"));
+
+            assertTrue(response.reason().contains(location), "The response names the full location");
+            verify(dispatchRepository).save(recordCaptor.capture());
+            assertEquals(ReasonCode.DRONE_NOT_AT_ORIGIN, recordCaptor.getValue().getReasonCode());
+            assertEquals(location.substring(0, 64), recordCaptor.getValue().getReasonSubject());
+        }
     }
 
     @Nested
@@ -178,6 +223,24 @@ public class DispatchServiceTest {
             assertTrue(response.reason().contains("Unsafe takeoff"), "Should fail due to unsafe origin");
         }
 
+        @Test
+        @DisplayName("Should return the earliest safe departure window with a weather rejection")
+        void dispatch_OriginUnsafe_ReturnsDepartureWindow() {
+            Drone drone = createDrone("Berlin", DroneState.IDLE);
+            when(droneRepository.findById("D-001")).thenReturn(Optional.of(drone));
+            when(weatherClient.getWeather("Berlin")).thenReturn(createWeather(52.52, 13.40, 20.0, 50.0, 0));
+            when(weatherClient.getWeather("Potsdam")).thenReturn(createWeather(52.50, 13.41, 20.0, 5.0, 0));
+            DepartureWindow window = new DepartureWindow(
+                    LocalDateTime.of(2026, 3, 1, 15, 0), LocalDateTime.of(2026, 3, 1, 19, 0));
+            when(forecasts.earliestSafeWindow(List.of("Berlin", "Potsdam"))).thenReturn(Optional.of(window));
+
+            DispatchResponse response = dispatchService.dispatchDrone(createRequest("Berlin", "Potsdam"));
+
+            assertEquals(Status.REJECTED, response.status());
+            assertEquals(ReasonCode.UNSAFE_ORIGIN, response.reasonCode());
+            assertEquals(window, response.departureWindow());
+        }
+
         @Test
         @DisplayName("Should reject when DESTINATION weather is unsafe (Freezing Temp)")
         void dispatch_DestUnsafe_ReturnsRejected() {
@@ -200,6 +263,80 @@ public class DispatchServiceTest {
             assertEquals(Status.REJECTED, response.status());
             assertTrue(response.reason().contains("Unsafe takeoff"),"Should fail due to unsafe destination");
         }
+
+        @Test
+        @DisplayName("Should reject when the flight path crosses a no-fly zone")
+        void dispatch_CrossesNoFlyZone_ReturnsRejected() {
+            // Arrange
+            Drone drone = createDrone("Berlin", DroneState.IDLE);
+            when(droneRepository.findById("D-001")).thenReturn(Optional.of(drone));
+
+            WeatherApiResponse berlin = createWeather(52.52, 13.40, 20.0, 5.0, 0);
+            WeatherApiResponse potsdam = createWeather(52.45, 13.30, 20.0, 5.0, 0);
+            when(weatherClient.getWeather("Berlin")).thenReturn(berlin);
+            when(weatherClient.getWeather("Potsdam")).thenReturn(potsdam);
+            when(noFlyZones.firstCrossing(52.52, 13.40, 52.45, 13.30))
+                    .thenReturn(new NoFlyZone("THF", "Tempelhof", 52.47, 13.40, 2.0, null));
+
+            // Act
+            DispatchResponse response = dispatchService.dispatchDrone(createRequest("Berlin", "Potsdam"));
+
+            // Assert
+            assertEquals(Status.REJECTED, response.status());
+            assertEquals(ReasonCode.NO_FLY_ZONE, response.reasonCode());
+            assertEquals("Flight path crosses no-fly zone THF.", response.reason());
+            verify(droneRepository, never()).claim(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should reject a hub route when one of its legs crosses a no-fly zone")
+        void dispatch_HubLegCrossesNoFlyZone_ReturnsRejected() {
+            // Arrange
+            Drone drone = createDrone("Berlin", DroneState.IDLE);
+            when(droneRepository.findById("D-001")).thenReturn(Optional.of(drone));
+            when(weatherClient.getWeather("Berlin")).thenReturn(createWeather(52.52, 13.40, 20.0, 5.0, 0));
+            when(weatherClient.getWeather("Far Away")).thenReturn(createWeather(52.52, 13.80, 20.0, 5.0, 0));
+            when(routePlanner.plan(eq("Berlin"), anyDouble(), anyDouble(), eq("Far Away"), anyDouble(), anyDouble()))
+                    .thenReturn(Optional.of(List.of(
+                            new RouteLeg("Berlin", "Hub", 13.5, 52.52, 13.40, 52.60, 13.60),
+                            new RouteLeg("Hub", "Far Away", 13.5, 52.60, 13.60, 52.52, 13.80))));
+            // Only the second leg crosses the zone; the direct line and the first leg are clear
+            lenient().when(noFlyZones.firstCrossing(52.60, 13.60, 52.52, 13.80))
+                    .thenReturn(new NoFlyZone("SXF", "Schoenefeld", 52.56, 13.70, 2.0, null));
+
+            // Act
+            DispatchResponse response = dispatchService.dispatchDrone(createRequest("Berlin", "Far Away"));
+
+            // Assert
+            assertEquals(Status.REJECTED, response.status());
+            assertEquals(ReasonCode.NO_FLY_ZONE, response.reasonCode());
+            assertEquals("Flight path crosses no-fly zone SXF.", response.reason());
+            verify(droneRepository, never()).claim(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should approve a hub route that goes around a zone on the direct line")
+        void dispatch_HubRouteAroundNoFlyZone_ReturnsApproved() {
+            // Arrange
+            Drone drone = createDrone("Berlin", DroneState.IDLE);
+            when(droneRepository.findById("D-001")).thenReturn(Optional.of(drone));
+            when(weatherClient.getWeather("Berlin")).thenReturn(createWeather(52.52, 13.40, 20.0, 5.0, 0));
+            when(weatherClient.getWeather("Hub")).thenReturn(createWeather(52.60, 13.60, 20.0, 5.0, 0));
+            when(weatherClient.getWeather("Far Away")).thenReturn(createWeather(52.52, 13.80, 20.0, 5.0, 0));
+            when(routePlanner.plan(eq("Berlin"), anyDouble(), anyDouble(), eq("Far Away"), anyDouble(), anyDouble()))
+                    .thenReturn(Optional.of(List.of(
+                            new RouteLeg("Berlin", "Hub", 13.5, 52.52, 13.40, 52.60, 13.60),
+                            new RouteLeg("Hub", "Far Away", 13.5, 52.60, 13.60, 52.52, 13.80))));
+            lenient().when(noFlyZones.firstCrossing(52.52, 13.40, 52.52, 13.80))
+                    .thenReturn(new NoFlyZone("TXL", "Tegel", 52.52, 13.60, 2.0, null));
+
+            // Act
+            DispatchResponse response = dispatchService.dispatchDrone(createRequest("Berlin", "Far Away"));
+
+            // Assert
+            assertEquals(Status.APPROVED, response.status());
+            assertEquals(ReasonCode.APPROVED_WITH_STOPS, response.reasonCode());
+        }
     }
 
     @Nested
@@ -228,13 +365,9 @@ public class DispatchServiceTest {
             assertEquals(Status.APPROVED, response.status());
             assertEquals("Flight approved. Conditions optimal.", response.reason());
 
-            verify(droneRepository).save(droneCaptor.capture());
-
-            Drone savedDrone = droneCaptor.getValue();
-            assertAll("Drone State Updates",
-                    () -> assertEquals(DroneState.IN_FLIGHT, savedDrone.getState(), "Drone should be flying"),
-                    () -> assertEquals("Berlin Zoo", savedDrone.getCurrentLocation(), "Location should update to dest")
-                    );
+            // Claimed with a targeted update: IN_FLIGHT to the destination, battery left as telemetry last wrote it
+            verify(droneRepository).claim(eq("D-001"), eq("Berlin Zoo"), any());
+            verify(droneRepository, never()).save(any());
 
             verify(dispatchRepository).save(recordCaptor.capture());
 
@@ -242,8 +375,128 @@ public class DispatchServiceTest {
             assertAll("Dispatch Record Details",
                     () -> assertEquals("D-001", savedRecord.getDroneId()),
                     () -> assertEquals(Status.APPROVED, savedRecord.getStatus()),
-                    () -> assertEquals(20.0, savedRecord.getOriginTemp(), "Should record origin temp")
+                    () -> assertEquals(20.0, savedRecord.getOriginWeather().getTemperature(), "Should reference origin weather"),
+                    () -> assertEquals(ReasonCode.APPROVED, savedRecord.getReasonCode()),
+                    () -> assertNull(savedRecord.getReason(), "Only the code is stored")
             );
+            verify(eventLog).recordDecision(savedRecord);
+        }
+
+        @Test
+        @DisplayName("Should approve a long route through charging stops and return the planned legs")
+        void dispatch_BeyondRangeWithChargingRoute_ReturnsLegs() {
+            // Arrange
+            Drone drone = createDrone("Berlin", DroneState.IDLE);
+            when(droneRepository.findById("D-001")).thenReturn(Optional.of(drone));
+
+            WeatherApiResponse berlinWeather = createWeather(52.52, 13.40, 20.0, 5.0, 0);
+            WeatherApiResponse hubWeather = createWeather(52.52, 13.60, 20.0, 5.0, 0);
+            WeatherApiResponse destWeather = createWeather(52.52, 13.80, 20.0, 5.0, 0);
+
+            when(weatherClient.getWeather("Berlin")).thenReturn(berlinWeather);
+            when(weatherClient.getWeather("Hub")).thenReturn(hubWeather);
+            when(weatherClient.getWeather("Far Away")).thenReturn(destWeather);
+
+            List<RouteLeg> legs = List.of(new RouteLeg("Berlin", "Hub", 13.5, 52.52, 13.40, 52.52, 13.60), new RouteLeg("Hub", "Far Away", 13.5, 52.52, 13.60, 52.52, 13.80));
+            when(routePlanner.plan(eq("Berlin"), anyDouble(), anyDouble(), eq("Far Away"), anyDouble(), anyDouble()))
+                    .thenReturn(Optional.of(legs));
+
+            // Act
+            DispatchResponse response = dispatchService.dispatchDrone(createRequest("Berlin", "Far Away"));
+
+            // Assert
+            assertEquals(Status.APPROVED, response.status());
+            assertEquals(legs, response.legs());
+            verify(weatherClient).getWeather("Hub");
+        }
+
+        @Test
+        @DisplayName("Should reject a long route when a charging stop has unsafe weather")
+        void dispatch_ChargingStopUnsafe_ReturnsRejected() {
+            // Arrange
+            Drone drone = createDrone("Berlin", DroneState.IDLE);
+            when(droneRepository.findById("D-001")).thenReturn(Optional.of(drone));
+
+            when(weatherClient.getWeather("Berlin")).thenReturn(createWeather(52.52, 13.40, 20.0, 5.0, 0));
+            when(weatherClient.getWeather("Hub")).thenReturn(createWeather(52.52, 13.60, 20.0, 45.0, 0));
+            when(weatherClient.getWeather("Far Away")).thenReturn(createWeather(52.52, 13.80, 20.0, 5.0, 0));
+
+            when(routePlanner.plan(eq("Berlin"), anyDouble(), anyDouble(), eq("Far Away"), anyDouble(), anyDouble()))
+                    .thenReturn(Optional.of(List.of(new RouteLeg("Berlin", "Hub", 13.5, 52.52, 13.40, 52.52, 13.60), new RouteLeg("Hub", "Far Away", 13.5, 52.52, 13.60, 52.52, 13.80))));
+
+            // Act
+            DispatchResponse response = dispatchService.dispatchDrone(createRequest("Berlin", "Far Away"));
+
+            // Assert
+            assertEquals(Status.REJECTED, response.status());
+            assertTrue(response.reason().contains("charging stop Hub"));
+            verify(droneRepository, never()).claim(any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent Dispatches")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("Should approve only one of two concurrent dispatches claiming the same drone")
+        void dispatch_SameDroneConcurrently_ApprovesOnce() throws Exception {
+            // Arrange: both requests pass the early checks and wait on each other at the weather call
+            Drone drone = createDrone("Berlin", DroneState.IDLE);
+            when(droneRepository.findById("D-001")).thenReturn(Optional.of(drone));
+            when(droneRepository.claim(eq("D-001"), eq("Potsdam"), any())).thenReturn(1, 0);
+            when(droneRepository.findStateById("D-001")).thenReturn(Optional.of(DroneState.IN_FLIGHT));
+
+            CyclicBarrier bothChecked = new CyclicBarrier(2);
+            WeatherApiResponse calm = createWeather(52.52, 13.40, 20.0, 5.0, 0);
+            when(weatherClient.getWeather("Berlin")).thenAnswer(invocation -> {
+                bothChecked.await(5, TimeUnit.SECONDS);
+                return calm;
+            });
+            when(weatherClient.getWeather("Potsdam")).thenReturn(createWeather(52.50, 13.35, 20.0, 5.0, 0));
+
+            // Act
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            Future<DispatchResponse> first = pool.submit(() -> dispatchService.dispatchDrone(createRequest("Berlin", "Potsdam")));
+            Future<DispatchResponse> second = pool.submit(() -> dispatchService.dispatchDrone(createRequest("Berlin", "Potsdam")));
+            List<Status> outcomes = List.of(first.get(5, TimeUnit.SECONDS).status(), second.get(5, TimeUnit.SECONDS).status());
+            pool.shutdown();
+
+            // Assert
+            assertEquals(1, outcomes.stream().filter(Status.APPROVED::equals).count());
+            assertEquals(1, outcomes.stream().filter(Status.REJECTED::equals).count());
+            verify(droneRepository, times(2)).claim(eq("D-001"), eq("Potsdam"), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("History")
+    class HistoryTests {
+
+        @Test
+        @DisplayName("Should filter the history by reason code in the database")
+        void getAllHistory_ByReasonCode_UsesCodeQuery() {
+            DispatchRecord rejected = DispatchRecord.builder()
+                    .droneId("D-001").origin("Berlin").destination("Warsaw").status(Status.REJECTED)
+                    .reasonCode(ReasonCode.OUT_OF_RANGE).reasonValue1(520.0).reasonValue2(100.0).build();
+            when(dispatchRepository.findByReasonCodeOrderByTimestampDesc(ReasonCode.OUT_OF_RANGE))
+                    .thenReturn(List.of(rejected));
+
+            List<DispatchHistoryResponse> history = dispatchService.getAllHistory(ReasonCode.OUT_OF_RANGE);
+
+            assertEquals(1, history.size());
+            assertEquals(ReasonCode.OUT_OF_RANGE, history.get(0).reasonCode());
+            assertTrue(history.get(0).reason().startsWith("Destination too far (520"));
+            verify(dispatchRepository, never()).findAll();
+        }
+
+        @Test
+        @DisplayName("Should return the whole history without a reason code")
+        void getAllHistory_WithoutReasonCode_ReturnsAll() {
+            when(dispatchRepository.findAll()).thenReturn(List.of());
+
+            assertTrue(dispatchService.getAllHistory(null).isEmpty());
+            verify(dispatchRepository, never()).findByReasonCodeOrderByTimestampDesc(any());
         }
     }
 }
@@ -1,23 +1,25 @@
 package com.interview.prep.drone_dispatch_service.service;
 
+import com.interview.prep.drone_dispatch_service.config.TelemetryProperties;
 import com.interview.prep.drone_dispatch_service.entity.Drone;
 import com.interview.prep.drone_dispatch_service.entity.DroneModel;
 import com.interview.prep.drone_dispatch_service.entity.DroneState;
 import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.Set;
 
-import static org.junit.jupiter.api.Assertions.assertAll;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,11 +29,25 @@ public class DroneSchedulerTest {
     @Mock
     private DroneRepository droneRepository;
 
+    @Mock
+    private PendingDispatchQueue pendingDispatchQueue;
+
+    @Spy
+    private RegionLocks regionLocks = new RegionLocks(16);
+
+    @Mock
+    private DispatchEventLog eventLog;
+
+    @Spy
+    private TelemetryProperties telemetry = new TelemetryProperties();
+
     @InjectMocks
     private DroneScheduler droneScheduler;
 
-    @Captor
-    private ArgumentCaptor<Drone> droneCaptor;
+    @BeforeEach
+    void nothingClaimedMeanwhile() {
+        lenient().when(droneRepository.updateSimulated(anyString(), any(), any(), anyDouble(), any())).thenReturn(1);
+    }
 
     private Drone createDrone(String id, DroneState state, double battery) {
         return Drone.builder()
@@ -55,19 +71,34 @@ public class DroneSchedulerTest {
             Drone flyingDrone = createDrone("D-001", DroneState.IN_FLIGHT, 100.0);
 
             when(droneRepository.findAll()).thenReturn(List.of(flyingDrone));
+            when(droneRepository.findAllById(List.of("D-001"))).thenReturn(List.of(flyingDrone));
 
             // Act
             droneScheduler.simulateDroneActivity();
 
-            // Assert
-            verify(droneRepository).save(droneCaptor.capture());
+            // Assert: lands (IDLE) with the battery drained by 20%, unless it was claimed in the meantime
+            verify(droneRepository).updateSimulated(
+                    eq("D-001"), eq(DroneState.IN_FLIGHT), eq(DroneState.IDLE), eq(80.0), notNull());
+            verify(droneRepository, never()).save(any());
+            verify(pendingDispatchQueue).onDronesAvailable(Set.of("Base"));
 
-            Drone savedDrone = droneCaptor.getValue();
+            // Logged only once the landing is stored
+            InOrder order = inOrder(droneRepository, eventLog);
+            order.verify(droneRepository).updateSimulated(any(), any(), any(), anyDouble(), any());
+            order.verify(eventLog).recordTransition(flyingDrone, DroneState.IN_FLIGHT);
+        }
+
+        @Test
+        @DisplayName("Should neither land nor log a drone that was claimed in the meantime")
+        void simulate_WhenClaimedMeanwhile_ShouldNotLogTransition() {
+            Drone flyingDrone = createDrone("D-001", DroneState.IN_FLIGHT, 100.0);
+            when(droneRepository.findAll()).thenReturn(List.of(flyingDrone));
+            when(droneRepository.findAllById(List.of("D-001"))).thenReturn(List.of(flyingDrone));
+            when(droneRepository.updateSimulated(anyString(), any(), any(), anyDouble(), any())).thenReturn(0);
 
-            assertAll("Arrival Validations",
-                    () -> assertEquals(DroneState.IDLE, savedDrone.getState(), "Drone should land (IDLE)"),
-                    () -> assertEquals(80.0, savedDrone.getBatteryCapacity(), "Battery should drain by 20%")
-            );
+            droneScheduler.simulateDroneActivity();
+
+            verifyNoInteractions(eventLog, pendingDispatchQueue);
         }
     }
 
@@ -81,19 +112,18 @@ public class DroneSchedulerTest {
             // Arrange
             Drone lowBatteryDrone = createDrone("D-001", DroneState.IDLE, 0.0);
             when(droneRepository.findAll()).thenReturn(List.of(lowBatteryDrone));
+            when(droneRepository.findAllById(List.of("D-001"))).thenReturn(List.of(lowBatteryDrone));
 
             // Act
             droneScheduler.simulateDroneActivity();
 
-            // Assert
-            verify(droneRepository, times(2)).save(droneCaptor.capture());
-
-            Drone finalState = droneCaptor.getValue(); // getValue() gives the latest capture
-
-            assertAll("Low Battery Transition",
-                    () -> assertEquals(DroneState.MAINTENANCE, finalState.getState(), "State should end up in MAINTENANCE"),
-                    () -> assertEquals(25.0, finalState.getBatteryCapacity(), "Battery should have started charging (0 -> 25)")
-            );
+            // Assert: grounded (MAINTENANCE), then charging started in the same tick (0 -> 25)
+            InOrder steps = inOrder(droneRepository);
+            steps.verify(droneRepository).updateSimulated(
+                    eq("D-001"), eq(DroneState.IDLE), eq(DroneState.MAINTENANCE), eq(0.0), notNull());
+            steps.verify(droneRepository).updateSimulated(
+                    eq("D-001"), eq(DroneState.MAINTENANCE), eq(DroneState.MAINTENANCE), eq(25.0), notNull());
+            verifyNoInteractions(pendingDispatchQueue);
         }
     }
 
@@ -107,18 +137,14 @@ public class DroneSchedulerTest {
             // Arrange
             Drone chargingDrone = createDrone("D-001", DroneState.MAINTENANCE, 50.0);
             when(droneRepository.findAll()).thenReturn(List.of(chargingDrone));
+            when(droneRepository.findAllById(List.of("D-001"))).thenReturn(List.of(chargingDrone));
 
             // Act
             droneScheduler.simulateDroneActivity();
 
-            // Assert
-            verify(droneRepository, times(1)).save(droneCaptor.capture());
-
-            Drone savedDrone = droneCaptor.getValue();
-            assertAll("Charging Progress",
-                    () -> assertEquals(DroneState.MAINTENANCE, savedDrone.getState(), "Should stay in MAINTENANCE"),
-                    () -> assertEquals(75.0, savedDrone.getBatteryCapacity(), "Should add 25% charge")
-            );
+            // Assert: stays in MAINTENANCE with 25% added
+            verify(droneRepository).updateSimulated(
+                    eq("D-001"), eq(DroneState.MAINTENANCE), eq(DroneState.MAINTENANCE), eq(75.0), any());
         }
 
         @Test
@@ -127,20 +153,30 @@ public class DroneSchedulerTest {
             // Arrange
             Drone almostFullDrone = createDrone("D-001", DroneState.MAINTENANCE, 90.0);
             when(droneRepository.findAll()).thenReturn(List.of(almostFullDrone));
+            when(droneRepository.findAllById(List.of("D-001"))).thenReturn(List.of(almostFullDrone));
 
             // Act
             droneScheduler.simulateDroneActivity();
 
-            // Assert
-            verify(droneRepository, times(1)).save(droneCaptor.capture());
-
-            Drone savedDrone = droneCaptor.getValue();
-            assertAll("Charging Completion",
-                    () -> assertEquals(DroneState.IDLE, savedDrone.getState(), "Should return to service (IDLE)"),
-                    () -> assertEquals(100.0, savedDrone.getBatteryCapacity(), "Battery should be capped at 100%")
-            );
+            // Assert: returns to service (IDLE) with the battery capped at 100%
+            verify(droneRepository).updateSimulated(
+                    eq("D-001"), eq(DroneState.MAINTENANCE), eq(DroneState.IDLE), eq(100.0), notNull());
+            verify(pendingDispatchQueue).onDronesAvailable(Set.of("Base"));
         }
     }
 
+    @Nested
+    @DisplayName("Scenario 4: Real Telemetry")
+    class TelemetryTests {
+
+        @Test
+        @DisplayName("Should leave landings and battery to the drones when telemetry is enabled")
+        void simulate_WhenTelemetryEnabled_ShouldDoNothing() {
+            telemetry.setEnabled(true);
+
+            droneScheduler.simulateDroneActivity();
 
+            verifyNoInteractions(droneRepository, eventLog, pendingDispatchQueue);
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.interview.prep.drone_dispatch_service.dto.DispatchHistoryResponse;
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+import com.interview.prep.drone_dispatch_service.entity.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes and serialization CPU per 10k rows for the bulk endpoints. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("Bulk Endpoint Encoding Benchmark")
+public class EncodingBenchmarkTest {
+
+    private static final int ROWS = 10_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+    private static final String[] CITIES = {"Berlin", "Warsaw", "London", "Istanbul", "Potsdam", "Paris"};
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private Map<String, ObjectMapper> mappers() {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        mappers.put("cbor", new Jackson2ObjectMapperBuilder().factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        mappers.put("smile", new Jackson2ObjectMapperBuilder().factory(new SmileFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        return mappers;
+    }
+
+    private List<DispatchHistoryResponse> historyRows() {
+        List<DispatchHistoryResponse> rows = new ArrayList<>(ROWS);
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        for (int i = 0; i < ROWS; i++) {
+            boolean approved = i % 3 != 0;
+            rows.add(new DispatchHistoryResponse(
+                    String.format("D-%03d", i % 500),
+                    CITIES[i % CITIES.length],
+                    CITIES[(i + 1) % CITIES.length],
+                    approved ? Status.APPROVED : Status.REJECTED,
+                    approved ? "Flight approved. Conditions optimal." : "Unsafe takeoff conditions in Origin Data.",
+                    approved ? ReasonCode.APPROVED : ReasonCode.UNSAFE_ORIGIN,
+                    12.5 + (i % 20),
+                    11.0 + (i % 15),
+                    start.plusSeconds(i * 37L)));
+        }
+        return rows;
+    }
+
+    private List<DroneResponse> fleetRows() {
+        String[] models = {"LIGHTWEIGHT", "MIDDLEWEIGHT", "CRUISERWEIGHT", "HEAVYWEIGHT"};
+        String[] states = {"IDLE", "IN_FLIGHT", "MAINTENANCE"};
+        List<DroneResponse> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new DroneResponse(String.format("D-%05d", i), models[i % models.length],
+                    (double) (i % 101), states[i % states.length], CITIES[i % CITIES.length]));
+        }
+        return rows;
+    }
+
+    @Test
+    @DisplayName("Binary encodings should beat JSON on bytes per 10k rows")
+    void compareEncodings() throws IOException {
+        Map<String, List<?>> payloads = new LinkedHashMap<>();
+        payloads.put("history", historyRows());
+        payloads.put("fleet", fleetRows());
+
+        System.out.printf("%-8s %-6s %12s %12s %14s %14s%n",
+                "payload", "format", "bytes", "gzip bytes", "encode ms CPU", "gzip ms CPU");
+
+        for (Map.Entry<String, List<?>> payload : payloads.entrySet()) {
+            long jsonBytes = 0;
+            for (Map.Entry<String, ObjectMapper> mapper : mappers().entrySet()) {
+                Result result = measure(mapper.getValue(), payload.getValue());
+                System.out.printf("%-8s %-6s %12d %12d %14.2f %14.2f%n", payload.getKey(), mapper.getKey(),
+                        result.bytes, result.gzipBytes, result.encodeCpuMs, result.gzipCpuMs);
+
+                if (mapper.getKey().equals("json")) {
+                    jsonBytes = result.bytes;
+                } else {
+                    assertTrue(result.bytes < jsonBytes,
+                            mapper.getKey() + " should be smaller than JSON for " + payload.getKey());
+                }
+            }
+        }
+    }
+
+    private Result measure(ObjectMapper mapper, List<?> rows) throws IOException {
+        byte[] encoded = null;
+        byte[] compressed = null;
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            gzip(mapper.writeValueAsBytes(rows));
+        }
+
+        long encodeCpu = 0;
+        long gzipCpu = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long t0 = threads.getCurrentThreadCpuTime();
+            encoded = mapper.writeValueAsBytes(rows);
+            long t1 = threads.getCurrentThreadCpuTime();
+            compressed = gzip(encoded);
+            long t2 = threads.getCurrentThreadCpuTime();
+            encodeCpu += t1 - t0;
+            gzipCpu += t2 - t1;
+        }
+
+        return new Result(encoded.length, compressed.length,
+                encodeCpu / 1e6 / MEASURED_ROUNDS, gzipCpu / 1e6 / MEASURED_ROUNDS);
+    }
+
+    private byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private record Result(long bytes, long gzipBytes, double encodeCpuMs, double gzipCpuMs) {}
+}
@@ -0,0 +1,96 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.entity.Drone;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DisplayName("Fleet Search Tests (H2)")
+class FleetSearchTest {
+
+    @Autowired private DroneRepository droneRepository;
+
+    @BeforeEach
+    void createFleet() {
+        droneRepository.saveAll(List.of(
+                new Drone("D-001", DroneModel.LIGHTWEIGHT, 100.0, DroneState.IDLE, "Berlin"),
+                new Drone("D-002", DroneModel.HEAVYWEIGHT, 40.0, DroneState.IDLE, "berlin"),
+                new Drone("D-003", DroneModel.LIGHTWEIGHT, 80.0, DroneState.IN_FLIGHT, "Berlin"),
+                new Drone("D-004", DroneModel.LIGHTWEIGHT, 90.0, DroneState.IDLE, "Warsaw"),
+                new Drone("D-005", DroneModel.MIDDLEWEIGHT, 70.0, DroneState.MAINTENANCE, "Warsaw")));
+    }
+
+    private static List<String> ids(Slice<DroneResponse> slice) {
+        return slice.getContent().stream().map(DroneResponse::id).toList();
+    }
+
+    @Test
+    @DisplayName("Should combine filters and match the location regardless of case")
+    void searchFleet_Filters() {
+        assertEquals(List.of("D-001", "D-002", "D-003"),
+                ids(droneRepository.searchFleet(null, "BERLIN", null, null, Pageable.unpaged())));
+        assertEquals(List.of("D-001", "D-002"),
+                ids(droneRepository.searchFleet(DroneState.IDLE, "Berlin", null, null, Pageable.unpaged())));
+        assertEquals(List.of("D-001", "D-003", "D-004"),
+                ids(droneRepository.searchFleet(null, null, 75.0, DroneModel.LIGHTWEIGHT, Pageable.unpaged())));
+        assertEquals(List.of(),
+                ids(droneRepository.searchFleet(DroneState.MAINTENANCE, "Berlin", null, null, Pageable.unpaged())));
+    }
+
+    @Test
+    @DisplayName("Should find a claimed drone at its destination whatever the case")
+    void searchFleet_AfterClaim_MatchesDestination() {
+        assertEquals(1, droneRepository.claim("D-004", "Potsdam", LocalDateTime.now()));
+
+        assertEquals(List.of("D-004"),
+                ids(droneRepository.searchFleet(null, "POTSDAM", null, null, Pageable.unpaged())));
+    }
+
+    @Test
+    @DisplayName("Should page by id and report whether another page follows")
+    void searchFleet_Pages() {
+        Slice<DroneResponse> first = droneRepository.searchFleet(null, null, null, null, PageRequest.of(0, 2));
+        Slice<DroneResponse> last = droneRepository.searchFleet(null, null, null, null, PageRequest.of(2, 2));
+        Slice<DroneResponse> beyond = droneRepository.searchFleet(null, null, null, null, PageRequest.of(3, 2));
+
+        assertEquals(List.of("D-001", "D-002"), ids(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of("D-005"), ids(last));
+        assertFalse(last.hasNext());
+        assertTrue(beyond.getContent().isEmpty());
+        assertFalse(beyond.hasNext());
+
+        Slice<DroneResponse> all = droneRepository.searchFleet(null, null, null, null, Pageable.unpaged());
+        assertEquals(5, all.getContent().size());
+        assertFalse(all.hasNext());
+    }
+
+    @Test
+    @DisplayName("Should continue after the given id when paging by key")
+    void searchFleet_AfterId() {
+        Slice<DroneResponse> first = droneRepository.searchFleet(DroneState.IDLE, null, null, null, null,
+                PageRequest.of(0, 2));
+        Slice<DroneResponse> next = droneRepository.searchFleet(DroneState.IDLE, null, null, null,
+                first.getContent().get(1).id(), PageRequest.of(0, 2));
+
+        assertEquals(List.of("D-001", "D-002"), ids(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of("D-004"), ids(next));
+        assertFalse(next.hasNext());
+    }
+}
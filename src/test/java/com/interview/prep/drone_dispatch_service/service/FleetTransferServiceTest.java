@@ -0,0 +1,177 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.dto.FleetFormat;
+import com.interview.prep.drone_dispatch_service.dto.FleetImportResponse;
+import com.interview.prep.drone_dispatch_service.entity.Drone;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.exception.FleetImportException;
+import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Each import batch commits on its own
+@DisplayName("Fleet Import/Export Tests (H2)")
+class FleetTransferServiceTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private DroneRepository droneRepository;
+    private PendingDispatchQueue pendingDispatchQueue;
+    private DispatchEventLog eventLog;
+    private FleetTransferService service;
+
+    @BeforeEach
+    void createService() {
+        droneRepository = mock(DroneRepository.class);
+        pendingDispatchQueue = mock(PendingDispatchQueue.class);
+        eventLog = mock(DispatchEventLog.class);
+        service = new FleetTransferService(droneRepository, jdbc,
+                transactionTemplate, new RegionLocks(16),
+                pendingDispatchQueue, eventLog, new ObjectMapper());
+    }
+
+    @AfterEach
+    void clearFleet() {
+        jdbc.update("DELETE FROM drone");
+    }
+
+    private void insertDrone(String id, double battery, String state, String location) {
+        jdbc.update("INSERT INTO drone (id, model, battery_capacity, state, current_location) "
+                + "VALUES (?, 'LIGHTWEIGHT', ?, ?, ?)", id, battery, state, location);
+    }
+
+    private static InputStream lines(String... lines) {
+        return new ByteArrayInputStream((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String locationOf(String id) {
+        return jdbc.queryForObject("SELECT current_location FROM drone WHERE id = ?", String.class, id);
+    }
+
+    @Test
+    @DisplayName("Should insert new drones, update existing ones and report invalid lines")
+    void importCsv_UpsertsAndReportsRejectedLines() throws IOException {
+        insertDrone("D-001", 50.0, "MAINTENANCE", "Berlin");
+
+        FleetImportResponse result = service.importFleet(FleetFormat.CSV, lines(
+                FleetTransferService.CSV_HEADER,
+                "D-001,LIGHTWEIGHT,100.0,IDLE,Warsaw",
+                "D-002,HEAVYWEIGHT,80.5,MAINTENANCE,\"Frankfurt, Oder\"",
+                "",
+                "D-003,JUMBO,90,IDLE,Berlin",
+                "D-004,LIGHTWEIGHT,120,IDLE,Berlin",
+                "D-005,LIGHTWEIGHT,90,IDLE"));
+
+        assertEquals(2, result.imported());
+        assertEquals(3, result.rejected());
+        assertEquals(List.of(
+                "Line 5: Unknown model: JUMBO",
+                "Line 6: Battery capacity must be between 0 and 100",
+                "Line 7: Expected 5 fields but found 4"), result.errors());
+        assertEquals("Warsaw", locationOf("D-001"));
+        assertEquals("IDLE", jdbc.queryForObject("SELECT state FROM drone WHERE id = 'D-001'", String.class));
+        assertEquals("Frankfurt, Oder", locationOf("D-002"));
+        assertNotNull(jdbc.queryForObject("SELECT state_changed_at FROM drone WHERE id = 'D-001'", Timestamp.class));
+
+        ArgumentCaptor<Drone> transitioned = ArgumentCaptor.forClass(Drone.class);
+        verify(eventLog).recordTransition(transitioned.capture(), eq(DroneState.MAINTENANCE));
+        assertEquals(DroneState.IDLE, transitioned.getValue().getState());
+        verify(pendingDispatchQueue).onDronesAvailable(Set.of("Warsaw"));
+    }
+
+    @Test
+    @DisplayName("Should leave drones in flight alone and never put an existing drone in flight")
+    void importCsv_SkipsBusyDrones() throws IOException {
+        insertDrone("D-001", 50.0, "IN_FLIGHT", "Warsaw");
+        insertDrone("D-002", 90.0, "IDLE", "Berlin");
+
+        FleetImportResponse result = service.importFleet(FleetFormat.CSV, lines(
+                FleetTransferService.CSV_HEADER,
+                "D-001,LIGHTWEIGHT,100.0,IDLE,Berlin",
+                "D-002,LIGHTWEIGHT,100.0,IN_FLIGHT,Berlin",
+                "D-003,LIGHTWEIGHT,100.0,MAINTENANCE,Berlin"));
+
+        assertEquals(1, result.imported());
+        assertEquals(List.of(
+                "Line 2: Drone D-001 is in flight",
+                "Line 3: Only a dispatch can put drone D-002 in flight"), result.errors());
+        assertEquals("Warsaw", locationOf("D-001"));
+        assertEquals("IN_FLIGHT", jdbc.queryForObject("SELECT state FROM drone WHERE id = 'D-001'", String.class));
+        assertEquals("IDLE", jdbc.queryForObject("SELECT state FROM drone WHERE id = 'D-002'", String.class));
+        verify(eventLog, never()).recordTransition(any(), any());
+        verify(pendingDispatchQueue, never()).onDronesAvailable(any(Collection.class));
+    }
+
+    @Test
+    @DisplayName("Should import NDJSON across several batches")
+    void importNdjson_SpansBatches() throws IOException {
+        String[] lines = new String[2500];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "{\"id\":\"N-" + i + "\",\"model\":\"MIDDLEWEIGHT\",\"batteryCapacity\":75.0,"
+                    + "\"state\":\"IDLE\",\"currentLocation\":\"Poznan\"}";
+        }
+
+        FleetImportResponse result = service.importFleet(FleetFormat.NDJSON, lines(lines));
+
+        assertEquals(2500, result.imported());
+        assertEquals(0, result.rejected());
+        assertEquals(2500, jdbc.queryForObject("SELECT COUNT(*) FROM drone", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse a CSV file without the expected header")
+    void importCsv_WithoutHeader_Throws() {
+        assertThrows(FleetImportException.class,
+                () -> service.importFleet(FleetFormat.CSV, lines("D-001,LIGHTWEIGHT,100.0,IDLE,Warsaw")));
+    }
+
+    @Test
+    @DisplayName("Should export CSV that imports back unchanged")
+    void exportCsv_RoundTrips() throws IOException {
+        List<DroneResponse> fleet = List.of(
+                new DroneResponse("D-001", "LIGHTWEIGHT", 100.0, "IDLE", "Berlin"),
+                new DroneResponse("D-002", "HEAVYWEIGHT", 42.5, "IN_FLIGHT", "Frankfurt, \"Oder\""));
+        when(droneRepository.streamFleet()).thenReturn(fleet.stream());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportFleet(FleetFormat.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(FleetTransferService.CSV_HEADER + "\n"
+                + "D-001,LIGHTWEIGHT,100.0,IDLE,Berlin\n"
+                + "D-002,HEAVYWEIGHT,42.5,IN_FLIGHT,\"Frankfurt, \"\"Oder\"\"\"\n", csv);
+
+        FleetImportResponse result = service.importFleet(FleetFormat.CSV,
+                new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(2, result.imported());
+        assertEquals("Frankfurt, \"Oder\"", locationOf("D-002"));
+    }
+}
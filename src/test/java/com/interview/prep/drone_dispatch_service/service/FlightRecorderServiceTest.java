@@ -0,0 +1,65 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.FlightRecorderProperties;
+import com.interview.prep.drone_dispatch_service.exception.RecordingUnavailableException;
+import com.interview.prep.drone_dispatch_service.service.DispatchPhaseEvent.Phase;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Flight Recorder Service Tests")
+class FlightRecorderServiceTest {
+
+    private static FlightRecorderProperties enabled() {
+        FlightRecorderProperties properties = new FlightRecorderProperties();
+        properties.setEnabled(true);
+        properties.setThreshold(Duration.ZERO);
+        return properties;
+    }
+
+    @Test
+    @DisplayName("Should dump dispatch phase events with their fields, but no environment or system properties")
+    void dump_ContainsDispatchPhases() throws Exception {
+        FlightRecorderService recorder = new FlightRecorderService(enabled());
+        Path dump = null;
+        try {
+            String result = DispatchPhaseEvent.time(Phase.WEATHER_FETCH, "D-001", "Berlin", () -> "sunny");
+
+            dump = recorder.dump();
+
+            assertEquals("sunny", result);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            assertTrue(events.stream().map(e -> e.getEventType().getName()).noneMatch(name ->
+                    name.equals("jdk.InitialEnvironmentVariable") || name.equals("jdk.InitialSystemProperty")
+                            || name.equals("jdk.JVMInformation")));
+            List<RecordedEvent> phases = events.stream()
+                    .filter(e -> e.getEventType().getName().equals(DispatchPhaseEvent.NAME))
+                    .toList();
+            assertEquals(1, phases.size());
+            RecordedEvent phase = phases.get(0);
+            assertAll("Phase event",
+                    () -> assertEquals("WEATHER_FETCH", phase.getString("phase")),
+                    () -> assertEquals("D-001", phase.getString("droneId")),
+                    () -> assertEquals("Berlin", phase.getString("city")));
+        } finally {
+            recorder.close();
+            if (dump != null) Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to dump when recording is disabled, as it is by default")
+    void dump_WhenDisabled_Throws() {
+        FlightRecorderService recorder = new FlightRecorderService(new FlightRecorderProperties());
+
+        assertThrows(RecordingUnavailableException.class, recorder::dump);
+    }
+}
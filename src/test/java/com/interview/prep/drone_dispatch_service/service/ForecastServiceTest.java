@@ -0,0 +1,110 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.client.WeatherServiceClient;
+import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
+import com.interview.prep.drone_dispatch_service.config.ForecastProperties;
+import com.interview.prep.drone_dispatch_service.dto.DepartureWindow;
+import com.interview.prep.drone_dispatch_service.dto.WeatherApiResponse;
+import com.interview.prep.drone_dispatch_service.loadtest.StubWeatherServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Forecast Departure Window Tests")
+class ForecastServiceTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private StubWeatherServer weatherServer;
+    private ForecastService service;
+
+    @BeforeEach
+    void startWeatherServer() throws IOException {
+        weatherServer = new StubWeatherServer(0, 0, 0.0);
+        service = new ForecastService(new WeatherServiceClient(RestClient.builder(), weatherServer.url()),
+                new DroneConfigProperties(), new ForecastProperties());
+    }
+
+    @AfterEach
+    void stopWeatherServer() {
+        weatherServer.close();
+    }
+
+    // One entry per hour from HOUR on; true means a storm in that hour
+    private static WeatherApiResponse.Hourly forecast(boolean... stormy) {
+        List<LocalDateTime> time = new ArrayList<>();
+        List<Double> temperature = new ArrayList<>();
+        List<Double> wind = new ArrayList<>();
+        List<Integer> code = new ArrayList<>();
+        for (int i = 0; i < stormy.length; i++) {
+            time.add(HOUR.plusHours(i));
+            temperature.add(15.0);
+            wind.add(stormy[i] ? 55.0 : 10.0);
+            code.add(stormy[i] ? 95 : 1);
+        }
+        return new WeatherApiResponse.Hourly(time, temperature, wind, code);
+    }
+
+    @Test
+    @DisplayName("Should return the first hours that are safe at every city")
+    void earliestWindow_CombinesCities() {
+        WeatherApiResponse.Hourly origin = forecast(true, true, false, false, false, true);
+        WeatherApiResponse.Hourly destination = forecast(true, true, true, false, false, false);
+
+        assertEquals(Optional.of(new DepartureWindow(HOUR.plusHours(3), HOUR.plusHours(5))),
+                ForecastService.earliestWindow(new DroneConfigProperties(), HOUR, 5, List.of(origin, destination)));
+        // Safe until the end of the horizon
+        assertEquals(Optional.of(new DepartureWindow(HOUR.plusHours(3), HOUR.plusHours(5))),
+                ForecastService.earliestWindow(new DroneConfigProperties(), HOUR, 4, List.of(destination)));
+        // Hours beyond the forecast count as unsafe
+        assertEquals(Optional.empty(),
+                ForecastService.earliestWindow(new DroneConfigProperties(), HOUR, 5, List.of(forecast(false, true))));
+    }
+
+    @Test
+    @DisplayName("Should fetch the forecast once per city and hour")
+    void earliestSafeWindow_UsesStubForecast() {
+        weatherServer.storm("Potsdam", 3);
+
+        // Forecast times are GMT whatever zone the host runs in
+        TimeZone hostZone = TimeZone.getDefault();
+        Optional<DepartureWindow> window;
+        Optional<DepartureWindow> again;
+        long requests;
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+            window = service.earliestSafeWindow(List.of("Berlin", "Potsdam"));
+            requests = weatherServer.requests();
+            again = service.earliestSafeWindow(List.of("berlin", "POTSDAM"));
+        } finally {
+            TimeZone.setDefault(hostZone);
+        }
+
+        LocalDateTime hour = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        assertTrue(window.isPresent());
+        assertEquals(hour.plusHours(4), window.get().from());
+        assertEquals(hour.plusHours(48), window.get().to()); // The stub forecasts 48 hours from the current one
+        assertEquals(window, again);
+        assertEquals(2, requests);
+        assertEquals(2, weatherServer.requests());
+    }
+
+    @Test
+    @DisplayName("Should give no window when the forecast is unavailable")
+    void earliestSafeWindow_UnknownCity_Empty() {
+        assertEquals(Optional.empty(), service.earliestSafeWindow(List.of("Berlin", "Atlantis")));
+    }
+}
@@ -0,0 +1,114 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.prep.drone_dispatch_service.config.IdempotencyProperties;
+import com.interview.prep.drone_dispatch_service.dto.DispatchRequest;
+import com.interview.prep.drone_dispatch_service.dto.DispatchResponse;
+import com.interview.prep.drone_dispatch_service.entity.Status;
+import com.interview.prep.drone_dispatch_service.exception.IdempotencyKeyMismatchException;
+import com.interview.prep.drone_dispatch_service.repository.IdempotencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Idempotency Key Tests")
+public class IdempotencyServiceTest {
+
+    @Mock private IdempotencyRepository idempotencyRepository;
+
+    private IdempotencyService idempotencyService;
+    private final DispatchRequest request = new DispatchRequest("D-001", "Berlin", "Potsdam");
+
+    @BeforeEach
+    void setup() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(2);
+        idempotencyService = new IdempotencyService(idempotencyRepository, properties, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Should return the cached response for a completed key without re-running the dispatch")
+    void completedKey_ReturnsCachedResponse() {
+        AtomicInteger executions = new AtomicInteger();
+        DispatchResponse approved = new DispatchResponse("D-001", Status.APPROVED, "Flight approved. Conditions optimal.");
+
+        DispatchResponse first = idempotencyService.execute("key-1", request, () -> {
+            executions.incrementAndGet();
+            return approved;
+        });
+        DispatchResponse retry = idempotencyService.execute("key-1", request, () -> {
+            executions.incrementAndGet();
+            return new DispatchResponse("D-001", Status.REJECTED, "Drone D-001 is currently IN_FLIGHT");
+        });
+
+        assertEquals(1, executions.get(), "Dispatch should only run once");
+        assertEquals(first, retry);
+        verifyNoInteractions(idempotencyRepository);
+    }
+
+    @Test
+    @DisplayName("Concurrent duplicates should wait for the in-flight result instead of re-executing")
+    void concurrentDuplicates_ShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        List<Future<DispatchResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> idempotencyService.execute("key-2", request, () -> {
+                executions.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new DispatchResponse("D-001", Status.APPROVED, "Flight approved. Conditions optimal.");
+            })));
+        }
+
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<DispatchResponse> result : results) {
+            assertEquals(Status.APPROVED, result.get(5, TimeUnit.SECONDS).status());
+        }
+        assertEquals(1, executions.get());
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reject a reused key with a different request body")
+    void reusedKeyWithDifferentBody_Throws() {
+        idempotencyService.execute("key-3", request,
+                () -> new DispatchResponse("D-001", Status.APPROVED, "Flight approved. Conditions optimal."));
+
+        DispatchRequest other = new DispatchRequest("D-002", "Berlin", "Potsdam");
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotencyService.execute("key-3", other,
+                () -> new DispatchResponse("D-002", Status.APPROVED, "Flight approved. Conditions optimal.")));
+    }
+
+    @Test
+    @DisplayName("Failed dispatches are not cached so the client can retry")
+    void failedDispatch_IsNotCached() {
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute("key-4", request, () -> {
+            throw new IllegalArgumentException("Drone not found: D-001");
+        }));
+
+        DispatchResponse retry = idempotencyService.execute("key-4", request,
+                () -> new DispatchResponse("D-001", Status.APPROVED, "Flight approved. Conditions optimal."));
+
+        assertEquals(Status.APPROVED, retry.status());
+    }
+}
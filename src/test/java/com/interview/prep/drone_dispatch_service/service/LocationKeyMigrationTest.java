@@ -0,0 +1,53 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.DroneResponse;
+import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // The migration commits as it goes
+@DisplayName("Location Key Migration Tests (H2)")
+class LocationKeyMigrationTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private DroneRepository droneRepository;
+
+    @AfterEach
+    void cleanup() {
+        jdbc.execute("DELETE FROM drone");
+    }
+
+    @Test
+    @DisplayName("Should set the key of drones stored before it existed, so location filters find them")
+    void migrate_FillsMissingKeys() {
+        for (int i = 0; i < 1001; i++) {
+            jdbc.update("""
+                    INSERT INTO drone (id, model, battery_capacity, state, current_location)
+                    VALUES (?, 'LIGHTWEIGHT', 90.0, 'IDLE', ?)""", "D-%04d".formatted(i), i % 2 == 0 ? "Berlin" : "WARSAW");
+        }
+        jdbc.execute("CREATE INDEX idx_drone_location_state ON drone (current_location, state)");
+
+        new LocationKeyMigration(jdbc).migrate();
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM drone WHERE location_key IS NULL", Integer.class));
+        List<DroneResponse> warsaw = droneRepository.searchFleet(null, "Warsaw", null, null, Pageable.unpaged())
+                .getContent();
+        assertEquals(500, warsaw.size());
+        assertEquals("WARSAW", warsaw.get(0).currentLocation());
+        assertEquals(0, jdbc.queryForObject("""
+                SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'IDX_DRONE_LOCATION_STATE'""",
+                Integer.class));
+    }
+}
@@ -0,0 +1,185 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.prep.drone_dispatch_service.client.WeatherServiceClient;
+import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
+import com.interview.prep.drone_dispatch_service.config.EventLogProperties;
+import com.interview.prep.drone_dispatch_service.config.ForecastProperties;
+import com.interview.prep.drone_dispatch_service.config.NoFlyZoneProperties;
+import com.interview.prep.drone_dispatch_service.config.RoutePlanningProperties;
+import com.interview.prep.drone_dispatch_service.dto.DispatchRequest;
+import com.interview.prep.drone_dispatch_service.dto.WeatherApiResponse;
+import com.interview.prep.drone_dispatch_service.entity.Drone;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.repository.DispatchRepository;
+import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
+import com.interview.prep.drone_dispatch_service.repository.WeatherSnapshotRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dispatch throughput with synchronous vs. asynchronous log appenders. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("Dispatch Logging Benchmark")
+public class LoggingBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int DISPATCHES_PER_THREAD = 20_000;
+
+    @TempDir
+    Path logDir;
+
+    private DispatchService createService() {
+        WeatherServiceClient weatherClient = mock(WeatherServiceClient.class, withSettings().stubOnly());
+        DispatchRepository dispatchRepository = mock(DispatchRepository.class, withSettings().stubOnly());
+        DroneRepository droneRepository = mock(DroneRepository.class, withSettings().stubOnly());
+
+        WeatherApiResponse calm = new WeatherApiResponse(new WeatherApiResponse.CurrentWeather(20.0, 5.0, 0), 52.52, 13.40);
+        when(weatherClient.getWeather(anyString())).thenReturn(calm);
+        when(droneRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(droneRepository.findById(anyString())).thenAnswer(invocation -> Optional.of(Drone.builder()
+                .id(invocation.getArgument(0))
+                .model(DroneModel.LIGHTWEIGHT)
+                .batteryCapacity(100.0)
+                .state(DroneState.IDLE)
+                .currentLocation("Berlin")
+                .build()));
+
+        DroneConfigProperties rules = new DroneConfigProperties();
+        RoutePlanner routePlanner = new RoutePlanner(new RoutePlanningProperties(), rules);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(
+                mock(PlatformTransactionManager.class, withSettings().stubOnly()));
+        return new DispatchService(weatherClient, dispatchRepository, droneRepository, rules, routePlanner,
+                new RegionLocks(256), transactionTemplate, new DispatchEventLog(disabledEventLog()),
+                new WeatherSnapshotService(snapshotRepository(), transactionTemplate),
+                new NoFlyZoneService(new NoFlyZoneProperties(), new ObjectMapper()),
+                new ForecastService(weatherClient, rules, new ForecastProperties()));
+    }
+
+    private static WeatherSnapshotRepository snapshotRepository() {
+        WeatherSnapshotRepository repository = mock(WeatherSnapshotRepository.class, withSettings().stubOnly());
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return repository;
+    }
+
+    private static EventLogProperties disabledEventLog() {
+        EventLogProperties properties = new EventLogProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+
+    private Appender<ILoggingEvent> fileAppender(LoggerContext context, String name) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%t] %logger{39} [%X{dispatchId}] : %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setName(name);
+        file.setFile(logDir.resolve(name + ".log").toString());
+        file.setEncoder(encoder);
+        file.start();
+        return file;
+    }
+
+    private Appender<ILoggingEvent> asyncAppender(LoggerContext context, Appender<ILoggingEvent> delegate) {
+        // Same settings as the prod profile in logback-spring.xml
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setName("async-" + delegate.getName());
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(1024);
+        async.setNeverBlock(true);
+        async.setIncludeCallerData(false);
+        async.addAppender(delegate);
+        async.start();
+        return async;
+    }
+
+    private double measure(DispatchService service) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < DISPATCHES_PER_THREAD; i++) {
+                    MDC.put("dispatchId", UUID.randomUUID().toString());
+                    service.dispatchDrone(new DispatchRequest("D-" + (i % 1000), "Berlin", "Potsdam"));
+                    MDC.remove("dispatchId");
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        return THREADS * DISPATCHES_PER_THREAD / seconds;
+    }
+
+    private double run(Logger logger, Appender<ILoggingEvent> appender, DispatchService service) throws Exception {
+        logger.addAppender(appender);
+        try {
+            measure(service); // warm-up
+            return measure(service);
+        } finally {
+            logger.detachAppender(appender);
+            appender.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Compare dispatch throughput with sync and async appenders")
+    void compareAppenders() throws Exception {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logger = context.getLogger(DispatchService.class);
+        Level previousLevel = logger.getLevel();
+        boolean previousAdditivity = logger.isAdditive();
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+
+        try {
+            DispatchService service = createService();
+            double sync = run(logger, fileAppender(context, "sync"), service);
+            double async = run(logger, asyncAppender(context, fileAppender(context, "async")), service);
+
+            System.out.printf("%-8s %12s%n", "appender", "dispatch/s");
+            System.out.printf("%-8s %12.0f%n", "sync", sync);
+            System.out.printf("%-8s %12.0f%n", "async", async);
+        } finally {
+            logger.setLevel(previousLevel);
+            logger.setAdditive(previousAdditivity);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.NoFlyZone;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Time per pre-flight airspace check against 40k zones spread over Europe. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("No-Fly Zone Benchmark")
+public class NoFlyZoneBenchmarkTest {
+
+    private static final int ZONES = 40_000;
+    private static final int CHECKS = 200_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    @DisplayName("Check 100 km legs against 40k zones")
+    void checkAgainstFortyThousandZones() {
+        Random random = new Random(11);
+        List<NoFlyZone> zones = new ArrayList<>(ZONES);
+        for (int i = 0; i < ZONES; i++) {
+            double lat = 40 + random.nextDouble() * 20;
+            double lon = -5 + random.nextDouble() * 35;
+            if (i % 4 == 0) {
+                double d = 0.01 + random.nextDouble() * 0.05;
+                zones.add(new NoFlyZone("P-" + i, null, null, null, null, List.of(
+                        new double[]{lat, lon}, new double[]{lat, lon + d},
+                        new double[]{lat + d, lon + d}, new double[]{lat + d, lon})));
+            } else {
+                zones.add(new NoFlyZone("C-" + i, null, lat, lon, 0.5 + random.nextDouble() * 4.5, null));
+            }
+        }
+
+        long buildStart = System.nanoTime();
+        NoFlyZoneIndex index = NoFlyZoneIndex.build(zones, 0.1);
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+
+        // Legs of up to about 100 km in random directions
+        double[][] legs = new double[CHECKS][];
+        for (int i = 0; i < CHECKS; i++) {
+            double lat = 40 + random.nextDouble() * 20;
+            double lon = -5 + random.nextDouble() * 35;
+            legs[i] = new double[]{lat, lon, lat + random.nextGaussian() * 0.5, lon + random.nextGaussian() * 0.7};
+        }
+
+        long best = Long.MAX_VALUE;
+        int blocked = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            blocked = 0;
+            for (double[] leg : legs) {
+                if (index.firstCrossing(leg[0], leg[1], leg[2], leg[3]) != null) blocked++;
+            }
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+
+        double microsPerCheck = best / 1_000.0 / CHECKS;
+        System.out.printf("no-fly index: %d zones built in %d ms, %.2f us per check, %d of %d legs blocked%n",
+                ZONES, buildMs, microsPerCheck, blocked, CHECKS);
+        assertTrue(blocked > 0);
+    }
+}
@@ -0,0 +1,89 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.NoFlyZone;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("No-Fly Zone Index Tests")
+class NoFlyZoneIndexTest {
+
+    private static NoFlyZone circle(String id, double lat, double lon, double radiusKm) {
+        return new NoFlyZone(id, null, lat, lon, radiusKm, null);
+    }
+
+    private static NoFlyZone polygon(String id, double[]... vertices) {
+        return new NoFlyZone(id, null, null, null, null, List.of(vertices));
+    }
+
+    @Test
+    @DisplayName("Should find a circle the segment passes through without touching its cell corners")
+    void circle_CrossedMidSegment() {
+        // 3 km around a point half-way between two cities 0.6 degrees apart
+        NoFlyZoneIndex index = NoFlyZoneIndex.build(List.of(circle("AIRPORT", 52.0, 13.3, 3.0)), 0.1);
+
+        assertEquals("AIRPORT", index.firstCrossing(52.0, 13.0, 52.0, 13.6).id());
+        assertEquals("AIRPORT", index.firstCrossing(52.0, 13.6, 52.0, 13.0).id());
+        // 0.05 degrees north is about 5.5 km, outside the radius
+        assertNull(index.firstCrossing(52.05, 13.0, 52.05, 13.6));
+    }
+
+    @Test
+    @DisplayName("Should detect polygons crossed by the path or containing an endpoint")
+    void polygon_CrossedOrContaining() {
+        NoFlyZoneIndex index = NoFlyZoneIndex.build(List.of(polygon("STADIUM",
+                new double[]{52.50, 13.20}, new double[]{52.50, 13.30},
+                new double[]{52.60, 13.30}, new double[]{52.60, 13.20})), 0.1);
+
+        assertAll(
+                () -> assertEquals("STADIUM", index.firstCrossing(52.40, 13.25, 52.70, 13.25).id()),
+                () -> assertEquals("STADIUM", index.firstCrossing(52.55, 13.25, 53.00, 14.00).id()),
+                () -> assertNull(index.firstCrossing(52.40, 13.00, 52.40, 13.60)),
+                // Diagonal just past the corner, through cells the polygon is registered in
+                () -> assertNull(index.firstCrossing(52.44, 13.26, 52.54, 13.36)));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid zones")
+    void build_InvalidZones_Throw() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> NoFlyZoneIndex.build(List.of(circle("A", 52.0, 13.0, 0.0)), 0.1)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> NoFlyZoneIndex.build(List.of(polygon("B", new double[]{52.0, 13.0},
+                                new double[]{52.1, 13.1})), 0.1)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> NoFlyZoneIndex.build(List.of(circle("C", 52.0, 13.0, 1.0),
+                                circle("C", 53.0, 14.0, 1.0)), 0.1)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> NoFlyZoneIndex.build(List.of(circle("D", 95.0, 13.0, 1.0)), 0.1)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> NoFlyZoneIndex.build(List.of(circle("E", 52.0, 13.0, Double.POSITIVE_INFINITY)), 0.1)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> NoFlyZoneIndex.build(List.of(polygon("F", new double[]{52.0, 13.0},
+                                new double[]{52.1, Double.NaN}, new double[]{52.2, 13.0})), 0.1)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> NoFlyZoneIndex.build(List.of(circle("G", 52.0, 13.0, 1.0)), 1e-9)));
+    }
+
+    @Test
+    @DisplayName("Should keep zones too large for the grid out of it and still find them")
+    void build_OversizedZones_CheckedForEverySegment() {
+        NoFlyZoneIndex index = NoFlyZoneIndex.build(List.of(
+                // At the pole the circle spans every longitude
+                circle("POLE", 90.0, 0.0, 50.0),
+                polygon("CONTINENT", new double[]{40.0, -10.0}, new double[]{40.0, 30.0},
+                        new double[]{60.0, 30.0}, new double[]{60.0, -10.0}),
+                circle("AIRPORT", 52.0, 13.3, 3.0)), 0.01);
+
+        assertEquals(3, index.size());
+        assertEquals("POLE", index.firstCrossing(89.8, 100.0, 89.8, 101.0).id());
+        // The registered zone on the path wins over the oversized one around it
+        assertEquals("AIRPORT", index.firstCrossing(52.0, 13.0, 52.0, 13.6).id());
+        assertEquals("CONTINENT", index.firstCrossing(45.0, 0.0, 45.1, 0.1).id());
+        assertNull(index.firstCrossing(20.0, 0.0, 20.1, 0.1));
+    }
+}
@@ -0,0 +1,67 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.prep.drone_dispatch_service.config.NoFlyZoneProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("No-Fly Zone Reload Tests")
+class NoFlyZoneServiceTest {
+
+    private static final String TEGEL = """
+            [{"id": "TXL", "name": "Tegel", "latitude": 52.56, "longitude": 13.29, "radiusKm": 3.0}]""";
+    private static final String STADIUM = """
+            [{"id": "OLY", "polygon": [[52.51, 13.23], [52.51, 13.25], [52.52, 13.25], [52.52, 13.23]]}]""";
+
+    @TempDir
+    Path directory;
+
+    private void write(Path file, String json, long modifiedSecond) throws IOException {
+        Files.writeString(file, json);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(modifiedSecond)));
+    }
+
+    @Test
+    @DisplayName("Should swap in a changed zone file and keep the current zones when it is invalid")
+    void refresh_SwapsOnChange() throws IOException {
+        Path file = directory.resolve("zones.json");
+        write(file, TEGEL, 1_000);
+        NoFlyZoneProperties properties = new NoFlyZoneProperties();
+        properties.setLocation(file.toString());
+        NoFlyZoneService service = new NoFlyZoneService(properties, new ObjectMapper());
+
+        assertEquals("TXL", service.firstCrossing(52.50, 13.29, 52.60, 13.29).id());
+        assertNull(service.firstCrossing(52.515, 13.20, 52.515, 13.30));
+
+        write(file, STADIUM, 2_000);
+        service.refresh();
+
+        assertNull(service.firstCrossing(52.50, 13.29, 52.60, 13.29));
+        assertEquals("OLY", service.firstCrossing(52.515, 13.20, 52.515, 13.30).id());
+
+        write(file, "[{\"id\": \"BROKEN\", \"radiusKm\": 1.0}]", 3_000);
+        service.refresh();
+
+        assertEquals(1, service.zones().size());
+        assertEquals("OLY", service.zones().get(0).id());
+    }
+
+    @Test
+    @DisplayName("Should enforce nothing without a zone file")
+    void noFile_NoZones() {
+        NoFlyZoneService service = new NoFlyZoneService(new NoFlyZoneProperties(), new ObjectMapper());
+        service.refresh();
+
+        assertNull(service.firstCrossing(52.50, 13.29, 52.60, 13.29));
+        assertTrue(service.zones().isEmpty());
+    }
+}
@@ -0,0 +1,155 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.DispatchQueueProperties;
+import com.interview.prep.drone_dispatch_service.dto.*;
+import com.interview.prep.drone_dispatch_service.entity.DroneModel;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.entity.Status;
+import com.interview.prep.drone_dispatch_service.exception.DispatchQueueFullException;
+import com.interview.prep.drone_dispatch_service.repository.DroneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pending Dispatch Queue Tests")
+public class PendingDispatchQueueTest {
+
+    @Mock private DispatchService dispatchService;
+    @Mock private DroneRepository droneRepository;
+
+    private DispatchQueueProperties properties;
+    private PendingDispatchQueue queue;
+
+    @BeforeEach
+    void setup() {
+        properties = new DispatchQueueProperties();
+        properties.setCapacityPerCity(2);
+        // Drains run on the calling thread, so tests can assert right after the availability signal
+        queue = new PendingDispatchQueue(dispatchService, droneRepository, properties, Runnable::run);
+    }
+
+    private void idleDrones(DroneResponse... drones) {
+        when(droneRepository.searchFleet(eq(DroneState.IDLE), eq("Berlin"), anyDouble(), isNull(), any()))
+                .thenReturn(new SliceImpl<>(List.of(drones)));
+    }
+
+    private QueuedDispatchRequest request(int priority) {
+        return new QueuedDispatchRequest("Berlin", "Potsdam", 2.0, priority);
+    }
+
+    @Test
+    @DisplayName("Should queue the request and dispatch it once a drone lands in the city")
+    void enqueue_NoDrone_AssignsOnAvailability() {
+        idleDrones();
+        TicketResponse ticket = queue.enqueue(request(0));
+        CompletableFuture<TicketResponse> subscription = queue.awaitTicket(ticket.ticketId());
+
+        assertEquals(TicketStatus.QUEUED, ticket.status());
+        assertEquals(0, ticket.position());
+
+        idleDrones(new DroneResponse("D-001", DroneModel.LIGHTWEIGHT, 80.0, DroneState.IDLE, "Berlin"));
+        DispatchResponse approved = new DispatchResponse("D-001", Status.APPROVED, "Flight approved. Conditions optimal.");
+        when(dispatchService.dispatchDrone(new DispatchRequest("D-001", "Berlin", "Potsdam"))).thenReturn(approved);
+
+        queue.onDronesAvailable(List.of("Berlin"));
+
+        TicketResponse polled = queue.getTicket(ticket.ticketId());
+        assertEquals(TicketStatus.COMPLETED, polled.status());
+        assertEquals(approved, polled.dispatch());
+        assertTrue(subscription.isDone());
+        assertEquals(TicketStatus.COMPLETED, subscription.join().status());
+    }
+
+    @Test
+    @DisplayName("Should serve higher priority first and shed the lowest when the queue is full")
+    void enqueue_QueueFull_ShedsLowestPriority() {
+        idleDrones();
+        TicketResponse low = queue.enqueue(request(1));
+        TicketResponse mid = queue.enqueue(request(5));
+        TicketResponse high = queue.enqueue(request(9));
+
+        assertEquals(0, high.position());
+        assertEquals(TicketStatus.SHED, queue.getTicket(low.ticketId()).status());
+        assertEquals(1, queue.getTicket(mid.ticketId()).position());
+
+        // A newcomer below everything queued is turned away instead
+        assertThrows(DispatchQueueFullException.class, () -> queue.enqueue(request(0)));
+        verifyNoInteractions(dispatchService);
+    }
+
+    @Test
+    @DisplayName("Should skip drones that cannot carry the payload")
+    void onDronesAvailable_OnlyLightDrone_KeepsHeavyRequestQueued() {
+        idleDrones();
+        TicketResponse heavy = queue.enqueue(new QueuedDispatchRequest("Berlin", "Potsdam", 30.0, 0));
+
+        idleDrones(new DroneResponse("D-001", DroneModel.LIGHTWEIGHT, 100.0, DroneState.IDLE, "Berlin"));
+        queue.onDronesAvailable(List.of("Berlin"));
+
+        assertEquals(TicketStatus.QUEUED, queue.getTicket(heavy.ticketId()).status());
+        verifyNoInteractions(dispatchService);
+    }
+
+    @Test
+    @DisplayName("Should not hold the queue while a dispatch waits on the weather service")
+    void onDronesAvailable_DispatchesOutsideQueueLock() throws Exception {
+        idleDrones();
+        TicketResponse ticket = queue.enqueue(request(0));
+
+        idleDrones(new DroneResponse("D-001", DroneModel.LIGHTWEIGHT, 80.0, DroneState.IDLE, "Berlin"));
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch weatherAnswers = new CountDownLatch(1);
+        when(dispatchService.dispatchDrone(any())).thenAnswer(invocation -> {
+            dispatching.countDown();
+            weatherAnswers.await();
+            return new DispatchResponse("D-001", Status.APPROVED, "Flight approved. Conditions optimal.");
+        });
+
+        CompletableFuture<Void> drain = CompletableFuture.runAsync(() -> queue.onDronesAvailable(List.of("Berlin")));
+        assertTrue(dispatching.await(5, TimeUnit.SECONDS));
+
+        // Polling and enqueueing take the queue lock; neither may wait for the running dispatch
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertEquals(TicketStatus.QUEUED, queue.getTicket(ticket.ticketId()).status());
+            assertEquals(TicketStatus.QUEUED, queue.enqueue(request(0)).status());
+        });
+
+        weatherAnswers.countDown();
+        drain.get(5, TimeUnit.SECONDS);
+        assertEquals(TicketStatus.COMPLETED, queue.getTicket(ticket.ticketId()).status());
+        // The second ticket was not handed the drone that was still being dispatched
+        verify(dispatchService, times(1)).dispatchDrone(any());
+    }
+
+    @Test
+    @DisplayName("Should keep a resolved ticket pollable for the TTL after it resolved, not after it was queued")
+    void evictExpired_KeepsRecentlyResolvedTicket() throws InterruptedException {
+        properties.setTicketTtl(Duration.ofMillis(200));
+        idleDrones();
+        TicketResponse ticket = queue.enqueue(request(0));
+        Thread.sleep(300); // Queued for longer than the TTL, but resolved just now
+
+        idleDrones(new DroneResponse("D-001", DroneModel.LIGHTWEIGHT, 80.0, DroneState.IDLE, "Berlin"));
+        when(dispatchService.dispatchDrone(any()))
+                .thenReturn(new DispatchResponse("D-001", Status.APPROVED, "Flight approved. Conditions optimal."));
+        queue.onDronesAvailable(List.of("Berlin"));
+        queue.evictExpired();
+
+        assertEquals(TicketStatus.COMPLETED, queue.getTicket(ticket.ticketId()).status());
+    }
+}
@@ -0,0 +1,141 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Rate Limiter Tests")
+public class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private RateLimitProperties properties;
+    private RateLimiter rateLimiter;
+
+    private RateLimitProperties.Policy policy(int capacity, double refillPerSecond) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setCapacity(capacity);
+        policy.setRefillPerSecond(refillPerSecond);
+        return policy;
+    }
+
+    @BeforeEach
+    void setup() {
+        properties = new RateLimitProperties();
+        properties.setDefaultPolicy(policy(3, 1));
+        properties.setPolicies(Map.of("partner-key", policy(10, 5)));
+        properties.setMaxTrackedKeys(2);
+        properties.setIdleEviction(Duration.ofSeconds(60));
+        rateLimiter = new RateLimiter(properties);
+    }
+
+    @Test
+    @DisplayName("Should allow a burst up to capacity, then refill at the configured rate")
+    void tryAcquire_BurstThenRefill() {
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client-a", now));
+        }
+
+        long wait = rateLimiter.tryAcquire("client-a", now);
+        assertEquals(SECOND, wait, "Next token arrives after one refill interval");
+
+        assertEquals(0, rateLimiter.tryAcquire("client-a", now + wait));
+        assertTrue(rateLimiter.tryAcquire("client-a", now + wait) > 0);
+    }
+
+    @Test
+    @DisplayName("Should apply the per-key policy and keep clients independent")
+    void tryAcquire_PerKeyPolicy() {
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("partner-key", now));
+        }
+        assertTrue(rateLimiter.tryAcquire("partner-key", now) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("client-b", now));
+    }
+
+    @Test
+    @DisplayName("Should evict idle buckets and share an overflow bucket when the map is full")
+    void tryAcquire_BoundedMap() {
+        long now = 1_000 * SECOND;
+        rateLimiter.tryAcquire("client-a", now);
+        rateLimiter.tryAcquire("client-b", now);
+
+        // Map is full and nothing is idle yet: newcomers share the overflow bucket
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("newcomer-" + i, now));
+        }
+        assertTrue(rateLimiter.tryAcquire("newcomer-3", now) > 0);
+        assertEquals(2, rateLimiter.trackedKeys());
+
+        // Long after both buckets refilled they are evicted and new clients get their own buckets again
+        long later = now + 120 * SECOND;
+        assertEquals(0, rateLimiter.tryAcquire("client-c", later));
+        assertEquals(1, rateLimiter.trackedKeys());
+    }
+
+    @Test
+    @DisplayName("Should limit unknown API keys by remote address, so rotating keys gains nothing")
+    void clientKey_UnknownKey_LimitedByAddress() {
+        long now = 1_000 * SECOND;
+        assertEquals("partner-key", rateLimiter.clientKey("partner-key", "10.0.0.1"));
+        assertEquals("ip:10.0.0.1", rateLimiter.clientKey(null, "10.0.0.1"));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(rateLimiter.clientKey("made-up-" + i, "10.0.0.1"), now));
+        }
+        assertTrue(rateLimiter.tryAcquire(rateLimiter.clientKey("made-up-3", "10.0.0.1"), now) > 0);
+        assertEquals(1, rateLimiter.trackedKeys());
+    }
+
+    @Test
+    @DisplayName("Should keep configured keys in their own bucket when the address map is full")
+    void tryAcquire_ConfiguredKey_NeverOverflows() {
+        long now = 1_000 * SECOND;
+        rateLimiter.tryAcquire("ip:10.0.0.1", now);
+        rateLimiter.tryAcquire("ip:10.0.0.2", now);
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("ip:10.0.1." + i, now); // Drains the shared overflow bucket
+        }
+
+        assertEquals(0, rateLimiter.tryAcquire("partner-key", now));
+        assertEquals(2, rateLimiter.trackedKeys());
+    }
+
+    @Test
+    @DisplayName("Should never hand out more tokens than the bucket holds under contention")
+    void tryAcquire_Concurrent_NoOverAdmission() throws Exception {
+        properties.setDefaultPolicy(policy(100, 0.001));
+        RateLimiter limiter = new RateLimiter(properties);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    if (limiter.tryAcquire("shared") == 0) granted.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) future.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(100, granted.get());
+    }
+}
@@ -0,0 +1,92 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.DispatchReason;
+import com.interview.prep.drone_dispatch_service.entity.DispatchRecord;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+import com.interview.prep.drone_dispatch_service.entity.Status;
+import com.interview.prep.drone_dispatch_service.repository.DispatchRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@DisplayName("Reason Code Migration Tests")
+class ReasonCodeMigrationTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired private DispatchRepository dispatchRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Should parse every stored message back into the code and parameters that render it")
+    void parse_RoundTripsRenderedMessages() {
+        List<DispatchReason> reasons = List.of(
+                DispatchReason.of(ReasonCode.APPROVED),
+                DispatchReason.of(ReasonCode.APPROVED_WITH_STOPS, 3),
+                DispatchReason.of(ReasonCode.DRONE_NOT_AT_ORIGIN, "Frankfurt (Oder)"),
+                DispatchReason.of(ReasonCode.DRONE_NOT_IDLE, "IN_FLIGHT"),
+                DispatchReason.of(ReasonCode.OUT_OF_RANGE, 123.45, 100.0),
+                DispatchReason.of(ReasonCode.UNSAFE_ORIGIN),
+                DispatchReason.of(ReasonCode.UNSAFE_DESTINATION),
+                DispatchReason.of(ReasonCode.UNSAFE_CHARGING_STOP, "Poznan"));
+
+        for (DispatchReason reason : reasons) {
+            String message = reason.render("D-001", "Berlin");
+            assertEquals(reason, ReasonCodeMigration.parse(message), message);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read the old out-of-range message and keep unknown text as LEGACY")
+    void parse_OldAndUnknownMessages() {
+        assertEquals(DispatchReason.of(ReasonCode.OUT_OF_RANGE, 1500.5, 25.0),
+                ReasonCodeMigration.parse("Destination too far (1500,50 km). Max range is 25km."));
+
+        DispatchReason unknown = ReasonCodeMigration.parse("Manual override by operator");
+        assertEquals(ReasonCode.LEGACY, unknown.code());
+        assertEquals("Manual override by operator", unknown.render("D-001", "Berlin"));
+    }
+
+    @Test
+    @DisplayName("Should convert every legacy row across several batches, then serve them by reason code")
+    void migrate_ConvertsAllBatches() {
+        String[] messages = {
+                "Flight approved. Conditions optimal.",
+                "Destination too far (150.00 km). Max range is 100km.",
+                "Manual override by operator"};
+        List<DispatchRecord> legacy = new ArrayList<>();
+        for (int i = 0; i < 1201; i++) { // Two full batches and a partial one
+            legacy.add(DispatchRecord.builder()
+                    .droneId("D-" + i).origin("Berlin").destination("Warsaw")
+                    .status(i % 3 == 0 ? Status.APPROVED : Status.REJECTED)
+                    .reason(messages[i % 3])
+                    .timestamp(NOON.plusMinutes(i))
+                    .build());
+        }
+        dispatchRepository.saveAll(legacy);
+
+        new ReasonCodeMigration(dispatchRepository, transactionTemplate).migrate();
+
+        assertTrue(dispatchRepository.findByReasonCodeIsNull(Pageable.ofSize(1)).isEmpty());
+        List<DispatchRecord> outOfRange = dispatchRepository.findByReasonCodeOrderByTimestampDesc(ReasonCode.OUT_OF_RANGE);
+        assertEquals(400, outOfRange.size());
+        assertEquals("D-1198", outOfRange.get(0).getDroneId()); // Newest first
+        assertEquals(150.0, outOfRange.get(0).getReasonValue1());
+        assertNull(outOfRange.get(0).getReason());
+        List<DispatchRecord> kept = dispatchRepository.findByReasonCodeOrderByTimestampDesc(ReasonCode.LEGACY);
+        assertEquals(400, kept.size());
+        assertEquals("Manual override by operator", kept.get(0).getReason());
+    }
+}
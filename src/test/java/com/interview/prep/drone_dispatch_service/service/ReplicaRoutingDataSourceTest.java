@@ -0,0 +1,113 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.ReplicaRoutingDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Read Replica Routing Tests (two H2 instances)")
+public class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    private DataSource h2(String name, String marker) {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        ds.setUser("sa");
+        JdbcTemplate init = new JdbcTemplate(ds);
+        init.execute("CREATE TABLE marker (name VARCHAR(20))");
+        init.execute("CREATE TABLE replica_lag (lag_seconds DOUBLE)");
+        init.update("INSERT INTO marker VALUES (?)", marker);
+        init.update("INSERT INTO replica_lag VALUES (0)");
+        return ds;
+    }
+
+    private void setup(List<DataSource> replicas) {
+        routing = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(5),
+                "SELECT lag_seconds FROM replica_lag");
+        routing.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(txManager);
+        readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String whoAnswers(TransactionTemplate template) {
+        return template.execute(status -> jdbc.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    @BeforeEach
+    void createDatabases() {
+        primary = h2("primary", "primary");
+        replica = h2("replica", "replica");
+    }
+
+    @AfterEach
+    void shutdown() {
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+    }
+
+    @Test
+    @DisplayName("Read-only transactions go to the replica, writes stay on the primary")
+    void routesByTransactionReadOnlyFlag() {
+        setup(List.of(replica));
+
+        assertEquals("replica", whoAnswers(readOnly));
+        assertEquals("primary", whoAnswers(readWrite));
+    }
+
+    @Test
+    @DisplayName("Falls back to the primary once the replica exceeds the staleness bound")
+    void staleReplica_FallsBackToPrimary() {
+        setup(List.of(replica));
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET lag_seconds = 60");
+
+        routing.checkReplicas();
+
+        assertEquals("primary", whoAnswers(readOnly));
+
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET lag_seconds = 1");
+        routing.checkReplicas();
+
+        assertEquals("replica", whoAnswers(readOnly));
+    }
+
+    @Test
+    @DisplayName("Skips replicas that fail their health check and round-robins over the rest")
+    void unhealthyReplica_IsSkipped() {
+        JdbcDataSource unreachable = new JdbcDataSource();
+        unreachable.setURL("jdbc:h2:mem:missing;IFEXISTS=TRUE");
+        DataSource second = h2("replica2", "replica2");
+        setup(List.of(replica, unreachable, second));
+
+        for (int i = 0; i < 6; i++) {
+            String answer = whoAnswers(readOnly);
+            assertEquals(true, answer.equals("replica") || answer.equals("replica2"),
+                    "Read should be served by a healthy replica but was: " + answer);
+        }
+
+        new JdbcTemplate(second).execute("SHUTDOWN");
+    }
+}
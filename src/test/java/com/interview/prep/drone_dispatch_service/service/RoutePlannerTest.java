@@ -0,0 +1,73 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
+import com.interview.prep.drone_dispatch_service.config.RoutePlanningProperties;
+import com.interview.prep.drone_dispatch_service.dto.RouteLeg;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Route Planner Tests")
+public class RoutePlannerTest {
+
+    private RoutePlanner routePlanner;
+
+    private RoutePlanningProperties.ChargingHub hub(String name, double lat, double lon) {
+        RoutePlanningProperties.ChargingHub hub = new RoutePlanningProperties.ChargingHub();
+        hub.setName(name);
+        hub.setLatitude(lat);
+        hub.setLongitude(lon);
+        return hub;
+    }
+
+    @BeforeEach
+    void setup() {
+        DroneConfigProperties rules = new DroneConfigProperties();
+        rules.setMaxRangeKm(100.0);
+
+        // Berlin -> Warsaw corridor; "Detour" is reachable but longer than going through Poznan
+        RoutePlanningProperties routing = new RoutePlanningProperties();
+        routing.setHubs(List.of(
+                hub("Frankfurt (Oder)", 52.347, 14.551),
+                hub("Swiebodzin", 52.247, 15.533),
+                hub("Poznan", 52.406, 16.925),
+                hub("Detour", 52.900, 16.200),
+                hub("Konin", 52.223, 18.251),
+                hub("Kutno", 52.230, 19.364),
+                hub("Lowicz", 52.106, 19.945)
+        ));
+        routePlanner = new RoutePlanner(routing, rules);
+    }
+
+    @Test
+    @DisplayName("Should route through charging hubs when the destination is beyond range")
+    void plan_BeyondRange_ReturnsShortestHubRoute() {
+        Optional<List<RouteLeg>> route = routePlanner.plan("Berlin", 52.52, 13.40, "Warsaw", 52.23, 21.01);
+
+        assertTrue(route.isPresent());
+        List<String> stops = route.get().stream().map(RouteLeg::to).toList();
+        assertEquals(List.of("Frankfurt (Oder)", "Swiebodzin", "Poznan", "Konin", "Kutno", "Lowicz", "Warsaw"), stops);
+        assertEquals("Berlin", route.get().get(0).from());
+        route.get().forEach(leg -> assertTrue(leg.distanceKm() <= 100.0, "Leg exceeds range: " + leg));
+    }
+
+    @Test
+    @DisplayName("Should return a single leg when the destination is in direct range")
+    void plan_InRange_ReturnsDirectLeg() {
+        Optional<List<RouteLeg>> route = routePlanner.plan("Berlin", 52.52, 13.40, "Potsdam", 52.39, 13.06);
+
+        assertTrue(route.isPresent());
+        assertEquals(1, route.get().size());
+    }
+
+    @Test
+    @DisplayName("Should return empty when no chain of hubs reaches the destination")
+    void plan_Unreachable_ReturnsEmpty() {
+        assertTrue(routePlanner.plan("Berlin", 52.52, 13.40, "Istanbul", 41.01, 28.97).isEmpty());
+    }
+}
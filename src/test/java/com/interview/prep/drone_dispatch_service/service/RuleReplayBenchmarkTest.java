@@ -0,0 +1,73 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
+import com.interview.prep.drone_dispatch_service.dto.ReplayReport;
+import com.interview.prep.drone_dispatch_service.dto.ReplayRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Wall time to replay 1M stored decisions from an in-memory H2 database. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Rule Replay Benchmark")
+public class RuleReplayBenchmarkTest {
+
+    private static final int RECORDS = 1_000_000;
+    private static final int MEASURED_ROUNDS = 3;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Replay 1M dispatch decisions")
+    void replayOneMillion() {
+        // A snapshot per city and 15 minutes over a month: wind 0-39 km/h, some storms
+        jdbc.update("""
+                INSERT INTO weather_snapshot (id, city, observed_at, temperature, wind_speed, weather_code)
+                SELECT x, 'city-' || MOD(x, 50), DATEADD(MINUTE, 15 * (x / 50), TIMESTAMP '2026-03-01 00:00:00'),
+                       MOD(x, 30) - 5, MOD(x * 7, 40), CASE WHEN MOD(x, 11) = 0 THEN 61 ELSE 1 END
+                FROM SYSTEM_RANGE(1, 30000)""");
+        jdbc.update("""
+                INSERT INTO dispatch_record (id, drone_id, origin, status, reason_code, distance_km, reason_value1,
+                    origin_weather_id, dest_weather_id, timestamp)
+                SELECT x, 'D-' || MOD(x, 10000), 'City-' || MOD(x, 50),
+                       CASE WHEN MOD(x, 3) = 0 THEN 'REJECTED' ELSE 'APPROVED' END,
+                       CASE WHEN MOD(x, 3) = 0 THEN 'UNSAFE_ORIGIN' ELSE 'APPROVED' END,
+                       MOD(x, 120), NULL, 1 + MOD(x, 30000), 1 + MOD(x * 13, 30000), TIMESTAMP '2026-03-01 12:00:00'
+                FROM SYSTEM_RANGE(1, ?)""", RECORDS);
+
+        RuleReplayService service =
+                new RuleReplayService(jdbc, transactionManager, new DroneConfigProperties(), 2);
+        ReplayRequest candidate = new ReplayRequest(null, 25.0, null, null, null, null);
+        try {
+            service.replay(candidate); // Warm-up
+
+            long best = Long.MAX_VALUE;
+            ReplayReport report = null;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long start = System.nanoTime();
+                report = service.replay(candidate);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+
+            System.out.printf("replay %d decisions: best %d ms, %d flipped%n",
+                    RECORDS, best / 1_000_000, report.total().flipped());
+            assertEquals(RECORDS, report.replayed());
+        } finally {
+            service.close();
+            jdbc.execute("DELETE FROM dispatch_record; DELETE FROM weather_snapshot");
+        }
+    }
+}
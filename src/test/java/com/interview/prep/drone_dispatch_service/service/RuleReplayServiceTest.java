@@ -0,0 +1,135 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.DroneConfigProperties;
+import com.interview.prep.drone_dispatch_service.dto.ConfusionMatrix;
+import com.interview.prep.drone_dispatch_service.dto.ReplayReport;
+import com.interview.prep.drone_dispatch_service.dto.ReplayRequest;
+import com.interview.prep.drone_dispatch_service.entity.ReasonCode;
+import com.interview.prep.drone_dispatch_service.entity.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Replay tasks read on their own connections
+@DisplayName("Rule Replay Tests (H2)")
+class RuleReplayServiceTest {
+
+    private static final LocalDateTime DECIDED_AT = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private RuleReplayService service;
+
+    @BeforeEach
+    void createService() {
+        jdbc.update("""
+                INSERT INTO weather_snapshot (id, city, observed_at, temperature, wind_speed, weather_code)
+                VALUES (1, 'berlin', ?, 15.0, 10.0, 1), (2, 'berlin', ?, 15.0, 25.0, 1), (3, 'warsaw', ?, 5.0, 5.0, 61)""",
+                DECIDED_AT, DECIDED_AT.minusMinutes(15), DECIDED_AT);
+
+        service = new RuleReplayService(jdbc, transactionManager, new DroneConfigProperties(), 2);
+    }
+
+    @AfterEach
+    void clearRecords() {
+        service.close();
+        jdbc.execute("DELETE FROM dispatch_record; DELETE FROM weather_snapshot");
+    }
+
+    private void record(long id, String droneId, String origin, Status status, ReasonCode code,
+                        Double distanceKm, Double value1, Long originWeather, Long destWeather) {
+        jdbc.update("""
+                INSERT INTO dispatch_record (id, drone_id, origin, status, reason_code, distance_km, reason_value1,
+                    origin_weather_id, dest_weather_id, timestamp)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""",
+                id, droneId, origin, status.name(), code.name(), distanceKm, value1, originWeather, destWeather,
+                DECIDED_AT);
+    }
+
+    private static RuleReplayService.Row row(ReasonCode code, Status actual, Double distanceKm) {
+        RuleReplayService.Row row = new RuleReplayService.Row();
+        row.reasonCode = code;
+        row.actual = actual;
+        row.distanceKm = distanceKm;
+        row.originTemp = row.destTemp = 15.0;
+        row.originWind = row.destWind = 10.0;
+        row.originCode = row.destCode = 1;
+        return row;
+    }
+
+    @Test
+    @DisplayName("Should tally flipped decisions per city and drone across forked ranges")
+    void replay_ReportsConfusionMatrices() {
+        record(1, "D-1", "Berlin", Status.APPROVED, ReasonCode.APPROVED, 50.0, null, 1L, 1L);
+        record(2, "D-1", "Berlin", Status.APPROVED, ReasonCode.APPROVED, 50.0, null, 2L, 1L);
+        // Older row: the distance is only known from the rejection reason
+        record(3, "D-2", "Warsaw", Status.REJECTED, ReasonCode.OUT_OF_RANGE, null, 120.0, 1L, 1L);
+        record(4, "D-2", "Warsaw", Status.REJECTED, ReasonCode.DRONE_NOT_IDLE, null, null, null, null);
+        // Far apart, so the id range is split into several tasks
+        record(5 * RuleReplayService.IDS_PER_TASK, "D-3", "Warsaw", Status.REJECTED,
+                ReasonCode.UNSAFE_DESTINATION, 30.0, null, 1L, 3L);
+        record(9 * RuleReplayService.IDS_PER_TASK, "D-3", "Warsaw", Status.APPROVED,
+                ReasonCode.APPROVED, 30.0, null, null, null);
+
+        ReplayReport report = service.replay(new ReplayRequest(150.0, 20.0, null, null, null, null));
+
+        assertEquals(4, report.replayed());
+        assertEquals(2, report.skipped());
+        assertEquals(new ConfusionMatrix(1, 1, 1, 1), report.total());
+        assertEquals(2, report.total().flipped());
+        assertEquals(Map.of(
+                "Berlin", new ConfusionMatrix(1, 1, 0, 0),
+                "Warsaw", new ConfusionMatrix(0, 0, 1, 1)), report.byCity());
+        assertEquals(Map.of(
+                "D-1", new ConfusionMatrix(1, 1, 0, 0),
+                "D-2", new ConfusionMatrix(0, 0, 1, 0)), report.byDrone());
+    }
+
+    @Test
+    @DisplayName("Should only replay decisions inside the requested window")
+    void replay_RespectsWindow() {
+        record(1, "D-1", "Berlin", Status.APPROVED, ReasonCode.APPROVED, 50.0, null, 1L, 1L);
+
+        ReplayReport report = service.replay(
+                new ReplayRequest(null, null, null, null, DECIDED_AT.plusMinutes(1), null));
+
+        assertEquals(0, report.replayed());
+        assertEquals(new ConfusionMatrix(0, 0, 0, 0), report.total());
+    }
+
+    @Test
+    @DisplayName("Should keep hub routes and re-decide flights that no longer need charging stops")
+    void replay_RangeChanges() {
+        DroneConfigProperties shorter = new DroneConfigProperties();
+        shorter.setMaxRangeKm(40.0);
+        DroneConfigProperties longer = new DroneConfigProperties();
+        longer.setMaxRangeKm(200.0);
+
+        assertAll(
+                () -> assertEquals(Status.REJECTED,
+                        RuleReplayService.replay(shorter, row(ReasonCode.APPROVED, Status.APPROVED, 50.0))),
+                () -> assertEquals(Status.APPROVED,
+                        RuleReplayService.replay(shorter, row(ReasonCode.APPROVED_WITH_STOPS, Status.APPROVED, 150.0))),
+                () -> assertEquals(Status.APPROVED,
+                        RuleReplayService.replay(longer, row(ReasonCode.UNSAFE_CHARGING_STOP, Status.REJECTED, 150.0))),
+                () -> assertEquals(Status.REJECTED,
+                        RuleReplayService.replay(shorter, row(ReasonCode.UNSAFE_CHARGING_STOP, Status.REJECTED, 150.0))),
+                // Without a stored distance the range cannot be replayed and only the weather decides
+                () -> assertEquals(Status.APPROVED,
+                        RuleReplayService.replay(shorter, row(ReasonCode.APPROVED, Status.APPROVED, null))));
+    }
+}
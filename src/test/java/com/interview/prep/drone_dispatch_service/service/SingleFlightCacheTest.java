@@ -0,0 +1,80 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Single-Flight Cache Tests")
+class SingleFlightCacheTest {
+
+    @Test
+    @DisplayName("Should load a key once while concurrent callers wait for it")
+    void get_ConcurrentCallers_LoadOnce() throws Exception {
+        SingleFlightCache<String> cache = new SingleFlightCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.get("Berlin", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "calm";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> cache.get("Berlin", () -> {
+                loads.incrementAndGet();
+                return "other";
+            }));
+            release.countDown();
+
+            assertEquals("calm", first.get(5, TimeUnit.SECONDS));
+            assertEquals("calm", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not keep a failed load, so the next caller retries")
+    void get_FailedLoad_Retried() {
+        SingleFlightCache<String> cache = new SingleFlightCache<>(10);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("Berlin", () -> {
+            throw new IllegalStateException("unavailable");
+        }));
+
+        assertEquals("calm", cache.get("Berlin", () -> "calm"));
+    }
+
+    @Test
+    @DisplayName("Should clear itself when full")
+    void get_Full_Cleared() {
+        SingleFlightCache<String> cache = new SingleFlightCache<>(2);
+        cache.get("Berlin", () -> "calm");
+        cache.get("Warsaw", () -> "calm");
+
+        cache.get("Potsdam", () -> "storm");
+
+        assertEquals(1, cache.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
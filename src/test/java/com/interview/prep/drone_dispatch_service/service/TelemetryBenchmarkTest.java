@@ -0,0 +1,116 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.prep.drone_dispatch_service.config.TelemetryProperties;
+import com.interview.prep.drone_dispatch_service.dto.TelemetryBatch;
+import com.interview.prep.drone_dispatch_service.dto.TelemetryReport;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Telemetry ingestion rate (JSON batches parsed and buffered) from 8 threads for 10k drones, then one flush
+ * into H2. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Telemetry Benchmark")
+public class TelemetryBenchmarkTest {
+
+    private static final int DRONES = 10_000;
+    private static final int THREADS = 8;
+    private static final int BATCH_SIZE = 1000;
+    private static final int BATCHES_PER_THREAD = 500;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void clearDrones() {
+        jdbc.update("DELETE FROM drone");
+    }
+
+    @Test
+    @DisplayName("Ingest 4M reports and flush one row per drone")
+    void ingestAndFlush() throws Exception {
+        List<Object[]> drones = new ArrayList<>();
+        for (int i = 0; i < DRONES; i++) {
+            drones.add(new Object[]{"D-" + i});
+        }
+        jdbc.batchUpdate("INSERT INTO drone (id, model, battery_capacity, state, current_location) "
+                + "VALUES (?, 'LIGHTWEIGHT', 100.0, 'IDLE', 'Berlin')", drones);
+
+        TelemetryProperties properties = new TelemetryProperties();
+        properties.setEnabled(true);
+        properties.setToken("bench");
+        TelemetryService service = new TelemetryService(jdbc, transactionTemplate,
+                mock(PendingDispatchQueue.class), mock(DispatchEventLog.class), properties);
+        ObjectMapper mapper = new ObjectMapper();
+
+        // Pre-encoded request bodies, so the measurement covers parsing and buffering
+        List<byte[]> bodies = new ArrayList<>();
+        for (int b = 0; b < 16; b++) {
+            List<TelemetryReport> reports = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                int drone = (b * BATCH_SIZE + i) % DRONES;
+                reports.add(new TelemetryReport("D-" + drone, (long) b * BATCH_SIZE + i, 50.0 + i % 50,
+                        "Berlin", DroneState.IN_FLIGHT));
+            }
+            bodies.add(mapper.writeValueAsBytes(new TelemetryBatch(reports)));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        try {
+            List<Future<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                tasks.add(pool.submit(() -> {
+                    int accepted = 0;
+                    for (int b = 0; b < BATCHES_PER_THREAD; b++) {
+                        TelemetryBatch batch = mapper.readValue(bodies.get((thread + b) % bodies.size()),
+                                TelemetryBatch.class);
+                        accepted += service.ingest("bench", batch.reports()).accepted();
+                    }
+                    return accepted;
+                }));
+            }
+            for (Future<Integer> task : tasks) {
+                assertEquals(BATCH_SIZE * BATCHES_PER_THREAD, task.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long ingestNanos = System.nanoTime() - start;
+
+        long flushStart = System.nanoTime();
+        int updated = service.flush();
+        long flushMs = (System.nanoTime() - flushStart) / 1_000_000;
+
+        long reports = (long) THREADS * BATCHES_PER_THREAD * BATCH_SIZE;
+        double perSecond = reports / (ingestNanos / 1e9);
+        System.out.printf("telemetry: %d reports in %d ms (%.0f reports/s), flush of %d drones in %d ms%n",
+                reports, ingestNanos / 1_000_000, perSecond, updated, flushMs);
+        assertEquals(DRONES, updated);
+        assertTrue(perSecond > 100_000, "Below 100k reports/s: " + perSecond);
+    }
+}
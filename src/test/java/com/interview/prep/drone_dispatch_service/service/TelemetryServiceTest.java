@@ -0,0 +1,185 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.config.TelemetryProperties;
+import com.interview.prep.drone_dispatch_service.dto.TelemetryReport;
+import com.interview.prep.drone_dispatch_service.dto.TelemetryResponse;
+import com.interview.prep.drone_dispatch_service.entity.DroneState;
+import com.interview.prep.drone_dispatch_service.exception.TelemetryUnauthorizedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Flushes commit on their own
+@DisplayName("Telemetry Ingestion Tests (H2)")
+class TelemetryServiceTest {
+
+    private static final String TOKEN = "gateway-secret";
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private PendingDispatchQueue pendingDispatchQueue;
+    private DispatchEventLog eventLog;
+    private TelemetryProperties properties;
+    private TelemetryService service;
+
+    @BeforeEach
+    void createDrones() {
+        jdbc.update("INSERT INTO drone (id, model, battery_capacity, state, current_location) "
+                + "VALUES ('D-001', 'LIGHTWEIGHT', 100.0, 'IDLE', 'Berlin'), "
+                + "('D-002', 'LIGHTWEIGHT', 100.0, 'IDLE', 'Berlin')");
+
+        pendingDispatchQueue = mock(PendingDispatchQueue.class);
+        eventLog = mock(DispatchEventLog.class);
+        properties = new TelemetryProperties();
+        properties.setEnabled(true);
+        properties.setToken(TOKEN);
+        service = new TelemetryService(jdbc, transactionTemplate, pendingDispatchQueue, eventLog, properties);
+    }
+
+    @AfterEach
+    void clearDrones() {
+        jdbc.update("DELETE FROM drone");
+    }
+
+    private Map<String, Object> drone(String id) {
+        return jdbc.queryForMap("SELECT battery_capacity, current_location, state FROM drone WHERE id = ?", id);
+    }
+
+    @Test
+    @DisplayName("Should write only the newest report per drone, once per flush")
+    void flush_CoalescesReports() {
+        jdbc.update("UPDATE drone SET state = 'IN_FLIGHT', current_location = 'Potsdam' WHERE id = 'D-001'");
+        TelemetryResponse response = service.ingest(TOKEN, List.of(
+                new TelemetryReport("D-001", 1_000L, 90.0, "Berlin", DroneState.IN_FLIGHT),
+                new TelemetryReport("D-001", 3_000L, 70.0, "Potsdam", DroneState.IDLE),
+                new TelemetryReport("D-001", 2_000L, 80.0, "Berlin", DroneState.IN_FLIGHT), // Arrived late
+                new TelemetryReport("D-002", 1_000L, 55.5, "Berlin", DroneState.MAINTENANCE),
+                new TelemetryReport("D-999", 1_000L, 50.0, "Berlin", DroneState.IDLE),     // Unknown drone
+                new TelemetryReport("D-002", 4_000L, 140.0, "Berlin", DroneState.IDLE),    // Invalid battery
+                new TelemetryReport("D-002", 5_000L, 50.0, null, DroneState.IDLE)));       // No location
+
+        assertEquals(new TelemetryResponse(5, 2), response);
+        assertEquals(2, service.flush());
+        assertEquals(Map.of("BATTERY_CAPACITY", 70.0, "CURRENT_LOCATION", "Potsdam", "STATE", "IDLE"), drone("D-001"));
+        assertEquals(Map.of("BATTERY_CAPACITY", 55.5, "CURRENT_LOCATION", "Berlin", "STATE", "MAINTENANCE"),
+                drone("D-002"));
+        verify(pendingDispatchQueue).onDronesAvailable(Set.of("Potsdam"));
+        verify(eventLog).recordTransition(argThat(drone -> drone.getId().equals("D-001")), eq(DroneState.IN_FLIGHT));
+        verify(eventLog).recordTransition(argThat(drone -> drone.getId().equals("D-002")), eq(DroneState.IDLE));
+
+        // Nothing new since, and the unknown drone no longer takes buffer space
+        assertEquals(0, service.flush());
+        assertEquals(2, service.bufferedDrones());
+
+        // A report older than the one written has no effect
+        service.ingest(TOKEN, List.of(new TelemetryReport("D-001", 2_500L, 75.0, "Potsdam", DroneState.IN_FLIGHT)));
+        assertEquals(0, service.flush());
+    }
+
+    @Test
+    @DisplayName("Should not let a report from a drone clock running ahead outrank later reports")
+    void offer_FutureTimestamp_Clamped() {
+        long now = System.currentTimeMillis();
+        service.offer(new TelemetryReport("D-001", now + 3_600_000L, 90.0, "Berlin", DroneState.IDLE), now);
+        assertEquals(1, service.flush());
+
+        // Sent after the skew allowance that the bad report was clamped to
+        long later = now + 10_000L;
+        service.offer(new TelemetryReport("D-001", later, 60.0, "Berlin", DroneState.IDLE), later);
+        assertEquals(1, service.flush());
+        assertEquals(60.0, drone("D-001").get("BATTERY_CAPACITY"));
+    }
+
+    @Test
+    @DisplayName("Should not override a state the service changed after the report was received")
+    void flush_KeepsLaterDispatchClaim() {
+        jdbc.update("UPDATE drone SET state = 'IN_FLIGHT', current_location = 'Warsaw', state_changed_at = ? "
+                + "WHERE id = 'D-001'", LocalDateTime.now().plusMinutes(1));
+
+        service.ingest(TOKEN, List.of(new TelemetryReport("D-001", null, 64.0, "Warsaw", DroneState.IDLE)));
+
+        assertEquals(1, service.flush());
+        assertEquals(Map.of("BATTERY_CAPACITY", 64.0, "CURRENT_LOCATION", "Warsaw", "STATE", "IN_FLIGHT"),
+                drone("D-001"));
+        verifyNoInteractions(eventLog);
+    }
+
+    @Test
+    @DisplayName("Should keep the newest report when many threads report for the same drones")
+    void offer_ConcurrentReports_NewestWins() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                tasks.add(pool.submit(() -> {
+                    for (long ts = thread; ts < 80_000; ts += 8) {
+                        double battery = ts % 100;
+                        service.ingest(TOKEN, List.of(
+                                new TelemetryReport("D-001", ts, battery, "Berlin", DroneState.IN_FLIGHT),
+                                new TelemetryReport("D-002", ts, battery, "Berlin", DroneState.IN_FLIGHT)));
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) task.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(2, service.flush());
+        assertEquals(99.0, drone("D-001").get("BATTERY_CAPACITY")); // Timestamp 79,999
+        assertEquals(99.0, drone("D-002").get("BATTERY_CAPACITY"));
+    }
+
+    @Test
+    @DisplayName("Should not let telemetry claim a drone or move it to another city")
+    void flush_IgnoresTakeOffAndRelocation() {
+        jdbc.update("UPDATE drone SET state = 'MAINTENANCE' WHERE id = 'D-002'");
+        service.ingest(TOKEN, List.of(
+                new TelemetryReport("D-001", 1_000L, 90.0, "Berlin", DroneState.IN_FLIGHT), // Only dispatch claims
+                new TelemetryReport("D-002", 1_000L, 95.0, "Warsaw", DroneState.IDLE)));    // Not where it is
+
+        assertEquals(2, service.flush());
+        assertEquals(Map.of("BATTERY_CAPACITY", 90.0, "CURRENT_LOCATION", "Berlin", "STATE", "IDLE"), drone("D-001"));
+        assertEquals(Map.of("BATTERY_CAPACITY", 95.0, "CURRENT_LOCATION", "Berlin", "STATE", "MAINTENANCE"),
+                drone("D-002"));
+        verifyNoInteractions(eventLog, pendingDispatchQueue);
+    }
+
+    @Test
+    @DisplayName("Should reject reports without the gateway token or while telemetry is disabled")
+    void ingest_WithoutToken_Rejects() {
+        List<TelemetryReport> reports = List.of(new TelemetryReport("D-001", 1_000L, 10.0, "Berlin", DroneState.IDLE));
+
+        assertThrows(TelemetryUnauthorizedException.class, () -> service.ingest(null, reports));
+        assertThrows(TelemetryUnauthorizedException.class, () -> service.ingest("guess", reports));
+        properties.setEnabled(false);
+        assertThrows(TelemetryUnauthorizedException.class, () -> service.ingest(TOKEN, reports));
+        assertEquals(0, service.bufferedDrones());
+    }
+}
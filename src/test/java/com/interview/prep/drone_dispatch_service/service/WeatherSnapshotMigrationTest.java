@@ -0,0 +1,114 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.repository.WeatherSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Schema generated from the entities; the legacy columns are added the way older databases still have them
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // H2 commits on DDL, so no test transaction
+@DisplayName("Weather Snapshot Migration Tests (H2)")
+class WeatherSnapshotMigrationTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private WeatherSnapshotRepository snapshotRepository;
+
+    private WeatherSnapshotMigration migration;
+
+    @BeforeEach
+    void addLegacyColumns() {
+        jdbc.execute("""
+                ALTER TABLE dispatch_record ADD COLUMN origin_temp FLOAT(53);
+                ALTER TABLE dispatch_record ADD COLUMN origin_wind FLOAT(53);
+                ALTER TABLE dispatch_record ADD COLUMN origin_weather_code INTEGER;
+                ALTER TABLE dispatch_record ADD COLUMN dest_temp FLOAT(53);
+                ALTER TABLE dispatch_record ADD COLUMN dest_wind FLOAT(53);
+                ALTER TABLE dispatch_record ADD COLUMN dest_weather_code INTEGER""");
+        migration = new WeatherSnapshotMigration(jdbc,
+                new WeatherSnapshotService(snapshotRepository, transactionTemplate));
+    }
+
+    @AfterEach
+    void dropLegacyColumns() {
+        jdbc.execute("DELETE FROM dispatch_record; DELETE FROM weather_snapshot");
+        jdbc.execute("""
+                ALTER TABLE dispatch_record DROP COLUMN origin_temp, origin_wind, origin_weather_code,
+                    dest_temp, dest_wind, dest_weather_code""");
+    }
+
+    private void insertLegacy(long id, LocalDateTime timestamp, double originTemp, double originWind, int originCode) {
+        jdbc.update("""
+                INSERT INTO dispatch_record (id, drone_id, origin, destination, timestamp,
+                    origin_temp, origin_wind, origin_weather_code, dest_temp, dest_wind, dest_weather_code)
+                VALUES (?, 'D-001', 'Berlin', 'Warsaw', ?, ?, ?, ?, 5.0, 12.0, 3)""",
+                id, timestamp, originTemp, originWind, originCode);
+    }
+
+    private Map<String, Object> weatherOf(long recordId, String side) {
+        return jdbc.queryForMap("""
+                SELECT s.observed_at, s.temperature, s.wind_speed, s.weather_code
+                FROM dispatch_record r JOIN weather_snapshot s ON s.id = r.%s_weather_id
+                WHERE r.id = ?""".formatted(side), recordId);
+    }
+
+    @Test
+    @DisplayName("Should keep each record's own values and share snapshots only between identical readings")
+    void migrate_KeepsRecordedValues() {
+        insertLegacy(1, NOON, 15.0, 10.0, 1);
+        insertLegacy(2, NOON.plusMinutes(5), 15.0, 10.0, 1);   // Same reading, same interval
+        insertLegacy(3, NOON.plusMinutes(6), 3.0, 25.0, 61);   // Changed within the interval
+        insertLegacy(4, NOON.plusMinutes(6), 4.0, 25.0, 61);   // Other values at the very same time
+
+        migration.migrate();
+
+        Map<String, Object> first = weatherOf(1, "origin");
+        assertEquals(NOON, ((Timestamp) first.get("OBSERVED_AT")).toLocalDateTime());
+        assertEquals(15.0, first.get("TEMPERATURE"));
+        assertEquals(10.0, first.get("WIND_SPEED"));
+        assertEquals(first, weatherOf(2, "origin"));
+        assertEquals(3.0, weatherOf(3, "origin").get("TEMPERATURE"));
+        assertEquals(61, weatherOf(3, "origin").get("WEATHER_CODE"));
+        assertEquals(5.0, weatherOf(3, "dest").get("TEMPERATURE"));
+
+        // Record 4 cannot be stored as observed, so it is left for inspection rather than re-pointed
+        Map<String, Object> skipped = jdbc.queryForMap(
+                "SELECT origin_weather_id, origin_temp FROM dispatch_record WHERE id = 4");
+        assertNull(skipped.get("ORIGIN_WEATHER_ID"));
+        assertEquals(4.0, skipped.get("ORIGIN_TEMP"));
+
+        List<Double> cleared = jdbc.queryForList(
+                "SELECT origin_temp FROM dispatch_record WHERE id < 4 AND origin_temp IS NOT NULL", Double.class);
+        assertTrue(cleared.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should widen the city column of older databases so long city names can be stored")
+    void widenCity_LongCityStored() {
+        jdbc.execute("ALTER TABLE weather_snapshot ALTER COLUMN city SET DATA TYPE VARCHAR(64)");
+        String city = "Llanfairpwllgwyngyllgogerychwyrndrobwllllantysiliogogogoch, Anglesey, Wales";
+
+        migration.widenCity();
+        migration.widenCity(); // Already wide enough
+
+        new WeatherSnapshotService(snapshotRepository, transactionTemplate).snapshotOf(city, NOON, 15.0, 10.0, 1);
+        assertEquals(city.toLowerCase(), jdbc.queryForObject("SELECT city FROM weather_snapshot", String.class));
+    }
+}
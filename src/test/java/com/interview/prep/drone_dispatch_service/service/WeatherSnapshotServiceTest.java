@@ -0,0 +1,115 @@
+package com.interview.prep.drone_dispatch_service.service;
+
+import com.interview.prep.drone_dispatch_service.dto.WeatherApiResponse;
+import com.interview.prep.drone_dispatch_service.entity.WeatherSnapshot;
+import com.interview.prep.drone_dispatch_service.repository.WeatherSnapshotRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Weather Snapshot Service Tests")
+class WeatherSnapshotServiceTest {
+
+    private static final LocalDateTime OBSERVED_AT = LocalDateTime.of(2026, 3, 1, 12, 15);
+
+    @Mock
+    private WeatherSnapshotRepository repository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private WeatherSnapshotService service;
+
+    private WeatherApiResponse weather(LocalDateTime time) {
+        return new WeatherApiResponse(new WeatherApiResponse.CurrentWeather(15.0, 10.0, 1, time), 52.52, 13.40);
+    }
+
+    @Test
+    @DisplayName("Should store an observation once and share it between dispatches")
+    void sameObservation_IsStoredOnce() {
+        when(repository.findByCityAndObservedAt("berlin", OBSERVED_AT)).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
+            WeatherSnapshot snapshot = invocation.getArgument(0);
+            snapshot.setId(1L);
+            return snapshot;
+        });
+
+        WeatherSnapshot first = service.snapshotOf("Berlin", weather(OBSERVED_AT));
+        WeatherSnapshot second = service.snapshotOf("berlin", weather(OBSERVED_AT));
+
+        assertSame(first, second);
+        assertEquals("berlin", first.getCity());
+        assertEquals(15.0, first.getTemperature());
+        verify(repository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Should use the row stored by a concurrent writer when the insert conflicts")
+    void concurrentInsert_ReadsExistingRow() {
+        WeatherSnapshot stored = WeatherSnapshot.builder().id(7L).city("berlin").observedAt(OBSERVED_AT).build();
+        when(repository.findByCityAndObservedAt("berlin", OBSERVED_AT))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(stored));
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_weather_snapshot_city_time"));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+
+        assertSame(stored, service.snapshotOf("Berlin", weather(OBSERVED_AT)));
+        // The conflicting row is re-read in a read-write transaction, which goes to the primary
+        verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    @DisplayName("Should give readings without a time their own snapshot unless the values are identical")
+    void untimedReadings_ShareOnlyIdenticalValues() {
+        when(repository.findByCityAndObservedAt(eq("berlin"), any())).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        WeatherSnapshot first = service.snapshotReceivedAt("Berlin", OBSERVED_AT, 15.0, 10.0, 1);
+        WeatherSnapshot same = service.snapshotReceivedAt("Berlin", OBSERVED_AT.plusMinutes(5), 15.0, 10.0, 1);
+        WeatherSnapshot changed = service.snapshotReceivedAt("Berlin", OBSERVED_AT.plusMinutes(6), 3.0, 25.0, 61);
+
+        assertSame(first, same);
+        assertEquals(OBSERVED_AT.plusMinutes(6), changed.getObservedAt());
+        assertEquals(3.0, changed.getTemperature());
+        verify(repository, times(2)).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Should refuse to share a stored reading that has other values")
+    void untimedReading_StoredWithOtherValues_Throws() {
+        WeatherSnapshot stored = WeatherSnapshot.builder().id(7L).city("berlin").observedAt(OBSERVED_AT)
+                .temperature(3.0).windSpeed(25.0).weatherCode(61).build();
+        when(repository.findByCityAndObservedAt("berlin", OBSERVED_AT)).thenReturn(Optional.of(stored));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> service.snapshotReceivedAt("Berlin", OBSERVED_AT, 15.0, 10.0, 1));
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Should bucket reception times into fixed intervals")
+    void observationBucket_TruncatesToInterval() {
+        assertEquals(OBSERVED_AT, WeatherSnapshotService.observationBucket(LocalDateTime.of(2026, 3, 1, 12, 29, 59)));
+        assertEquals(OBSERVED_AT, WeatherSnapshotService.observationBucket(OBSERVED_AT));
+    }
+}